@@ -1,9 +1,12 @@
+import algorithm.name.resolution.TypeResolutionCache;
+import algorithm.parsing.ASTCache;
+import algorithm.parsing.FrontEnd;
+import algorithm.parsing.lr.ParseTable;
 import algorithm.parsing.lr.ShiftReduceAlgorithm;
 import exception.CompilerException;
-import lexer.Lexer;
+import symbol.SymbolPool;
 import symbol.SymbolTable;
 import token.CompilationUnit;
-import token.Token;
 import type.hierarchy.CompilationUnitsToHierarchyGraphConverter;
 import type.hierarchy.HierarchyChecker;
 import type.hierarchy.HierarchyGraph;
@@ -11,7 +14,6 @@ import type.hierarchy.HierarchyGraphNode;
 import visitor.CodeGenerationVisitor;
 import visitor.DisambiguityVisitor;
 import visitor.EnvironmentBuildingVisitor;
-import visitor.GenericCheckVisitor;
 import visitor.PreliminaryCodeGenerationVisitor;
 import visitor.TypeCheckingVisitor;
 import visitor.ReachabilityVisitor;
@@ -19,50 +21,71 @@ import visitor.SelfAssignmentVisitor;
 import visitor.TypeLinkingVisitor;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.EmptyStackException;
 import java.util.List;
 
 /**
  * Main executable for CS444
+ * <p/>
+ * Options: --verbose, and --ast-cache=DIR to reuse the ASTs of unchanged files across runs.
  */
 public class Main {
+  private static final String AST_CACHE_OPTION = "--ast-cache=";
+  private static final String VERBOSE_OPTION = "--verbose";
 
   public static void main(String[] args) throws IOException {
+    List<String> files = new ArrayList<String>();
+    File astCacheDirectory = null;
+    boolean verbose = false;
+    for (String arg : args) {
+      if (arg.startsWith(AST_CACHE_OPTION)) {
+        astCacheDirectory = new File(arg.substring(AST_CACHE_OPTION.length()));
+      } else if (arg.equals(VERBOSE_OPTION)) {
+        verbose = true;
+      } else {
+        files.add(arg);
+      }
+    }
+
     try {
-      InputStreamReader lr1Reader = new InputStreamReader(new FileInputStream(ShiftReduceAlgorithm.DEFAULT_LR1_FILE));
+      ParseTable parseTable = ParseTable.readBinary(new File(ShiftReduceAlgorithm.DEFAULT_LR1_BINARY_FILE));
 
-      Lexer lexer = new Lexer();
-      ShiftReduceAlgorithm shiftReduceAlgorithm = new ShiftReduceAlgorithm(lr1Reader);
-      List<CompilationUnit> compilationUnits = new ArrayList<CompilationUnit>(args.length);
+      ShiftReduceAlgorithm shiftReduceAlgorithm = new ShiftReduceAlgorithm(parseTable);
       // 1. Phase 1: Construct the AST per CompilationUnit (per class), and do basic static checks.
-      for (String arg : args) {
-        InputStreamReader reader = new InputStreamReader(new FileInputStream(arg), "US-ASCII");
-        lexer.resetDFAs();
-        shiftReduceAlgorithm.reset();
-        ArrayList<Token> tokens = lexer.parse(reader);
-        CompilationUnit compilationUnit = shiftReduceAlgorithm.constructAST(tokens);
-        compilationUnit.accept(new GenericCheckVisitor(new File(arg).getName()));
-        compilationUnits.add(compilationUnit);
+      SymbolPool symbolPool = new SymbolPool();
+      FrontEnd frontEnd = new FrontEnd(shiftReduceAlgorithm, symbolPool);
+      frontEnd.setVerbose(verbose);
+      ASTCache astCache = null;
+      if (astCacheDirectory != null) {
+        astCache = new ASTCache(astCacheDirectory, parseTable.getChecksum(), symbolPool);
+        frontEnd.setASTCache(astCache);
+      }
+      List<CompilationUnit> compilationUnits = frontEnd.process(files);
+      if (verbose && astCache != null) {
+        System.err.println("AST cache: " + astCache.getHits() + " hits, " + astCache.getMisses() + " misses");
       }
       // 2. Phase 2: Construct SymbolTable, handle name resolution, and do type hierarchy checks.
-      SymbolTable table = new SymbolTable();
+      SymbolTable table = new SymbolTable(symbolPool);
       EnvironmentBuildingVisitor environmentVisitor = new EnvironmentBuildingVisitor(table);
       environmentVisitor.buildGlobalScope(compilationUnits);
 
-      TypeLinkingVisitor typeLinkingVisitor = new TypeLinkingVisitor(table);
+      TypeResolutionCache typeResolutionCache = new TypeResolutionCache();
+      TypeLinkingVisitor typeLinkingVisitor = new TypeLinkingVisitor(table, typeResolutionCache);
       typeLinkingVisitor.typeLink(compilationUnits);
 
       CompilationUnitsToHierarchyGraphConverter converter = new CompilationUnitsToHierarchyGraphConverter();
       HierarchyGraph graph = converter.convert(compilationUnits);
-      HierarchyChecker.verifyHierarchyGraph(graph);
+      new HierarchyChecker(graph).verifyHierarchyGraph();
 
       // 3. Phase 3: Disambiguate types, and perform type checking.
-      DisambiguityVisitor disambiguityVisitor = new DisambiguityVisitor(table, graph);
+      DisambiguityVisitor disambiguityVisitor = new DisambiguityVisitor(table, graph, typeResolutionCache);
       disambiguityVisitor.disambiguateUnits(compilationUnits);
+      if (verbose) {
+        System.err.println("Type name cache: " + typeResolutionCache.getHits() + " hits, " +
+            typeResolutionCache.getMisses() + " misses");
+      }
 
       TypeCheckingVisitor typeCheckingVisitor = new TypeCheckingVisitor(table, graph, converter.compilationUnitToNode);
       typeCheckingVisitor.typeCheckUnits(compilationUnits);
@@ -0,0 +1,122 @@
+package algorithm.name.resolution;
+
+import token.CompilationUnit;
+import token.Declaration;
+import token.ImportDeclaration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The types that a simple name can refer to from a CompilationUnit, through its single-type imports, its package and
+ * its on-demand imports (including the implicit java.lang.*). Resolved once per unit, so that name resolution is a map
+ * lookup instead of a walk over the import declarations and the symbol table for every name.
+ */
+public class ImportEnvironment {
+  public static final String JAVA_LANG = "java.lang";
+
+  // Simple name -> type named by the first import ending with it, null if that import does not name a type.
+  private final Map<String, Declaration> singleTypeImports = new HashMap<String, Declaration>();
+  private final Map<String, Declaration> packageTypes;
+  // Simple name -> the types of the on-demand imported packages with that name, more than one is ambiguous.
+  private final Map<String, List<Declaration>> onDemandTypes = new HashMap<String, List<Declaration>>();
+
+  private ImportEnvironment(CompilationUnit unit, Map<String, Map<String, Declaration>> typesByPackage) {
+    Set<String> onDemandPackages = new LinkedHashSet<String>();
+    if (unit.importDeclarations != null) {
+      for (ImportDeclaration decl : unit.importDeclarations.getImportDeclarations()) {
+        if (!singleTypeImports.containsKey(decl.getSuffix())) {
+          singleTypeImports.put(decl.getSuffix(), getType(typesByPackage, decl.getLexeme()));
+        }
+        if (decl.isOnDemand()) {
+          onDemandPackages.add(decl.getLexeme());
+        }
+      }
+    }
+    onDemandPackages.add(JAVA_LANG);
+
+    packageTypes = getTypes(typesByPackage, getPackage(unit));
+    for (String onDemandPackage : onDemandPackages) {
+      for (Map.Entry<String, Declaration> type : getTypes(typesByPackage, onDemandPackage).entrySet()) {
+        List<Declaration> types = onDemandTypes.get(type.getKey());
+        if (types == null) {
+          types = new ArrayList<Declaration>(1);
+          onDemandTypes.put(type.getKey(), types);
+        }
+        types.add(type.getValue());
+      }
+    }
+  }
+
+  /**
+   * Builds the environment of every unit from the types declared by the units.
+   */
+  public static void build(List<CompilationUnit> units) {
+    Map<String, Map<String, Declaration>> typesByPackage = new HashMap<String, Map<String, Declaration>>();
+    for (CompilationUnit unit : units) {
+      Map<String, Declaration> types = typesByPackage.get(getPackage(unit));
+      if (types == null) {
+        types = new HashMap<String, Declaration>();
+        typesByPackage.put(getPackage(unit), types);
+      }
+      Declaration decl = unit.typeDeclaration.getDeclaration();
+      if (!types.containsKey(decl.getIdentifier())) {
+        types.put(decl.getIdentifier(), decl);
+      }
+    }
+    for (CompilationUnit unit : units) {
+      unit.importEnvironment = new ImportEnvironment(unit, typesByPackage);
+    }
+  }
+
+  /**
+   * Returns the type named by the first import whose last identifier is name, or null.
+   */
+  public Declaration getSingleTypeImport(String name) {
+    return singleTypeImports.get(name);
+  }
+
+  /**
+   * Returns the type called name in the package of the unit, or null.
+   */
+  public Declaration getPackageType(String name) {
+    return packageTypes.get(name);
+  }
+
+  /**
+   * Returns true if more than one on-demand imported package has a type called name.
+   */
+  public boolean isAmbiguous(String name) {
+    List<Declaration> types = onDemandTypes.get(name);
+    return types != null && types.size() > 1;
+  }
+
+  /**
+   * Returns the on-demand imported type called name, or null if there is none or it is ambiguous.
+   */
+  public Declaration getOnDemandType(String name) {
+    List<Declaration> types = onDemandTypes.get(name);
+    return types != null && types.size() == 1 ? types.get(0) : null;
+  }
+
+  private static String getPackage(CompilationUnit unit) {
+    return unit.packageDeclaration != null ? unit.packageDeclaration.getIdentifier() : "";
+  }
+
+  private static Declaration getType(Map<String, Map<String, Declaration>> typesByPackage, String qualifiedName) {
+    int dot = qualifiedName.lastIndexOf('.');
+    String packageName = dot != -1 ? qualifiedName.substring(0, dot) : "";
+    return getTypes(typesByPackage, packageName).get(qualifiedName.substring(dot + 1));
+  }
+
+  private static Map<String, Declaration> getTypes(Map<String, Map<String, Declaration>> typesByPackage,
+                                                   String packageName) {
+    Map<String, Declaration> types = typesByPackage.get(packageName);
+    return types != null ? types : Collections.<String, Declaration>emptyMap();
+  }
+}
@@ -0,0 +1,85 @@
+package algorithm.name.resolution;
+
+import token.CompilationUnit;
+import token.Declaration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Memoizes what a simple type name resolves to from a CompilationUnit: the enclosing type, a single-type import, a
+ * type of the same package, or an on-demand import. The same few names (String, Object, ...) are used throughout a
+ * unit, so the lookup is only done the first time, and the result, ambiguity or failure is kept for the others.
+ * Shared by the passes that resolve names, and counts hits and misses so that its value can be reported.
+ */
+public class TypeResolutionCache {
+  private final Map<CompilationUnit, Map<String, Resolution>> resolutions =
+      new HashMap<CompilationUnit, Map<String, Resolution>>();
+  private int hits;
+  private int misses;
+
+  /**
+   * What a simple type name resolved to, the type is null if it did not resolve.
+   */
+  public static class Resolution {
+    private static final Resolution NONE = new Resolution(null, false);
+    private static final Resolution AMBIGUOUS = new Resolution(null, true);
+
+    public final Declaration type;
+    public final boolean ambiguous;
+
+    private Resolution(Declaration type, boolean ambiguous) {
+      this.type = type;
+      this.ambiguous = ambiguous;
+    }
+  }
+
+  /**
+   * Resolves the simple type name from unit, whose ImportEnvironment must be built.
+   */
+  public synchronized Resolution resolve(CompilationUnit unit, String name) {
+    Map<String, Resolution> unitResolutions = resolutions.get(unit);
+    if (unitResolutions == null) {
+      unitResolutions = new HashMap<String, Resolution>();
+      resolutions.put(unit, unitResolutions);
+    }
+    Resolution resolution = unitResolutions.get(name);
+    if (resolution != null) {
+      hits++;
+      return resolution;
+    }
+    misses++;
+    resolution = lookup(unit, name);
+    unitResolutions.put(name, resolution);
+    return resolution;
+  }
+
+  public synchronized int getHits() {
+    return hits;
+  }
+
+  public synchronized int getMisses() {
+    return misses;
+  }
+
+  private static Resolution lookup(CompilationUnit unit, String name) {
+    // 1. Try the enclosing class or interface.
+    Declaration enclosingType = unit.typeDeclaration.getDeclaration();
+    if (name.equals(enclosingType.getIdentifier())) {
+      return new Resolution(enclosingType, false);
+    }
+    ImportEnvironment importEnvironment = unit.importEnvironment;
+    // 2. Try any single-type import (A.B.C.D)
+    Declaration type = importEnvironment.getSingleTypeImport(name);
+    // 3. Try the same package
+    if (type == null) {
+      type = importEnvironment.getPackageType(name);
+    }
+    // 4. Try any import on-demand package (A.B.C.*), including java.lang.*
+    if (type == null) {
+      if (importEnvironment.isAmbiguous(name)) return Resolution.AMBIGUOUS;
+      type = importEnvironment.getOnDemandType(name);
+    }
+    return type != null ? new Resolution(type, false) : Resolution.NONE;
+  }
+}
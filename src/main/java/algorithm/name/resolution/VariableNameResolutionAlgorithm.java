@@ -1,16 +1,13 @@
 package algorithm.name.resolution;
 
 import exception.VariableNameResolutionException;
+import symbol.LocalScope;
+import symbol.SymbolKind;
 import symbol.SymbolTable;
-import token.BaseMethodDeclaration;
-import token.ClassDeclaration;
 import token.CompilationUnit;
 import token.Declaration;
 import token.FieldDeclaration;
-import token.ImportDeclaration;
-import token.InterfaceDeclaration;
 import token.Name;
-import token.PackageDeclaration;
 import token.Token;
 import token.Type;
 import type.hierarchy.HierarchyGraph;
@@ -24,20 +21,28 @@ import java.util.List;
  */
 public class VariableNameResolutionAlgorithm {
   private final SymbolTable symbolTable;
-  private SymbolTable variableTable;
   private HierarchyGraph hierarchyGraph;
+  private final TypeResolutionCache typeResolutionCache;
 
-  public VariableNameResolutionAlgorithm(SymbolTable symbolTable, SymbolTable variableTable, HierarchyGraph hierarchyGraph) {
+  public VariableNameResolutionAlgorithm(SymbolTable symbolTable, HierarchyGraph hierarchyGraph) {
+    this(symbolTable, hierarchyGraph, new TypeResolutionCache());
+  }
+
+  public VariableNameResolutionAlgorithm(SymbolTable symbolTable, HierarchyGraph hierarchyGraph,
+                                         TypeResolutionCache typeResolutionCache) {
     this.symbolTable = symbolTable;
-    this.variableTable = variableTable;
     this.hierarchyGraph = hierarchyGraph;
+    this.typeResolutionCache = typeResolutionCache;
   }
 
-  public void resolveName(CompilationUnit unit, Name name) throws VariableNameResolutionException {
+  /**
+   * Resolves name from unit, where localScope holds the variables in scope.
+   */
+  public void resolveName(CompilationUnit unit, Name name, LocalScope localScope) throws VariableNameResolutionException {
     if (name.isSimple()) {
-      resolveSingleNameDeclarations(unit, name);
+      resolveSingleNameDeclarations(unit, name, localScope);
     } else {
-      resolveQualifiedNameDeclarations(unit, name);
+      resolveQualifiedNameDeclarations(unit, name, localScope);
     }
     if (name.getDeclarationTypes() == null || name.getDeclarationTypes().isEmpty()) {
       throw new VariableNameResolutionException(
@@ -46,7 +51,7 @@ public class VariableNameResolutionAlgorithm {
     }
   }
 
-  private void resolveSingleNameDeclarations(CompilationUnit unit, Name name)
+  private void resolveSingleNameDeclarations(CompilationUnit unit, Name name, LocalScope localScope)
       throws VariableNameResolutionException {
     HierarchyGraphNode node = hierarchyGraph.get(unit.typeDeclaration.getDeclaration().getAbsolutePath());
     List<Declaration> declarations = new ArrayList<Declaration>();
@@ -55,81 +60,49 @@ public class VariableNameResolutionAlgorithm {
       declarations.add(unit.typeDeclaration.getDeclaration());
     }
     // 1. Check if it is a local variable, method param.
-    List<Token> variableSymbols = variableTable.find(name.getLexeme());
-    if (!variableSymbols.isEmpty()) {
-      declarations.add((Declaration) variableSymbols.get(0));
+    Declaration variable = localScope.find(name.getLexeme());
+    if (variable != null) {
+      declarations.add(variable);
       name.setDeclarationTypes(declarations);
     }
 
     // 2. Check the object hierarchy
-    List<FieldDeclaration> classFields = node.getAllBaseFields();
-    for (FieldDeclaration field : classFields) {
-      if (field.getIdentifier().equals(name.getLexeme())) {
-        declarations.add(field);
-      }
-    }
-    List<BaseMethodDeclaration> classMethods = node.getAllMethods();
-    for (BaseMethodDeclaration method : classMethods) {
-      if (method.getIdentifier().equals(name.getLexeme())) {
-        declarations.add(method);
-      }
+    FieldDeclaration baseField = node.getBaseField(name.getLexeme());
+    if (baseField != null) {
+      declarations.add(baseField);
     }
+    declarations.addAll(node.getMethods(name.getLexeme()));
     if (!declarations.isEmpty()) {
       name.setDeclarationTypes(declarations);
     }
 
     // 3. Check single import
-    if (unit.importDeclarations != null) {
-      List<ImportDeclaration> importDeclarations = unit.importDeclarations.getAllImportsWithSuffix(name.getLexeme());
-      if (!importDeclarations.isEmpty()) {
-        String absolutePathToType = importDeclarations.get(0).getLexeme();
-        Declaration declaration = (Declaration) symbolTable.findWithType(absolutePathToType, NameResolutionAlgorithm.CLASS_TYPES);
-        if (declaration != null) {
-          declarations.add(declaration);
-          name.setDeclarationTypes(declarations);
-        }
-      }
+    ImportEnvironment importEnvironment = unit.importEnvironment;
+    Declaration singleTypeImport = importEnvironment.getSingleTypeImport(name.getLexeme());
+    if (singleTypeImport != null) {
+      declarations.add(singleTypeImport);
+      name.setDeclarationTypes(declarations);
     }
 
     // 4. Check the same package for a type declaration
-    String packageNamePrefix = unit.packageDeclaration != null ? unit.packageDeclaration.getIdentifier() + "." : "";
-    String packageClassName = packageNamePrefix + name.getLexeme();
-    Token packageClassType = symbolTable.findWithType(packageClassName, NameResolutionAlgorithm.CLASS_TYPES);
+    Declaration packageClassType = importEnvironment.getPackageType(name.getLexeme());
     if (packageClassType != null) {
-      declarations.add((Declaration)packageClassType);
+      declarations.add(packageClassType);
       name.setDeclarationTypes(declarations);
     }
 
-    // 5. Check on-demand import
-    int matches = 0;
-    if (unit.importDeclarations != null) {
-      List<ImportDeclaration> onDemandImportDeclarations = unit.importDeclarations.getAllOnDemandImports();
-      for (ImportDeclaration importDeclaration : onDemandImportDeclarations) {
-        String absolutePathToType = importDeclaration.getLexeme() + '.' + name.getLexeme();
-        Declaration declaration = (Declaration) symbolTable.findWithType(absolutePathToType, NameResolutionAlgorithm.CLASS_TYPES);
-        if (declaration != null) {
-          declarations.add(declaration);
-          matches++;
-        }
-      }
+    // 5. Check on-demand import, including java.lang.*
+    if (importEnvironment.isAmbiguous(name.getLexeme())) {
+      throw new VariableNameResolutionException("Multiple on-demand imports found");
     }
-
-    if (matches > 1) throw new VariableNameResolutionException("Multiple on-demand imports found");
-    else if (matches == 1) {
-      name.setDeclarationTypes(declarations);
-    }
-
-    // 6. Try java.lang.* implicit on-demand package
-    List<Token> javaLangDecls = symbolTable.find(NameResolutionAlgorithm.JAVA_LANG_PREFIX + name.getLexeme());
-    for (Token type : javaLangDecls) {
-      if (type instanceof ClassDeclaration || type instanceof InterfaceDeclaration) {
-        declarations.add((Declaration) type);
-      }
+    Declaration onDemandType = importEnvironment.getOnDemandType(name.getLexeme());
+    if (onDemandType != null) {
+      declarations.add(onDemandType);
     }
     name.setDeclarationTypes(declarations);
   }
 
-  private void resolveQualifiedNameDeclarations(CompilationUnit unit, Name name) throws VariableNameResolutionException {
+  private void resolveQualifiedNameDeclarations(CompilationUnit unit, Name name, LocalScope localScope) throws VariableNameResolutionException {
     String[] identifiers = name.getLexeme().split("\\.");
 
     StringBuilder currentType = new StringBuilder();
@@ -138,7 +111,7 @@ public class VariableNameResolutionAlgorithm {
     // 2. For the resolution of b.c we simply use the hierarchy to keep nesting fields
     // 3. Finally for d resolution we get all potential declaration(field, method) matches.
     currentType.append(identifiers[0]);
-    Declaration lastMatchedDecl = resolveInitialQualified(unit, name, currentType, identifiers);
+    Declaration lastMatchedDecl = resolveInitialQualified(unit, name, localScope, currentType, identifiers);
     if (lastMatchedDecl == null) {
       throw new VariableNameResolutionException("Nothing qualified for 0th of name: " + name.getLexeme(), name);
     }
@@ -150,37 +123,34 @@ public class VariableNameResolutionAlgorithm {
       boolean match = false;
       HierarchyGraphNode node = hierarchyGraph.get(currentType.toString());
       if (node != null) {
-        List<FieldDeclaration> classFields = node.getAllFields();
-        for (FieldDeclaration field : classFields) {
-          if (field.getIdentifier().equals(identifiers[i])) {
-            if (field.modifiers.containsModifier("protected") && symbolTable.getClass(field) != unit.typeDeclaration.getDeclaration()) {
-              throw new VariableNameResolutionException("Field declaration is protected: field" + field.getIdentifier());
-            }
-            if (name.classifiedType == Name.ClassifiedType.NonStaticExpr && field.containsModifier("static")) {
-              throw new VariableNameResolutionException("Going from Non-static to static for field: " + field.getIdentifier(), field);
-            }
-            currentType.setLength(0);
-            currentType.append(getTypePath(field.type));
-            lastMatchedDecl = field;
-            name.addDeclarationNode(lastMatchedDecl);
-            name.classifiedType = field.containsModifier("static") ? Name.ClassifiedType.StaticExpr : Name.ClassifiedType.NonStaticExpr;
-            match = true;
-            break;
+        FieldDeclaration field = node.getField(identifiers[i]);
+        if (field != null) {
+          if (field.modifiers.containsModifier("protected") && symbolTable.getClass(field) != unit.typeDeclaration.getDeclaration()) {
+            throw new VariableNameResolutionException("Field declaration is protected: field" + field.getIdentifier());
           }
+          if (name.classifiedType == Name.ClassifiedType.NonStaticExpr && field.containsModifier("static")) {
+            throw new VariableNameResolutionException("Going from Non-static to static for field: " + field.getIdentifier(), field);
+          }
+          currentType.setLength(0);
+          currentType.append(getTypePath(field.type));
+          lastMatchedDecl = field;
+          name.addDeclarationNode(lastMatchedDecl);
+          name.classifiedType = field.containsModifier("static") ? Name.ClassifiedType.StaticExpr : Name.ClassifiedType.NonStaticExpr;
+          match = true;
         }
       }
       if (!match) {
         currentType.append('.');
         currentType.append(identifiers[i]);
-        Declaration classDecl = (Declaration) symbolTable.findWithType(
+        Declaration classDecl = (Declaration) symbolTable.findOfKind(
             currentType.toString(), NameResolutionAlgorithm.CLASS_TYPES);
         if (classDecl != null) {
           name.classifiedType = Name.ClassifiedType.Type;
           name.addDeclarationNode(classDecl);
           continue;
         }
-        List<Token> pkgDecls = symbolTable.findWithPrefixOfAnyType(
-            currentType.toString(), new Class[] {PackageDeclaration.class});
+        List<Token> pkgDecls = symbolTable.findWithPrefixOfAnyKind(
+            currentType.toString(), SymbolKind.PACKAGE.mask);
         if (pkgDecls == null || pkgDecls.isEmpty()) {
           throw new VariableNameResolutionException("Failed to disambiguate type: " + name.getLexeme(), name);
         }
@@ -203,23 +173,15 @@ public class VariableNameResolutionAlgorithm {
     // Fill in all matching declarations.
     HierarchyGraphNode node = hierarchyGraph.get(currentType.toString());
     if (node != null) {
-      List<BaseMethodDeclaration> classMethods = node.getAllMethods();
-      for (BaseMethodDeclaration method : classMethods) {
-        if (method.getIdentifier().equals(identifiers[identifiers.length - 1])) {
-          declarations.add(method);
-
-        }
-      }
-      List<FieldDeclaration> classFields = node.getAllFields();
-      for (FieldDeclaration field : classFields) {
-        if (field.getIdentifier().equals(identifiers[identifiers.length - 1])) {
-          declarations.add(field);
-        }
+      declarations.addAll(node.getMethods(identifiers[identifiers.length - 1]));
+      FieldDeclaration field = node.getField(identifiers[identifiers.length - 1]);
+      if (field != null) {
+        declarations.add(field);
       }
     } else {
       currentType.append('.');
       currentType.append(identifiers[identifiers.length - 1]);
-      Declaration decl = (Declaration) symbolTable.findWithType(
+      Declaration decl = (Declaration) symbolTable.findOfKind(
           currentType.toString(), NameResolutionAlgorithm.CLASS_TYPES);
       if (decl == null) {
         throw new VariableNameResolutionException(
@@ -230,14 +192,12 @@ public class VariableNameResolutionAlgorithm {
     name.setDeclarationTypes(declarations);
   }
 
-  private Declaration resolveInitialQualified(CompilationUnit unit, Name name,
+  private Declaration resolveInitialQualified(CompilationUnit unit, Name name, LocalScope localScope,
                                               StringBuilder currentType, String[] identifiers
   ) throws VariableNameResolutionException {
-    // 1.1. Check variable table.
-    Declaration lastMatchedDecl = null;
-    List<Token> variableSymbols = variableTable.find(currentType.toString());
-    if (!variableSymbols.isEmpty()) {
-      lastMatchedDecl = (Declaration) variableSymbols.get(0);
+    // 1.1. Check the local variables, parameters and preceding fields.
+    Declaration lastMatchedDecl = localScope.find(currentType.toString());
+    if (lastMatchedDecl != null) {
       currentType.setLength(0);
       currentType.append(getTypePath(lastMatchedDecl.type));
       if (lastMatchedDecl instanceof FieldDeclaration && ((FieldDeclaration) lastMatchedDecl).containsModifier("static")) {
@@ -249,87 +209,25 @@ public class VariableNameResolutionAlgorithm {
 
     HierarchyGraphNode node = hierarchyGraph.get(identifiers[0]);
     if (node != null) {
-      List<FieldDeclaration> classFields = node.getAllBaseFields();
-      for (FieldDeclaration field : classFields) {
-        if (field.getIdentifier().equals(name.getLexeme())) {
-          lastMatchedDecl = field;
-          currentType.setLength(0);
-          currentType.append(getTypePath(lastMatchedDecl.type));
-          name.classifiedType = field.containsModifier("static") ? Name.ClassifiedType.StaticExpr : Name.ClassifiedType.NonStaticExpr;
-          return lastMatchedDecl;
-        }
-      }
       List<FieldDeclaration> selfFields = node.fields;
-      for (FieldDeclaration field : selfFields) {
-        if (field.getIdentifier().equals(identifiers[0])) throw new VariableNameResolutionException("Field name has not been initialized.");
+      for (FieldDeclaration selfField : selfFields) {
+        if (selfField.getIdentifier().equals(identifiers[0])) throw new VariableNameResolutionException("Field name has not been initialized.");
       }
     }
-    if (unit.typeDeclaration.getDeclaration().getIdentifier().equals(identifiers[0])) {
-      lastMatchedDecl = unit.typeDeclaration.getDeclaration();
-      currentType.setLength(0);
-      currentType.append(lastMatchedDecl.getAbsolutePath());
-      name.classifiedType = Name.ClassifiedType.Type;
-      return lastMatchedDecl;
-    }
-
-    // 1.2. Check single import
-    if (unit.importDeclarations != null) {
-      List<ImportDeclaration> importDeclarations = unit.importDeclarations.getAllImportsWithSuffix(currentType.toString());
-      if (!importDeclarations.isEmpty()) {
-        String absolutePathToType = importDeclarations.get(0).getLexeme();
-        lastMatchedDecl = (Declaration) symbolTable.findWithType(absolutePathToType, NameResolutionAlgorithm.CLASS_TYPES);
-        if (lastMatchedDecl != null) {
-          currentType.setLength(0);
-          currentType.append(lastMatchedDecl.getAbsolutePath());
-          name.classifiedType = Name.ClassifiedType.Type;
-          return lastMatchedDecl;
-        }
-      }
+    // 1.2. Check the enclosing type, single imports, the package and on-demand imports for a Type.
+    TypeResolutionCache.Resolution resolution = typeResolutionCache.resolve(unit, identifiers[0]);
+    if (resolution.ambiguous) {
+      throw new VariableNameResolutionException("Ambiguous on demand import for name: " + name.getLexeme(), name);
     }
-
-    // 1.3. Check package for Type, can only attempt to resolve when i = 0.
-    String packageNamePrefix = unit.packageDeclaration != null ? unit.packageDeclaration.getIdentifier() + "." : "";
-    String packageClassName = packageNamePrefix + identifiers[0];
-    lastMatchedDecl = (Declaration) symbolTable.findWithType(packageClassName, NameResolutionAlgorithm.CLASS_TYPES);
-    if (lastMatchedDecl != null) {
+    if (resolution.type != null) {
+      lastMatchedDecl = resolution.type;
       currentType.setLength(0);
       currentType.append(lastMatchedDecl.getAbsolutePath());
       name.classifiedType = Name.ClassifiedType.Type;
       return lastMatchedDecl;
     }
 
-    // 1.4. Check on-demand import
-    int matches = 0;
-    if (unit.importDeclarations != null) {
-      List<ImportDeclaration> onDemandImportDeclarations = unit.importDeclarations.getAllOnDemandImports();
-      for (ImportDeclaration importDeclaration : onDemandImportDeclarations) {
-        String absolutePathToType = importDeclaration.getLexeme() + '.' + name.getLexeme();
-        lastMatchedDecl = (Declaration) symbolTable.findWithType(absolutePathToType, NameResolutionAlgorithm.CLASS_TYPES);
-        if (lastMatchedDecl != null) {
-          currentType.setLength(0);
-          currentType.append(lastMatchedDecl.getAbsolutePath());
-          name.classifiedType = Name.ClassifiedType.Type;
-          matches++;
-        }
-      }
-    }
-    if (matches > 1) {
-      throw new VariableNameResolutionException("Ambiguous on demand import for name: " + name.getLexeme(), name);
-    } else if (matches == 1) return lastMatchedDecl;
-
-    // 1.5. Try java.lang.* implicit on-demand package
-    List<Token> javaLangDecls = symbolTable.find(NameResolutionAlgorithm.JAVA_LANG_PREFIX + identifiers[0]);
-    for (Token type : javaLangDecls) {
-      if (type instanceof ClassDeclaration || type instanceof InterfaceDeclaration) {
-        lastMatchedDecl = (Declaration) type;
-        currentType.setLength(0);
-        currentType.append(lastMatchedDecl.getAbsolutePath());
-        name.classifiedType = Name.ClassifiedType.Type;
-        return lastMatchedDecl;
-      }
-    }
-
-    List<Token> pkgs = symbolTable.findWithPrefixOfAnyType(currentType.toString(), new Class[] {PackageDeclaration.class});
+    List<Token> pkgs = symbolTable.findWithPrefixOfAnyKind(currentType.toString(), SymbolKind.PACKAGE.mask);
     if (pkgs != null && !pkgs.isEmpty()) {
       lastMatchedDecl = (Declaration) pkgs.get(0);
       name.classifiedType = Name.ClassifiedType.Package;
@@ -0,0 +1,162 @@
+package algorithm.parsing;
+
+import symbol.SymbolPool;
+import token.CompilationUnit;
+import token.Token;
+import token.TokenFactory;
+import token.TokenType;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * On-disk cache of parsed CompilationUnits, keyed by the SHA-256 of the source contents and the checksum of the
+ * parse table, so that unchanged files (e.g. the stdlib) are not lexed and parsed again on every run.
+ * <p/>
+ * An entry stores the parse tree in post-order: terminals as (type, lexeme, line, column), and non-terminals as
+ * (type, #children). Loading replays the reductions through TokenFactory, which builds the same AST as the parser.
+ * Unreadable or stale entries are treated as misses, and failing to write an entry only costs the next run a parse.
+ */
+public class ASTCache {
+  public static final int MAGIC = 0x41535431;
+  public static final int FORMAT_VERSION = 1;
+  private static final int END = 0xFFFF;
+
+  private final File directory;
+  private final long tableChecksum;
+  private final SymbolPool symbolPool;
+  private final AtomicInteger hits = new AtomicInteger();
+  private final AtomicInteger misses = new AtomicInteger();
+
+  public ASTCache(File directory, long tableChecksum, SymbolPool symbolPool) {
+    this.directory = directory;
+    this.tableChecksum = tableChecksum;
+    this.symbolPool = symbolPool;
+  }
+
+  /**
+   * Returns the cached unit for the remaining bytes of source, or null on a miss. Does not move the buffer.
+   */
+  public CompilationUnit load(ByteBuffer source) {
+    File entry = getEntry(source);
+    CompilationUnit unit = null;
+    if (entry.isFile()) {
+      try {
+        unit = read(Files.readAllBytes(entry.toPath()));
+      } catch (IOException e) {
+        unit = null;
+      } catch (RuntimeException e) {
+        // A truncated or corrupted entry may not replay to a valid tree.
+        unit = null;
+      }
+    }
+    (unit != null ? hits : misses).incrementAndGet();
+    return unit;
+  }
+
+  /**
+   * Stores the unit parsed from source. Must be called before later phases modify the AST.
+   */
+  public void store(ByteBuffer source, CompilationUnit unit) {
+    File entry = getEntry(source);
+    File temp = new File(directory, entry.getName() + "." + Thread.currentThread().getId() + ".tmp");
+    try {
+      directory.mkdirs();
+      DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+      try {
+        output.writeInt(MAGIC);
+        output.writeInt(FORMAT_VERSION);
+        output.writeLong(tableChecksum);
+        write(output, unit);
+        output.writeShort(END);
+      } finally {
+        output.close();
+      }
+      // Renaming keeps concurrent readers from seeing a partially written entry.
+      if (!temp.renameTo(entry)) {
+        temp.delete();
+      }
+    } catch (IOException e) {
+      temp.delete();
+    }
+  }
+
+  public int getHits() {
+    return hits.get();
+  }
+
+  public int getMisses() {
+    return misses.get();
+  }
+
+  private File getEntry(ByteBuffer source) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    digest.update(source.duplicate());
+    StringBuilder name = new StringBuilder();
+    for (byte b : digest.digest()) {
+      name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    }
+    name.append('-').append(Long.toHexString(tableChecksum)).append(".ast");
+    return new File(directory, name.toString());
+  }
+
+  private static void write(DataOutputStream output, Token token) throws IOException {
+    if (token.children == null) {
+      output.writeShort(token.getTokenType().ordinal() << 1);
+      output.writeUTF(token.getLexeme());
+      output.writeInt(token.getLineNumber());
+      output.writeInt(token.getTokenStartPosition());
+      return;
+    }
+    for (Token child : token.children) {
+      write(output, child);
+    }
+    output.writeShort((token.getTokenType().ordinal() << 1) | 1);
+    output.writeShort(token.children.size());
+  }
+
+  private CompilationUnit read(byte[] bytes) throws IOException {
+    DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes));
+    if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION || input.readLong() != tableChecksum) {
+      return null;
+    }
+    TokenType[] types = TokenType.values();
+    ArrayList<Token> stack = new ArrayList<Token>();
+    for (int entry = input.readUnsignedShort(); entry != END; entry = input.readUnsignedShort()) {
+      TokenType type = types[entry >> 1];
+      if ((entry & 1) == 0) {
+        String lexeme = input.readUTF();
+        Token token = new Token(type == TokenType.IDENTIFIER ? symbolPool.intern(lexeme) : lexeme, type);
+        token.setLocation(input.readInt(), input.readInt());
+        stack.add(token);
+      } else {
+        int numChildren = input.readUnsignedShort();
+        List<Token> top = stack.subList(stack.size() - numChildren, stack.size());
+        ArrayList<Token> children = new ArrayList<Token>(top);
+        top.clear();
+        Token token = TokenFactory.create(type, children);
+        if (token == null) return null;
+        stack.add(token);
+      }
+    }
+    if (stack.size() != 1 || !(stack.get(0) instanceof CompilationUnit)) return null;
+    return (CompilationUnit) stack.get(0);
+  }
+}
@@ -0,0 +1,142 @@
+package algorithm.parsing;
+
+import algorithm.parsing.lr.ShiftReduceAlgorithm;
+import exception.CompilerException;
+import lexer.Lexer;
+import symbol.SymbolPool;
+import token.CompilationUnit;
+import visitor.GenericCheckVisitor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Phase 1 of the compiler: lexes, parses and runs the GenericCheckVisitor on every file.
+ * <p/>
+ * Files are processed concurrently on a fork/join pool. Each worker thread has its own Lexer and parse stacks, and
+ * streams tokens straight into the parser, while the parse tables and the SymbolPool are shared. The resulting units
+ * keep the order of the input files, and when several files fail the error of the first one in that order is
+ * reported, as with a sequential run.
+ */
+public class FrontEnd {
+  private final ShiftReduceAlgorithm parser;
+  private final SymbolPool symbolPool;
+  private final int parallelism;
+  private ASTCache astCache;
+  private boolean verbose;
+  private final ThreadLocal<Worker> workers = new ThreadLocal<Worker>() {
+    @Override
+    protected Worker initialValue() {
+      return new Worker();
+    }
+  };
+
+  /**
+   * Per thread lexer and parser state.
+   */
+  private class Worker {
+    private final Lexer lexer = new Lexer(Lexer.Mode.TABLE, symbolPool);
+    private final ShiftReduceAlgorithm shiftReduceAlgorithm = parser.copy();
+
+    CompilationUnit process(String fileName) throws IOException, CompilerException {
+      ByteBuffer source = Lexer.readSource(new File(fileName));
+      CompilationUnit compilationUnit = astCache != null ? astCache.load(source) : null;
+      boolean cached = compilationUnit != null;
+      if (!cached) {
+        lexer.resetDFAs();
+        shiftReduceAlgorithm.reset();
+        compilationUnit = shiftReduceAlgorithm.constructAST(lexer.tokenize(source));
+      }
+      compilationUnit.accept(new GenericCheckVisitor(new File(fileName).getName()));
+      if (astCache != null && !cached) {
+        astCache.store(source, compilationUnit);
+      }
+      if (verbose && astCache != null) {
+        System.err.println("AST cache " + (cached ? "hit: " : "miss: ") + fileName);
+      }
+      return compilationUnit;
+    }
+  }
+
+  public FrontEnd(ShiftReduceAlgorithm parser, SymbolPool symbolPool) {
+    this(parser, symbolPool, Runtime.getRuntime().availableProcessors());
+  }
+
+  public FrontEnd(ShiftReduceAlgorithm parser, SymbolPool symbolPool, int parallelism) {
+    this.parser = parser;
+    this.symbolPool = symbolPool;
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Loads unchanged files from the cache instead of parsing them, and stores the files that were parsed.
+   */
+  public void setASTCache(ASTCache astCache) {
+    this.astCache = astCache;
+  }
+
+  public void setVerbose(boolean verbose) {
+    this.verbose = verbose;
+  }
+
+  public List<CompilationUnit> process(List<String> fileNames) throws IOException, CompilerException {
+    final CompilationUnit[] units = new CompilationUnit[fileNames.size()];
+    final Exception[] failures = new Exception[fileNames.size()];
+
+    if (parallelism <= 1 || fileNames.size() <= 1) {
+      for (int i = 0; i < fileNames.size(); ++i) {
+        units[i] = workers.get().process(fileNames.get(i));
+      }
+      return new ArrayList<CompilationUnit>(Arrays.asList(units));
+    }
+
+    // Files after the first failure are skipped, their result would not be reported anyway.
+    final AtomicInteger firstFailure = new AtomicInteger(Integer.MAX_VALUE);
+    final List<RecursiveAction> tasks = new ArrayList<RecursiveAction>(fileNames.size());
+    for (int i = 0; i < fileNames.size(); ++i) {
+      final int index = i;
+      final String fileName = fileNames.get(i);
+      tasks.add(new RecursiveAction() {
+        @Override
+        protected void compute() {
+          if (index > firstFailure.get()) return;
+          try {
+            units[index] = workers.get().process(fileName);
+          } catch (Exception e) {
+            failures[index] = e;
+            for (int failure = firstFailure.get(); index < failure; failure = firstFailure.get()) {
+              if (firstFailure.compareAndSet(failure, index)) break;
+            }
+          }
+        }
+      });
+    }
+
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      pool.invoke(new RecursiveAction() {
+        @Override
+        protected void compute() {
+          invokeAll(tasks);
+        }
+      });
+    } finally {
+      pool.shutdown();
+    }
+
+    if (firstFailure.get() != Integer.MAX_VALUE) {
+      Exception failure = failures[firstFailure.get()];
+      if (failure instanceof IOException) throw (IOException) failure;
+      if (failure instanceof CompilerException) throw (CompilerException) failure;
+      throw (RuntimeException) failure;
+    }
+    return new ArrayList<CompilationUnit>(Arrays.asList(units));
+  }
+}
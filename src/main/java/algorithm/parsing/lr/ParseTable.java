@@ -0,0 +1,251 @@
+package algorithm.parsing.lr;
+
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * The contents of a .LR1 file: grammar symbols, production rules and the LR(1) transitions.
+ * <p/>
+ * It can be read from the text format produced by the LR(1) generator, or from the compact binary format written by
+ * ParseTableCompiler, which is loaded with a single bulk read and no string splitting.
+ * Binary layout (big-endian): magic, format version, text checksum, #symbols, symbols (short length + ASCII),
+ * #rules, rules (#symbols + symbol ids, lhs first), #states, #transitions, transition keys, transition actions.
+ */
+public class ParseTable {
+  public static final int MAGIC = 0x4C523142;
+  public static final int FORMAT_VERSION = 1;
+
+  // Terminals followed by non-terminals.
+  private final String[] symbols;
+  private final int[][] rules;
+  private final int numStates;
+  // state * symbols.length + symbol
+  private final int[] transitionKeys;
+  // (stateOrRule << 1) | 1 for a shift, (stateOrRule << 1) for a reduce
+  private final int[] transitionActions;
+  // CRC32 of the .LR1 text this table was read from.
+  private final long checksum;
+
+  private ParseTable(String[] symbols, int[][] rules, int numStates, int[] transitionKeys, int[] transitionActions,
+                     long checksum) {
+    this.symbols = symbols;
+    this.rules = rules;
+    this.numStates = numStates;
+    this.transitionKeys = transitionKeys;
+    this.transitionActions = transitionActions;
+    this.checksum = checksum;
+  }
+
+  /**
+   * Reads the .LR1 text format.
+   */
+  public static ParseTable readText(InputStreamReader reader) throws IOException {
+    BufferedReader bufferedReader = new BufferedReader(reader);
+    CRC32 crc = new CRC32();
+    List<String> symbolList = new ArrayList<String>();
+    Map<String, Integer> symbolIds = new HashMap<String, Integer>();
+
+    // 1. Terminals, then non-terminals.
+    for (int section = 0; section < 2; ++section) {
+      int numSymbols = Integer.parseInt(readLine(bufferedReader, crc));
+      for (int i = 0; i < numSymbols; ++i) {
+        String symbol = readLine(bufferedReader, crc);
+        symbolIds.put(symbol, symbolList.size());
+        symbolList.add(symbol);
+      }
+    }
+
+    // Ignore start state.
+    readLine(bufferedReader, crc);
+
+    // 2. Production rules
+    int numProductionRules = Integer.parseInt(readLine(bufferedReader, crc));
+    int[][] rules = new int[numProductionRules][];
+    for (int i = 0; i < numProductionRules; ++i) {
+      String[] rule = readLine(bufferedReader, crc).split(" ");
+      rules[i] = new int[rule.length];
+      for (int j = 0; j < rule.length; ++j) {
+        rules[i][j] = symbolIds.get(rule[j]);
+      }
+    }
+
+    // 3. Num states, and the reduce or shift transitions.
+    int numStates = Integer.parseInt(readLine(bufferedReader, crc));
+    int numTransitions = Integer.parseInt(readLine(bufferedReader, crc));
+    int[] keys = new int[numTransitions];
+    int[] actions = new int[numTransitions];
+    for (int i = 0; i < numTransitions; ++i) {
+      String[] transition = readLine(bufferedReader, crc).split(" ");
+      keys[i] = Integer.parseInt(transition[0]) * symbolList.size() + symbolIds.get(transition[1]);
+      actions[i] = (Integer.parseInt(transition[3]) << 1) | (transition[2].equals("shift") ? 1 : 0);
+    }
+    return new ParseTable(symbolList.toArray(new String[symbolList.size()]), rules, numStates, keys, actions,
+        crc.getValue());
+  }
+
+  private static String readLine(BufferedReader reader, CRC32 crc) throws IOException {
+    String line = reader.readLine();
+    if (line == null) {
+      throw new IOException("Unexpected end of the LR(1) file");
+    }
+    crc.update(line.getBytes(StandardCharsets.US_ASCII));
+    crc.update('\n');
+    return line;
+  }
+
+  /**
+   * Reads the binary format with a single channel read.
+   */
+  public static ParseTable readBinary(File file) throws IOException {
+    FileInputStream input = new FileInputStream(file);
+    ByteBuffer buffer;
+    try {
+      FileChannel channel = input.getChannel();
+      buffer = ByteBuffer.allocate((int) channel.size());
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer) == -1) break;
+      }
+      buffer.flip();
+    } finally {
+      input.close();
+    }
+
+    if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+      throw new IOException("Not a binary LR(1) table: " + file.getPath());
+    }
+    long checksum = buffer.getLong();
+
+    String[] symbols = new String[buffer.getInt()];
+    for (int i = 0; i < symbols.length; ++i) {
+      byte[] symbol = new byte[buffer.getShort()];
+      buffer.get(symbol);
+      symbols[i] = new String(symbol, StandardCharsets.US_ASCII);
+    }
+
+    int[][] rules = new int[buffer.getInt()][];
+    for (int i = 0; i < rules.length; ++i) {
+      rules[i] = getInts(buffer, buffer.getInt());
+    }
+
+    int numStates = buffer.getInt();
+    int numTransitions = buffer.getInt();
+    int[] keys = getInts(buffer, numTransitions);
+    int[] actions = getInts(buffer, numTransitions);
+    return new ParseTable(symbols, rules, numStates, keys, actions, checksum);
+  }
+
+  private static int[] getInts(ByteBuffer buffer, int length) {
+    int[] values = new int[length];
+    buffer.asIntBuffer().get(values);
+    buffer.position(buffer.position() + length * 4);
+    return values;
+  }
+
+  public void writeBinary(OutputStream outputStream) throws IOException {
+    DataOutputStream output = new DataOutputStream(outputStream);
+    output.writeInt(MAGIC);
+    output.writeInt(FORMAT_VERSION);
+    output.writeLong(checksum);
+    output.writeInt(symbols.length);
+    for (String symbol : symbols) {
+      byte[] bytes = symbol.getBytes(StandardCharsets.US_ASCII);
+      output.writeShort(bytes.length);
+      output.write(bytes);
+    }
+    output.writeInt(rules.length);
+    for (int[] rule : rules) {
+      output.writeInt(rule.length);
+      writeInts(output, rule);
+    }
+    output.writeInt(numStates);
+    output.writeInt(transitionKeys.length);
+    writeInts(output, transitionKeys);
+    writeInts(output, transitionActions);
+    output.flush();
+  }
+
+  private static void writeInts(DataOutputStream output, int[] values) throws IOException {
+    for (int value : values) {
+      output.writeInt(value);
+    }
+  }
+
+  public String[] getSymbols() {
+    return symbols;
+  }
+
+  public int getNumStates() {
+    return numStates;
+  }
+
+  public int getNumTransitions() {
+    return transitionKeys.length;
+  }
+
+  public int getTransitionState(int transition) {
+    return transitionKeys[transition] / symbols.length;
+  }
+
+  public String getTransitionSymbol(int transition) {
+    return symbols[transitionKeys[transition] % symbols.length];
+  }
+
+  public boolean isShift(int transition) {
+    return (transitionActions[transition] & 1) == 1;
+  }
+
+  public int getTransitionTarget(int transition) {
+    return transitionActions[transition] >>> 1;
+  }
+
+  /**
+   * Production rules as symbol names, the 0th element being the lhs.
+   */
+  public List<List<String>> getProductionRules() {
+    List<List<String>> productionRules = new ArrayList<List<String>>(rules.length);
+    for (int[] rule : rules) {
+      List<String> names = new ArrayList<String>(rule.length);
+      for (int symbol : rule) {
+        names.add(symbols[symbol]);
+      }
+      productionRules.add(names);
+    }
+    return productionRules;
+  }
+
+  /**
+   * Identifies the .LR1 text the table was built from, so that derived artifacts can detect grammar changes.
+   */
+  public long getChecksum() {
+    return checksum;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (!(o instanceof ParseTable)) return false;
+    ParseTable other = (ParseTable) o;
+    return checksum == other.checksum && numStates == other.numStates &&
+        Arrays.equals(symbols, other.symbols) && Arrays.deepEquals(rules, other.rules) &&
+        Arrays.equals(transitionKeys, other.transitionKeys) &&
+        Arrays.equals(transitionActions, other.transitionActions);
+  }
+
+  @Override
+  public int hashCode() {
+    return (int) (checksum ^ (checksum >>> 32));
+  }
+}
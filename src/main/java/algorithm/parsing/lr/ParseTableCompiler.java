@@ -0,0 +1,36 @@
+package algorithm.parsing.lr;
+
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+
+/**
+ * Converts the .LR1 text file into the binary table loaded by the compiler at startup. The binary table is committed,
+ * so this is run by hand after changing the grammar; ParseTableTest checks that it matches the text file.
+ * usage: ParseTableCompiler [input.lr1] [output.lr1.bin]
+ */
+public class ParseTableCompiler {
+
+  public static void main(String[] args) throws IOException {
+    String input = args.length > 0 ? args[0] : ShiftReduceAlgorithm.DEFAULT_LR1_FILE;
+    String output = args.length > 1 ? args[1] : ShiftReduceAlgorithm.DEFAULT_LR1_BINARY_FILE;
+
+    InputStreamReader reader = new InputStreamReader(new FileInputStream(input), "US-ASCII");
+    ParseTable table;
+    try {
+      table = ParseTable.readText(reader);
+    } finally {
+      reader.close();
+    }
+
+    OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(output));
+    try {
+      table.writeBinary(outputStream);
+    } finally {
+      outputStream.close();
+    }
+  }
+}
@@ -2,61 +2,52 @@ package algorithm.parsing.lr;
 
 import algorithm.parsing.lr.machine.Machine;
 import algorithm.parsing.lr.machine.MachineState;
+import exception.LexerException;
 import exception.MachineException;
+import lexer.TokenStream;
 import token.CompilationUnit;
 import token.Token;
+import token.TokenType;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
 
 /**
  * This is a special instance of the Shift-reduce algorithm that reads the CS444 .LR1 file.
  */
 public class ShiftReduceAlgorithm {
   public static String DEFAULT_LR1_FILE = "src/main/resources/output.lr1";
+  // Generated from DEFAULT_LR1_FILE by ParseTableCompiler and committed, rerun it after changing the grammar.
+  public static String DEFAULT_LR1_BINARY_FILE = "src/main/resources/output.lr1.bin";
   private Machine machine;
 
 
   public ShiftReduceAlgorithm(InputStreamReader reader) throws IOException, MachineException {
-    BufferedReader bufferedReader = new BufferedReader(reader);
-
-    // 1. Number of terminals.
-    Integer numTerminals = Integer.valueOf(bufferedReader.readLine());
-    for (int i = 0; i < numTerminals; ++i) bufferedReader.readLine();
-
-    // 2. Number of non-terminals
-    Integer numNonterminals = Integer.valueOf(bufferedReader.readLine());
-    for (int i = 0; i < numNonterminals; ++i) bufferedReader.readLine();
+    this(ParseTable.readText(reader));
+  }
 
-    // Ignore start state.
-    bufferedReader.readLine();
+  public ShiftReduceAlgorithm(ParseTable table) throws MachineException {
+    machine = new Machine(table.getNumStates());
+    machine.addProductionRule(table.getProductionRules());
 
-    // 3. Production rules
-    Integer numProductionRules = Integer.valueOf(bufferedReader.readLine());
-    List<List<String>> productionRules = new ArrayList<List<String>>(numProductionRules);
-    for (int i = 0; i < numProductionRules; ++i) {
-      List<String> rule = new ArrayList<String>();
-      rule.addAll(Arrays.asList(bufferedReader.readLine().split(" ")));
-      productionRules.add(rule);
+    for (int i = 0; i < table.getNumTransitions(); ++i) {
+      MachineState.Action action = table.isShift(i) ? MachineState.Action.SHIFT : MachineState.Action.REDUCE;
+      machine.addTransition(table.getTransitionState(i), table.getTransitionSymbol(i), action,
+          table.getTransitionTarget(i));
     }
+  }
 
-    // 3. Num states, setup the machine.
-    Integer numStates = Integer.valueOf(bufferedReader.readLine());
-    machine = new Machine(numStates);
-    machine.addProductionRule(productionRules);
+  private ShiftReduceAlgorithm(Machine machine) {
+    this.machine = machine;
+  }
 
-    // 4. Reduce or Shift transitions
-    Integer numTransitions = Integer.valueOf(bufferedReader.readLine());
-    for (int i = 0; i < numTransitions; ++i) {
-      String[] transition = bufferedReader.readLine().split(" ");
-      MachineState.Action action = transition[2].equals("shift") ?
-          MachineState.Action.SHIFT : MachineState.Action.REDUCE;
-      machine.addTransition(Integer.valueOf(transition[0]), transition[1], action, Integer.valueOf(transition[3]));
-    }
+  /**
+   * Returns an instance with its own parse state that shares this instance's tables, so that several files can be
+   * parsed concurrently.
+   */
+  public ShiftReduceAlgorithm copy() {
+    return new ShiftReduceAlgorithm(new Machine(machine));
   }
 
   public CompilationUnit constructAST(ArrayList<Token> tokens) throws MachineException {
@@ -66,6 +57,18 @@ public class ShiftReduceAlgorithm {
     return machine.getResult();
   }
 
+  /**
+   * Parses tokens as the stream produces them, so no token list is built and lexing stops at the first parse error.
+   */
+  public CompilationUnit constructAST(TokenStream tokens) throws LexerException, MachineException {
+    Token token;
+    do {
+      token = tokens.nextToken();
+      machine.applyAction(token);
+    } while (token.getTokenType() != TokenType.EOF);
+    return machine.getResult();
+  }
+
   public void reset() {
     machine.reset();
   }
@@ -1,112 +1,157 @@
 package algorithm.parsing.lr.machine;
 
-import algorithm.base.Pair;
 import exception.MachineException;
 import token.CompilationUnit;
 import token.Token;
+import token.TokenFactory;
 import token.TokenType;
 
-import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Stack;
 
 /**
  * Represents an LR(1) machine.
+ * <p/>
+ * Actions are packed into a dense table indexed by [state id][TokenType ordinal]: a shift to state s is stored as
+ * s + 1, a reduction by rule r as -(r + 1), and 0 marks a missing transition.
+ * The parse state is kept in two parallel array stacks (state ids and tokens), which are reused across resets.
  */
 public class Machine {
-  private ArrayList<MachineState> machineStates;
-  private List<List<String>> productionRules;
-  private Stack<Token> tokens;
-  private Stack<MachineState> states;
+  private static final int NO_ACTION = 0;
+  private static final int INITIAL_STACK_SIZE = 64;
+  private static final TokenType[] TOKEN_TYPES = TokenType.values();
+
+  private int[][] actions;
+  // Per production rule: the lhs TokenType (null if it has no token), and the TokenType ordinals of the rhs.
+  private TokenType[] ruleLhs;
+  private int[][] ruleRhs;
+  // states[0] is the start state and has no token, so tokens[i] is the token shifted into states[i + 1].
+  private int[] states;
+  private Token[] tokens;
+  private int numTokens;
 
 
   public Machine(int size) {
-    machineStates = new ArrayList<MachineState>(size);
-    for (int i = 0; i < size; ++i) {
-      machineStates.add(new MachineState(i));
-    }
+    actions = new int[size][TokenType.values().length];
+    states = new int[INITIAL_STACK_SIZE + 1];
+    tokens = new Token[INITIAL_STACK_SIZE];
+    reset();
+  }
+
+  /**
+   * Creates a machine with its own stacks that shares the action and rule tables of other, which must not be
+   * modified afterwards.
+   */
+  public Machine(Machine other) {
+    actions = other.actions;
+    ruleLhs = other.ruleLhs;
+    ruleRhs = other.ruleRhs;
+    states = new int[INITIAL_STACK_SIZE + 1];
+    tokens = new Token[INITIAL_STACK_SIZE];
     reset();
   }
 
   public void addProductionRule(List<List<String>> productionRules) throws MachineException {
-    this.productionRules = productionRules;
+    ruleLhs = new TokenType[productionRules.size()];
+    ruleRhs = new int[productionRules.size()][];
+    for (int rule = 0; rule < productionRules.size(); ++rule) {
+      List<String> productionRule = productionRules.get(rule);
+      ruleLhs[rule] = TokenType.getTokenType(productionRule.get(0));
+      ruleRhs[rule] = new int[productionRule.size() - 1];
+      for (int i = 1; i < productionRule.size(); ++i) {
+        TokenType tokenType = TokenType.getTokenType(productionRule.get(i));
+        if (tokenType == null) {
+          throw new MachineException("Unknown symbol in production rule: " + productionRule.get(i), null);
+        }
+        ruleRhs[rule][i - 1] = tokenType.ordinal();
+      }
+    }
   }
 
-  public void addTransition(int state0, String token, MachineState.Action action, int stateOrRule) {
-    machineStates.get(state0).addTransition(token, action, stateOrRule);
+  public void addTransition(int state0, String token, MachineState.Action action, int stateOrRule)
+      throws MachineException {
+    TokenType tokenType = TokenType.getTokenType(token);
+    if (tokenType == null) {
+      throw new MachineException("Unknown symbol in transition: " + token, null);
+    }
+    actions[state0][tokenType.ordinal()] = action == MachineState.Action.SHIFT ? stateOrRule + 1 : -(stateOrRule + 1);
   }
 
   public void applyAction(Token token) throws MachineException {
+    int symbol = token.getTokenType().ordinal();
+    int action = actions[states[numTokens]][symbol];
     // This is looped so that after each reduction, we imply that token is incoming (nested reduction).
-    while (states.peek().getTransition(token) != null &&
-        states.peek().getTransition(token).getFirst() == MachineState.Action.REDUCE) {
-      performReduction(states.peek().getTransition(token));
+    while (action < NO_ACTION) {
+      performReduction(-action - 1);
+      action = actions[states[numTokens]][symbol];
     }
     if (token.getTokenType() != TokenType.EOF) {
-      performShift(token, states.peek().getTransition(token));
+      performShift(token, action);
     }
   }
 
 
-  private void performReduction(Pair<MachineState.Action, Integer> actionPair) throws MachineException {
-    while (actionPair != null && actionPair.getFirst() == MachineState.Action.REDUCE) {
-      // Get the reduction production rule.
-      List<String> productionRule = productionRules.get(actionPair.getSecond());
+  private void performReduction(int rule) throws MachineException {
+    int[] rhsTypes = ruleRhs[rule];
+    int rhsStart = numTokens - rhsTypes.length;
 
-      // Check in reverse because a stack is an reverse insertion order.
-      List<Token> rhs = new ArrayList<Token>();
-      for (int i = productionRule.size() - 1; i > 0; --i) {
-        if (!tokens.peek().getTokenType().toString().equals(productionRule.get(i))) {
-          throw new MachineException("Parse error on token: " + tokens.peek().getTokenType().toString() +
-              " vs. " + productionRule.get(i), tokens.peek());
-        }
-        rhs.add(tokens.pop());
-        states.pop();
-      }
-      Collections.reverse(rhs);
-      // Use the 0th element as the reduction class.
-      Token reducedToken;
-      try {
-        Class<? extends Token> lhsClass = Class.forName("token." + productionRule.get(0)).asSubclass(Token.class);
-        reducedToken = lhsClass.getConstructor(ArrayList.class).newInstance(rhs);
-      } catch (InstantiationException e) {
-        throw new MachineException(e.getMessage() + " token: " + productionRule.get(0), tokens.peek());
-      } catch (IllegalAccessException e) {
-        throw new MachineException(e.getMessage() + " token: " + productionRule.get(0), tokens.peek());
-      } catch (ClassNotFoundException e) {
-        throw new MachineException(e.getMessage() + " token: " + productionRule.get(0), tokens.peek());
-      } catch (NoSuchMethodException e) {
-        throw new MachineException(e.getMessage() + " token: " + productionRule.get(0), tokens.peek());
-      } catch (InvocationTargetException e) {
-        throw new MachineException(e.getMessage() + " token: " + productionRule.get(0), tokens.peek());
+    // Check the rhs against the top of the stack, and copy it in order.
+    ArrayList<Token> rhs = new ArrayList<Token>(rhsTypes.length);
+    for (int i = 0; i < rhsTypes.length; ++i) {
+      Token token = rhsStart + i >= 0 ? tokens[rhsStart + i] : null;
+      if (token == null || token.getTokenType().ordinal() != rhsTypes[i]) {
+        throw new MachineException("Parse error on token: " + (token != null ? token.getTokenType().toString() : "") +
+            " vs. " + TOKEN_TYPES[rhsTypes[i]].toString(), peek());
       }
-      // Finally perform the transition using the reduced token.
-      actionPair = states.peek().getTransition(reducedToken);
-      tokens.push(reducedToken);
-      states.push(machineStates.get(actionPair.getSecond()));
+      rhs.add(token);
+    }
+    numTokens = rhsStart;
+    // Use the lhs as the reduction class.
+    Token reducedToken = ruleLhs[rule] != null ? TokenFactory.create(ruleLhs[rule], rhs) : null;
+    if (reducedToken == null) {
+      throw new MachineException("No token to reduce rule " + rule + " into", peek());
     }
+    // Finally perform the transition using the reduced token.
+    int gotoAction = actions[states[numTokens]][reducedToken.getTokenType().ordinal()];
+    if (gotoAction <= NO_ACTION) {
+      throw new MachineException("Expected a goto on token: " + reducedToken.getTokenType().toString(), reducedToken);
+    }
+    push(reducedToken, gotoAction - 1);
   }
 
-  private void performShift(Token token, Pair<MachineState.Action, Integer> actionPair) throws MachineException {
-    if (actionPair == null || actionPair.getFirst() != MachineState.Action.SHIFT) {
-      throw new MachineException("Expected a shift on token: " + token.getTokenType().toString(), tokens.peek());
+  private void performShift(Token token, int action) throws MachineException {
+    if (action <= NO_ACTION) {
+      throw new MachineException("Expected a shift on token: " + token.getTokenType().toString(), peek());
     }
-    tokens.push(token);
-    states.push(machineStates.get(actionPair.getSecond()));
+    push(token, action - 1);
+  }
+
+  private void push(Token token, int state) {
+    if (numTokens == tokens.length) {
+      tokens = Arrays.copyOf(tokens, tokens.length * 2);
+      states = Arrays.copyOf(states, tokens.length + 1);
+    }
+    tokens[numTokens++] = token;
+    states[numTokens] = state;
+  }
+
+  private Token peek() {
+    return numTokens > 0 ? tokens[numTokens - 1] : null;
   }
 
   public CompilationUnit getResult() throws MachineException {
-    if (tokens.size() != 1 || !(tokens.peek() instanceof CompilationUnit)) {
-      throw new MachineException("List of tokens did not correctly parse into a CompilationUnit", tokens.peek());
+    if (numTokens != 1 || !(tokens[0] instanceof CompilationUnit)) {
+      throw new MachineException("List of tokens did not correctly parse into a CompilationUnit", peek());
     }
-    return (CompilationUnit) tokens.pop();
+    numTokens = 0;
+    return (CompilationUnit) tokens[0];
   }
 
   public void reset() {
-    tokens = new Stack<Token>();
-    states = new Stack<MachineState>();
-    states.push(machineStates.get(0));
+    // Drop references to the previous unit's tokens, but keep the stacks.
+    Arrays.fill(tokens, null);
+    numTokens = 0;
+    states[0] = 0;
   }
 }
@@ -0,0 +1,299 @@
+package algorithm.trie;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trie over the '.' separated segments of qualified names, e.g. java -> lang -> String, mapping each key to a value.
+ * Answers "which keys start with these segments" in O(#segments + #results), instead of comparing every key.
+ * Segments follow String.split("\\.") so that prefixes match exactly as a segment-wise comparison would.
+ * <p/>
+ * Each key carries a non-zero bitmask of kinds, and every node knows the kinds below it, so a query for some kinds
+ * skips the subtrees that only hold other kinds (e.g. the members below a type when looking for types).
+ * Results are ordered by key, and the ordered values of a prefix are kept until a key below it changes, since the
+ * global scope is built once and then queried many times.
+ * <p/>
+ * Changes must not overlap with any other call, but once the trie stops changing it may be queried from several
+ * threads at once: the kept values are published as immutable snapshots.
+ */
+public class SegmentTrie<K, V> {
+  public static final int ALL_KINDS = -1;
+
+  private final Node<K, V> head = new Node<K, V>();
+  private final Comparator<? super K> comparator;
+
+  private static class Item<K, V> {
+    final K key;
+    final V value;
+    int kinds;
+
+    Item(K key, V value, int kinds) {
+      this.key = key;
+      this.value = value;
+      this.kinds = kinds;
+    }
+  }
+
+  /**
+   * The ordered values of a subtree for each kind queried so far. Never modified: a query for new kinds publishes a
+   * copy with them added.
+   */
+  private static class Ordered<V> {
+    final int[] kinds;
+    final List<List<V>> values;
+
+    Ordered(int[] kinds, List<List<V>> values) {
+      this.kinds = kinds;
+      this.values = values;
+    }
+  }
+
+  private static class Node<K, V> {
+    Map<String, Node<K, V>> children;
+    // Keys whose segments end at this node.
+    List<Item<K, V>> items;
+    // Kinds of the items of this node, and of the items below it.
+    int kinds;
+    int kindsBelow;
+    // Values of the subtree ordered by key for the kinds queried so far, dropped when the subtree changes.
+    volatile Ordered<V> ordered;
+
+    void invalidate() {
+      ordered = null;
+    }
+  }
+
+  /**
+   * Orders keys with comparator, or by their natural ordering if it is null.
+   */
+  public SegmentTrie(Comparator<? super K> comparator) {
+    this.comparator = comparator;
+  }
+
+  public void insert(K key, V value) {
+    insert(key, value, ALL_KINDS);
+  }
+
+  /**
+   * Inserts a key that is not in the trie yet.
+   */
+  public void insert(K key, V value, int kinds) {
+    Node<K, V> traverse = head;
+    traverse.invalidate();
+    for (String segment : split(key.toString())) {
+      traverse.kindsBelow |= kinds;
+      if (traverse.children == null) {
+        traverse.children = new HashMap<String, Node<K, V>>();
+      }
+      Node<K, V> child = traverse.children.get(segment);
+      if (child == null) {
+        child = new Node<K, V>();
+        traverse.children.put(segment, child);
+      }
+      traverse = child;
+      traverse.invalidate();
+    }
+    if (traverse.items == null) {
+      traverse.items = new ArrayList<Item<K, V>>(1);
+    }
+    traverse.items.add(new Item<K, V>(key, value, kinds));
+    traverse.kinds |= kinds;
+  }
+
+  /**
+   * Changes the kinds of key, e.g. when a value of another kind is added to it.
+   */
+  public void setKinds(K key, int kinds) {
+    List<Node<K, V>> path = findPath(split(key.toString()));
+    Item<K, V> item = path == null ? null : findItem(path.get(path.size() - 1), key);
+    if (item == null || item.kinds == kinds) return;
+    boolean grows = (item.kinds & kinds) == item.kinds;
+    item.kinds = kinds;
+    if (grows) {
+      for (int i = 0; i < path.size() - 1; ++i) {
+        path.get(i).kindsBelow |= kinds;
+        path.get(i).invalidate();
+      }
+      path.get(path.size() - 1).kinds |= kinds;
+      path.get(path.size() - 1).invalidate();
+    } else {
+      update(path, split(key.toString()));
+    }
+  }
+
+  public void remove(K key) {
+    String[] segments = split(key.toString());
+    List<Node<K, V>> path = findPath(segments);
+    if (path == null) return;
+    Node<K, V> last = path.get(path.size() - 1);
+    Item<K, V> item = findItem(last, key);
+    if (item == null) return;
+    last.items.remove(item);
+    update(path, segments);
+  }
+
+  public boolean containsPrefix(String prefix) {
+    return containsPrefix(prefix, ALL_KINDS);
+  }
+
+  /**
+   * Returns true if any key of one of kinds has the segments of prefix as its leading segments.
+   */
+  public boolean containsPrefix(String prefix, int kinds) {
+    Node<K, V> node = findNode(split(prefix));
+    return node != null && ((node.kinds | node.kindsBelow) & kinds) != 0;
+  }
+
+  public List<V> findWithPrefix(String prefix) {
+    return findWithPrefix(prefix, ALL_KINDS);
+  }
+
+  /**
+   * Returns the values of every key of one of kinds that has the segments of prefix as its leading segments,
+   * ordered by key. The list must not be modified.
+   */
+  public List<V> findWithPrefix(String prefix, int kinds) {
+    Node<K, V> node = findNode(split(prefix));
+    if (node == null || ((node.kinds | node.kindsBelow) & kinds) == 0) {
+      return Collections.emptyList();
+    }
+    Ordered<V> ordered = node.ordered;
+    if (ordered != null) {
+      for (int i = 0; i < ordered.kinds.length; ++i) {
+        if (ordered.kinds[i] == kinds) return ordered.values.get(i);
+      }
+    }
+
+    List<Item<K, V>> items = new ArrayList<Item<K, V>>();
+    collect(node, kinds, items);
+    Collections.sort(items, new Comparator<Item<K, V>>() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public int compare(Item<K, V> a, Item<K, V> b) {
+        return comparator != null ? comparator.compare(a.key, b.key) :
+            ((Comparable<? super K>) a.key).compareTo(b.key);
+      }
+    });
+    List<V> values = new ArrayList<V>(items.size());
+    for (Item<K, V> item : items) {
+      values.add(item.value);
+    }
+    values = Collections.unmodifiableList(values);
+
+    // Concurrent queries of new kinds may each publish their copy, losing the kinds of the others, which are only
+    // computed again.
+    int cached = ordered == null ? 0 : ordered.kinds.length;
+    int[] orderedKinds = new int[cached + 1];
+    List<List<V>> orderedValues = new ArrayList<List<V>>(cached + 1);
+    if (cached > 0) {
+      System.arraycopy(ordered.kinds, 0, orderedKinds, 0, cached);
+      orderedValues.addAll(ordered.values);
+    }
+    orderedKinds[cached] = kinds;
+    orderedValues.add(values);
+    node.ordered = new Ordered<V>(orderedKinds, orderedValues);
+    return values;
+  }
+
+  private Node<K, V> findNode(String[] segments) {
+    Node<K, V> traverse = head;
+    for (int i = 0; i < segments.length && traverse != null; ++i) {
+      traverse = traverse.children == null ? null : traverse.children.get(segments[i]);
+    }
+    return traverse;
+  }
+
+  /**
+   * Returns the nodes from the head to the node of segments, or null if there is none.
+   */
+  private List<Node<K, V>> findPath(String[] segments) {
+    List<Node<K, V>> path = new ArrayList<Node<K, V>>(segments.length + 1);
+    Node<K, V> traverse = head;
+    path.add(traverse);
+    for (String segment : segments) {
+      traverse = traverse.children == null ? null : traverse.children.get(segment);
+      if (traverse == null) return null;
+      path.add(traverse);
+    }
+    return path;
+  }
+
+  private static <K, V> Item<K, V> findItem(Node<K, V> node, K key) {
+    if (node.items == null) return null;
+    for (Item<K, V> item : node.items) {
+      if (item.key.equals(key)) return item;
+    }
+    return null;
+  }
+
+  /**
+   * Recomputes the kinds along path bottom-up after kinds were removed from its last node, and prunes the nodes
+   * left without keys.
+   */
+  private static <K, V> void update(List<Node<K, V>> path, String[] segments) {
+    for (int i = path.size() - 1; i >= 0; --i) {
+      Node<K, V> node = path.get(i);
+      node.invalidate();
+      node.kinds = 0;
+      if (node.items != null) {
+        for (Item<K, V> item : node.items) {
+          node.kinds |= item.kinds;
+        }
+      }
+      node.kindsBelow = recomputeBelow(node);
+      if (i > 0 && node.kinds == 0 && node.kindsBelow == 0) {
+        path.get(i - 1).children.remove(segments[i - 1]);
+      }
+    }
+  }
+
+  private static <K, V> int recomputeBelow(Node<K, V> node) {
+    int kinds = 0;
+    if (node.children != null) {
+      for (Node<K, V> child : node.children.values()) {
+        kinds |= child.kinds | child.kindsBelow;
+      }
+    }
+    return kinds;
+  }
+
+  private static <K, V> void collect(Node<K, V> node, int kinds, List<Item<K, V>> items) {
+    if ((node.kinds & kinds) != 0) {
+      for (Item<K, V> item : node.items) {
+        if ((item.kinds & kinds) != 0) items.add(item);
+      }
+    }
+    if ((node.kindsBelow & kinds) != 0) {
+      for (Node<K, V> child : node.children.values()) {
+        collect(child, kinds, items);
+      }
+    }
+  }
+
+  /**
+   * Equivalent to name.split("\\.") without the regular expression.
+   */
+  public static String[] split(String name) {
+    int dot = name.indexOf('.');
+    if (dot == -1) {
+      return new String[]{name};
+    }
+    List<String> segments = new ArrayList<String>();
+    int start = 0;
+    for (; dot != -1; dot = name.indexOf('.', start)) {
+      segments.add(name.substring(start, dot));
+      start = dot + 1;
+    }
+    segments.add(name.substring(start));
+    // Trailing empty segments are dropped.
+    int length = segments.size();
+    while (length > 0 && segments.get(length - 1).isEmpty()) {
+      length--;
+    }
+    return segments.subList(0, length).toArray(new String[length]);
+  }
+}
@@ -0,0 +1,366 @@
+package dfa;
+
+import token.TokenType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A single minimized DFA equivalent to running CommentDFA, ReservedDFA, LiteralDFA, NumericDFA and IdentifierDFA
+ * in parallel, stored as a dense transition table.
+ * <p/>
+ * The table only recognizes lexemes, the caller is responsible for maximal munch (remembering the last accepting
+ * state) and for post-processing the recognized text (un-escaping literals, validating the integer range).
+ * Accepting states are labelled using the same precedence as the Lexer: Comment, Reserved, Literal, Numeric,
+ * Identifier. The dead state is kept distinct from live non-accepting states so that the number of consumed
+ * characters matches the parallel DFAs exactly.
+ */
+public class CombinedDFA {
+  public static final int ASCII_SIZE = 128;
+  public static final int DEAD_STATE = 0;
+  public static final int START_STATE = 1;
+
+  private static CombinedDFA instance;
+
+  private final int[][] transitions;
+  private final TokenType[] acceptTypes;
+
+  private CombinedDFA(int[][] transitions, TokenType[] acceptTypes) {
+    this.transitions = transitions;
+    this.acceptTypes = acceptTypes;
+  }
+
+  /**
+   * Returns the shared table, building it on first use.
+   */
+  public static synchronized CombinedDFA getInstance() {
+    if (instance == null) {
+      instance = build();
+    }
+    return instance;
+  }
+
+  /**
+   * Transition table indexed by [state][character], DEAD_STATE marks the error state.
+   */
+  public int[][] getTransitions() {
+    return transitions;
+  }
+
+  /**
+   * Token type accepted by each state, null for non-accepting states.
+   */
+  public TokenType[] getAcceptTypes() {
+    return acceptTypes;
+  }
+
+  public int getNumStates() {
+    return transitions.length;
+  }
+
+  /**
+   * A simple table based automaton where -1 is the error state.
+   */
+  private static class Automaton {
+    private final List<int[]> transitions = new ArrayList<int[]>();
+    private final List<TokenType> accepts = new ArrayList<TokenType>();
+
+    int addState(TokenType acceptType) {
+      int[] row = new int[ASCII_SIZE];
+      Arrays.fill(row, -1);
+      transitions.add(row);
+      accepts.add(acceptType);
+      return transitions.size() - 1;
+    }
+
+    void set(int from, char c, int to) {
+      transitions.get(from)[c] = to;
+    }
+
+    void setRange(int from, char low, char high, int to) {
+      for (char c = low; c <= high; ++c) {
+        set(from, c, to);
+      }
+    }
+
+    void setAll(int from, int to) {
+      Arrays.fill(transitions.get(from), to);
+    }
+
+    int next(int state, char c) {
+      return state == -1 ? -1 : transitions.get(state)[c];
+    }
+
+    TokenType accept(int state) {
+      return state == -1 ? null : accepts.get(state);
+    }
+  }
+
+  private static CombinedDFA build() {
+    // Ordered by precedence, mirrors the ordering used by Lexer.
+    Automaton[] automata = new Automaton[]{buildComment(), buildReserved(), buildLiteral(), buildNumeric(),
+        buildIdentifier()};
+    List<int[]> productTransitions = new ArrayList<int[]>();
+    List<TokenType> productAccepts = new ArrayList<TokenType>();
+    buildProduct(automata, productTransitions, productAccepts);
+    return minimize(productTransitions, productAccepts);
+  }
+
+  /**
+   * Subset construction over the tuple of component states, starting from the tuple of start states (all 0).
+   * The all-dead tuple becomes product state 0.
+   */
+  private static void buildProduct(Automaton[] automata, List<int[]> transitions, List<TokenType> accepts) {
+    Map<List<Integer>, Integer> stateIds = new HashMap<List<Integer>, Integer>();
+    List<List<Integer>> worklist = new ArrayList<List<Integer>>();
+
+    List<Integer> dead = new ArrayList<Integer>();
+    List<Integer> start = new ArrayList<Integer>();
+    for (int i = 0; i < automata.length; ++i) {
+      dead.add(-1);
+      start.add(0);
+    }
+    for (List<Integer> tuple : Arrays.asList(dead, start)) {
+      stateIds.put(tuple, transitions.size());
+      transitions.add(new int[ASCII_SIZE]);
+      accepts.add(getAcceptType(automata, tuple));
+      worklist.add(tuple);
+    }
+
+    for (int i = 0; i < worklist.size(); ++i) {
+      List<Integer> tuple = worklist.get(i);
+      int[] row = transitions.get(stateIds.get(tuple));
+      for (char c = 0; c < ASCII_SIZE; ++c) {
+        List<Integer> next = new ArrayList<Integer>(automata.length);
+        for (int j = 0; j < automata.length; ++j) {
+          next.add(automata[j].next(tuple.get(j), c));
+        }
+        Integer id = stateIds.get(next);
+        if (id == null) {
+          id = transitions.size();
+          stateIds.put(next, id);
+          transitions.add(new int[ASCII_SIZE]);
+          accepts.add(getAcceptType(automata, next));
+          worklist.add(next);
+        }
+        row[c] = id;
+      }
+    }
+  }
+
+  private static TokenType getAcceptType(Automaton[] automata, List<Integer> tuple) {
+    for (int i = 0; i < automata.length; ++i) {
+      TokenType type = automata[i].accept(tuple.get(i));
+      if (type != null) return type;
+    }
+    return null;
+  }
+
+  /**
+   * Moore partition refinement. The initial partition separates states by accept type, and isolates the dead state
+   * so that live but non-accepting states are not merged into it.
+   */
+  private static CombinedDFA minimize(List<int[]> transitions, List<TokenType> accepts) {
+    int numStates = transitions.size();
+    int[] partition = new int[numStates];
+    Map<List<Object>, Integer> classIds = new HashMap<List<Object>, Integer>();
+    for (int s = 0; s < numStates; ++s) {
+      List<Object> key = Arrays.<Object>asList(s == DEAD_STATE, accepts.get(s));
+      partition[s] = getClassId(classIds, key);
+    }
+    int numClasses = classIds.size();
+
+    while (true) {
+      classIds = new HashMap<List<Object>, Integer>();
+      int[] refined = new int[numStates];
+      for (int s = 0; s < numStates; ++s) {
+        List<Object> key = new ArrayList<Object>(ASCII_SIZE + 1);
+        key.add(partition[s]);
+        for (int target : transitions.get(s)) {
+          key.add(partition[target]);
+        }
+        refined[s] = getClassId(classIds, key);
+      }
+      partition = refined;
+      if (classIds.size() == numClasses) break;
+      numClasses = classIds.size();
+    }
+
+    // Renumber the classes so that the dead and start states keep their well-known ids.
+    int[] renumbered = new int[numClasses];
+    Arrays.fill(renumbered, -1);
+    renumbered[partition[DEAD_STATE]] = DEAD_STATE;
+    renumbered[partition[START_STATE]] = START_STATE;
+    int nextId = 2;
+    for (int s = 0; s < numStates; ++s) {
+      if (renumbered[partition[s]] == -1) {
+        renumbered[partition[s]] = nextId++;
+      }
+    }
+
+    int[][] table = new int[numClasses][ASCII_SIZE];
+    TokenType[] acceptTypes = new TokenType[numClasses];
+    for (int s = 0; s < numStates; ++s) {
+      int id = renumbered[partition[s]];
+      int[] row = transitions.get(s);
+      for (char c = 0; c < ASCII_SIZE; ++c) {
+        table[id][c] = renumbered[partition[row[c]]];
+      }
+      acceptTypes[id] = accepts.get(s);
+    }
+    return new CombinedDFA(table, acceptTypes);
+  }
+
+  private static int getClassId(Map<List<Object>, Integer> classIds, List<Object> key) {
+    Integer id = classIds.get(key);
+    if (id == null) {
+      id = classIds.size();
+      classIds.put(key, id);
+    }
+    return id;
+  }
+
+  /**
+   * Mirrors CommentDFA, including the trailing '\n' of a "\r\n" terminated single line comment.
+   */
+  private static Automaton buildComment() {
+    Automaton a = new Automaton();
+    int start = a.addState(null);
+    int singleSlash = a.addState(null);
+    int doubleSlash = a.addState(null);
+    int slashStar = a.addState(null);
+    int starSlash = a.addState(null);
+    int acceptSlash = a.addState(TokenType.COMMENT_SLASH);
+    int acceptSlashCR = a.addState(TokenType.COMMENT_SLASH);
+    int acceptStar = a.addState(TokenType.COMMENT_STAR);
+
+    a.set(start, '/', singleSlash);
+    a.set(singleSlash, '/', doubleSlash);
+    a.set(singleSlash, '*', slashStar);
+    a.setAll(doubleSlash, doubleSlash);
+    a.set(doubleSlash, '\n', acceptSlash);
+    a.set(doubleSlash, '\r', acceptSlashCR);
+    a.setAll(slashStar, slashStar);
+    a.set(slashStar, '*', starSlash);
+    a.setAll(starSlash, slashStar);
+    a.set(starSlash, '*', starSlash);
+    a.set(starSlash, '/', acceptStar);
+    a.set(acceptSlashCR, '\n', acceptSlash);
+    return a;
+  }
+
+  /**
+   * Mirrors ReservedDFA, the trie of reserved keywords.
+   */
+  private static Automaton buildReserved() {
+    Automaton a = new Automaton();
+    a.addState(null);
+    for (int i = 0; i < TokenType.RESERVED_LENGTH.ordinal(); ++i) {
+      TokenType type = TokenType.values()[i];
+      String word = type.toString();
+      int state = 0;
+      for (int j = 0; j < word.length(); ++j) {
+        int next = a.next(state, word.charAt(j));
+        if (next == -1) {
+          next = a.addState(null);
+          a.set(state, word.charAt(j), next);
+        }
+        state = next;
+      }
+      a.accepts.set(state, type);
+    }
+    return a;
+  }
+
+  /**
+   * Mirrors LiteralDFA. A char literal may only hold a single (possibly escaped) character, an octal escape
+   * followed by another character is still consumed before failing.
+   */
+  private static Automaton buildLiteral() {
+    Automaton a = new Automaton();
+    int start = a.addState(null);
+    int acceptChar = a.addState(TokenType.CHAR_LITERAL);
+    int acceptString = a.addState(TokenType.STR_LITERAL);
+
+    // Single quote: the states track the number of characters seen so far.
+    int charEmpty = a.addState(null);
+    int charEscape = a.addState(null);
+    int charZeroToThree = a.addState(null);
+    int charZeroToSeven = a.addState(null);
+    int charFull = a.addState(null);
+    int charOverflow = a.addState(null);
+
+    a.set(start, '\'', charEmpty);
+    a.setAll(charEmpty, charFull);
+    a.set(charEmpty, '\\', charEscape);
+    a.set(charEmpty, '\'', acceptChar);
+    a.set(charFull, '\'', acceptChar);
+    setEscapes(a, charEscape, charFull, charZeroToThree, charZeroToSeven);
+    setOctal(a, charZeroToThree, charZeroToSeven, charOverflow, '\'', acceptChar);
+    setOctal(a, charZeroToSeven, charFull, charOverflow, '\'', acceptChar);
+
+    // Double quote
+    int string = a.addState(null);
+    int stringEscape = a.addState(null);
+    int stringZeroToThree = a.addState(null);
+    int stringZeroToSeven = a.addState(null);
+
+    a.set(start, '"', string);
+    a.setAll(string, string);
+    a.set(string, '\\', stringEscape);
+    a.set(string, '"', acceptString);
+    setEscapes(a, stringEscape, string, stringZeroToThree, stringZeroToSeven);
+    setOctal(a, stringZeroToThree, stringZeroToSeven, string, '"', acceptString);
+    setOctal(a, stringZeroToSeven, string, string, '"', acceptString);
+    return a;
+  }
+
+  private static void setEscapes(Automaton a, int escape, int literal, int zeroToThree, int zeroToSeven) {
+    for (char c : new char[]{'b', 't', 'n', 'f', 'r', '\'', '"', '\\'}) {
+      a.set(escape, c, literal);
+    }
+    a.setRange(escape, '0', '3', zeroToThree);
+    a.setRange(escape, '4', '7', zeroToSeven);
+  }
+
+  private static void setOctal(Automaton a, int from, int octalDigit, int other, char quote, int accept) {
+    a.setAll(from, other);
+    a.setRange(from, '0', '7', octalDigit);
+    a.set(from, quote, accept);
+    a.set(from, (char) 127, -1);
+  }
+
+  /**
+   * Mirrors NumericDFA, the integer range is validated by the caller.
+   */
+  private static Automaton buildNumeric() {
+    Automaton a = new Automaton();
+    int start = a.addState(null);
+    int zero = a.addState(TokenType.INT_LITERAL);
+    int number = a.addState(TokenType.INT_LITERAL);
+    a.set(start, '0', zero);
+    a.setRange(start, '1', '9', number);
+    a.setRange(number, '0', '9', number);
+    return a;
+  }
+
+  /**
+   * Mirrors IdentifierDFA.
+   */
+  private static Automaton buildIdentifier() {
+    Automaton a = new Automaton();
+    int start = a.addState(null);
+    int identifier = a.addState(TokenType.IDENTIFIER);
+    for (int s : new int[]{start, identifier}) {
+      a.setRange(s, 'a', 'z', identifier);
+      a.setRange(s, 'A', 'Z', identifier);
+      a.set(s, '_', identifier);
+      a.set(s, '$', identifier);
+    }
+    a.setRange(identifier, '0', '9', identifier);
+    return a;
+  }
+}
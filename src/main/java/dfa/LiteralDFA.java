@@ -157,6 +157,35 @@ public class LiteralDFA implements DFA {
     }
   }
 
+  /**
+   * Un-escapes the source text of a literal accepted by this DFA, producing the same lexeme as consume() would.
+   */
+  public static String unescape(CharSequence source) {
+    StringBuilder unescaped = new StringBuilder(source.length());
+    for (int i = 0; i < source.length(); ++i) {
+      char c = source.charAt(i);
+      if (c != '\\' || i + 1 >= source.length()) {
+        unescaped.append(c);
+        continue;
+      }
+      char next = source.charAt(++i);
+      if (next < '0' || next > '7') {
+        unescaped.append(getUnEscapedChar(next));
+        continue;
+      }
+      // Octal escapes are at most \377, ie. 3 digits when starting with 0 - 3 and 2 digits otherwise.
+      int maxDigits = next <= '3' ? 3 : 2;
+      int end = i + 1;
+      while (end < source.length() && end - i < maxDigits &&
+          source.charAt(end) >= '0' && source.charAt(end) <= '7') {
+        end++;
+      }
+      unescaped.append(getUnEscapedOctal(source.subSequence(i, end).toString()));
+      i = end - 1;
+    }
+    return unescaped.toString();
+  }
+
   private static char getUnEscapedChar(char c) {
     switch(c) {
       case 'b':
@@ -3,10 +3,14 @@ package dfa;
 import token.Token;
 import token.TokenType;
 
+import java.nio.charset.StandardCharsets;
+
 /**
  * Handles parsing of numbers.
  */
 public class NumericDFA implements DFA {
+  private static final byte[] MAX_MAGNITUDE = "2147483648".getBytes(StandardCharsets.US_ASCII);
+
   private StringBuilder builder;
   private Token token;
 
@@ -58,14 +62,36 @@ public class NumericDFA implements DFA {
   }
 
   private boolean isValidNumber() {
+    return isValidNumber(builder.toString());
+  }
+
+  /**
+   * Checks that the digits fit in an int, allowing for the magnitude of Integer.MIN_VALUE.
+   */
+  public static boolean isValidNumber(String digits) {
     try {
-      Integer.parseInt('-' + builder.toString());
+      Integer.parseInt('-' + digits);
       return true;
     } catch (NumberFormatException e) {
       return false;
     }
   }
 
+  /**
+   * Same check as isValidNumber(String) on the ASCII digits source[offset, offset + length), without allocating.
+   */
+  public static boolean isValidNumber(byte[] source, int offset, int length) {
+    if (length != MAX_MAGNITUDE.length) {
+      return length < MAX_MAGNITUDE.length;
+    }
+    for (int i = 0; i < length; ++i) {
+      if (source[offset + i] != MAX_MAGNITUDE[i]) {
+        return source[offset + i] < MAX_MAGNITUDE[i];
+      }
+    }
+    return true;
+  }
+
   @Override
   public Token getToken() {
     return token;
@@ -7,12 +7,20 @@ import dfa.LiteralDFA;
 import dfa.NumericDFA;
 import dfa.ReservedDFA;
 import exception.LexerException;
+import symbol.SymbolPool;
 import token.Token;
 import token.TokenType;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
@@ -21,12 +29,34 @@ import java.util.HashSet;
  * Defines the Lexer algorithm for parsing the Joos 1W language.
  */
 public class Lexer {
+  /**
+   * DFAS runs every DFA in parallel (the reference implementation), TABLE uses the single CombinedDFA table.
+   * Every parse method lexes in the mode of the lexer, but only TABLE can stream tokens through tokenize.
+   */
+  public enum Mode {DFAS, TABLE}
+
+  private static final int READ_CHUNK_SIZE = 8192;
+
+  private final Mode mode;
   private final DFA[] dfas;
+  private final SymbolPool symbolPool;
   private HashSet<Character> skipSet;
 
   public Lexer() {
+    this(Mode.DFAS);
+  }
+
+  public Lexer(Mode mode) {
+    this(mode, new SymbolPool());
+  }
+
+  public Lexer(Mode mode, SymbolPool symbolPool) {
+    this.mode = mode;
+    this.symbolPool = symbolPool;
     // The ordering is preserved by precedence, so that equal length maximal tokens takes the first occurrence.
-    dfas = new DFA[]{new CommentDFA(), new ReservedDFA(), new LiteralDFA(), new NumericDFA(), new IdentifierDFA()};
+    dfas = mode == Mode.DFAS ?
+        new DFA[]{new CommentDFA(), new ReservedDFA(), new LiteralDFA(), new NumericDFA(), new IdentifierDFA()} :
+        new DFA[0];
     skipSet = new HashSet<Character>(Arrays.asList(new Character[]{'\n', '\r', ' ', '\t', '\f'}));
     resetDFAs();
   }
@@ -73,9 +103,17 @@ public class Lexer {
    * Reads from InputStreamReader, throws an exception on unsupported encoding.
    */
   public ArrayList<Token> parse(InputStreamReader inputStreamReader) throws IOException, LexerException {
+    if (mode == Mode.TABLE) {
+      return parse(readSource(inputStreamReader));
+    }
+    return parseWithDFAs(inputStreamReader);
+  }
+
+  private ArrayList<Token> parseWithDFAs(Reader reader) throws IOException, LexerException {
+    resetDFAs();
     int curCharPosition = 1;
     int lineNumber = 1;
-    BufferedReader bufferedReader = new BufferedReader(inputStreamReader);
+    BufferedReader bufferedReader = new BufferedReader(reader);
     ArrayList<Token> tokens = new ArrayList<Token>();
     char c;
     boolean stop = false;
@@ -130,6 +168,128 @@ public class Lexer {
     return tokens;
   }
 
+  /**
+   * Lexes an ASCII source buffer. With the CombinedDFA table (see TokenStream), tokens refer to slices of source
+   * instead of copying each character, and identifiers are interned in the SymbolPool.
+   */
+  public ArrayList<Token> parse(byte[] source) throws LexerException {
+    return parse(source, 0, source.length);
+  }
+
+  /**
+   * Bulk reads the file into a ByteBuffer and lexes it directly from bytes, skipping charset decoding.
+   */
+  public ArrayList<Token> parse(File file) throws IOException, LexerException {
+    return parse(readSource(file));
+  }
+
+  /**
+   * Lexes the remaining bytes of source. Tokens may keep slices of the buffer, so it must not be modified afterwards.
+   */
+  public ArrayList<Token> parse(ByteBuffer source) throws LexerException {
+    if (mode == Mode.DFAS) {
+      byte[] copy = new byte[source.remaining()];
+      source.duplicate().get(copy);
+      return parse(copy, 0, copy.length);
+    }
+    return collect(tokenize(source));
+  }
+
+  /**
+   * Lexes source[offset, offset + length), see parse(byte[]).
+   */
+  public ArrayList<Token> parse(byte[] source, int offset, int length) throws LexerException {
+    if (mode == Mode.DFAS) {
+      // Latin-1 maps every byte to the char of the same value, so non-ASCII bytes are still rejected.
+      Reader reader = new InputStreamReader(new ByteArrayInputStream(source, offset, length), StandardCharsets.ISO_8859_1);
+      try {
+        return parseWithDFAs(reader);
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+    return collect(tokenize(source, offset, length));
+  }
+
+  /**
+   * Bulk reads the file and returns a stream that lexes it on demand.
+   */
+  public TokenStream tokenize(File file) throws IOException {
+    return tokenize(readSource(file));
+  }
+
+  public TokenStream tokenize(ByteBuffer source) {
+    if (!source.hasArray()) {
+      byte[] copy = new byte[source.remaining()];
+      source.duplicate().get(copy);
+      return tokenize(copy, 0, copy.length);
+    }
+    return tokenize(source.array(), source.arrayOffset() + source.position(), source.remaining());
+  }
+
+  /**
+   * Returns a stream that lexes source[offset, offset + length) on demand with the CombinedDFA table.
+   * @throws IllegalStateException if the lexer is in Mode.DFAS, which cannot stream tokens.
+   */
+  public TokenStream tokenize(byte[] source, int offset, int length) {
+    if (mode != Mode.TABLE) {
+      throw new IllegalStateException("Only a Lexer in Mode.TABLE can stream tokens, use parse in Mode.DFAS");
+    }
+    return new TokenStream(source, offset, length, symbolPool);
+  }
+
+  private static ArrayList<Token> collect(TokenStream stream) throws LexerException {
+    ArrayList<Token> tokens = new ArrayList<Token>();
+    Token token;
+    do {
+      token = stream.nextToken();
+      tokens.add(token);
+    } while (token.getTokenType() != TokenType.EOF);
+    return tokens;
+  }
+
+  public SymbolPool getSymbolPool() {
+    return symbolPool;
+  }
+
+  /**
+   * Reads the whole file with a single channel read where possible. Source files are small, so this is cheaper than
+   * mapping them, and the heap buffer can outlive the file for the tokens that refer to it.
+   */
+  public static ByteBuffer readSource(File file) throws IOException {
+    FileInputStream input = new FileInputStream(file);
+    try {
+      FileChannel channel = input.getChannel();
+      ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer) == -1) break;
+      }
+      buffer.flip();
+      return buffer;
+    } finally {
+      input.close();
+    }
+  }
+
+  /**
+   * Reads the whole input into an ASCII buffer. Characters outside of the ASCII range are kept as a negative byte
+   * so that the error is reported at the same location as the DFAs.
+   */
+  private static byte[] readSource(InputStreamReader reader) throws IOException {
+    char[] chunk = new char[READ_CHUNK_SIZE];
+    byte[] source = new byte[READ_CHUNK_SIZE];
+    int length = 0;
+    for (int read = reader.read(chunk); read != -1; read = reader.read(chunk)) {
+      if (length + read > source.length) {
+        source = Arrays.copyOf(source, Math.max(source.length * 2, length + read));
+      }
+      for (int i = 0; i < read; ++i) {
+        source[length++] = chunk[i] < 128 ? (byte) chunk[i] : (byte) 0x80;
+      }
+    }
+    return Arrays.copyOf(source, length);
+  }
+
   private boolean isCommentToken(Token token) {
     return token == dfas[0].getToken();
   }
@@ -0,0 +1,148 @@
+package lexer;
+
+import dfa.CombinedDFA;
+import dfa.LiteralDFA;
+import dfa.NumericDFA;
+import exception.LexerException;
+import symbol.SymbolPool;
+import token.Token;
+import token.TokenType;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Pull-based token source over an ASCII source buffer, lexed with the CombinedDFA table.
+ * <p/>
+ * Each call to nextToken() runs the automaton only as far as the next token, so the parser can consume tokens as
+ * they are produced and stop at its first error without lexing the rest of the file. The last token is EOF, which
+ * is returned again on every following call. Negative bytes mark characters outside of the ASCII range.
+ */
+public class TokenStream {
+  private final byte[] source;
+  private final int end;
+  private final SymbolPool symbolPool;
+  private final int[][] transitions;
+  private final TokenType[] acceptTypes;
+
+  private int position;
+  private int curCharPosition = 1;
+  private int lineNumber = 1;
+  private boolean stop = false;
+  private Token eof;
+
+  TokenStream(byte[] source, int offset, int length, SymbolPool symbolPool) {
+    this.source = source;
+    this.end = offset + length;
+    this.position = offset;
+    this.symbolPool = symbolPool;
+    CombinedDFA combinedDFA = CombinedDFA.getInstance();
+    transitions = combinedDFA.getTransitions();
+    acceptTypes = combinedDFA.getAcceptTypes();
+  }
+
+  /**
+   * Lexes the next token using the same algorithm as the parallel DFAs: consume until the automaton dies, emit the
+   * last accepted token and re-consume the character that caused the failure.
+   */
+  public Token nextToken() throws LexerException {
+    int state = CombinedDFA.START_STATE;
+    int tokenStart = position;
+    TokenType acceptType = null;
+    int acceptLength = 0;
+    int c;
+
+    while (!stop) {
+      if (position == end) {
+        c = '\n';
+        stop = true;
+      } else {
+        c = source[position];
+      }
+
+      if (c < 0) {
+        throw new LexerException("Error: Out of ASCII range. Occurred at Line#: " + lineNumber +
+            "character: " + curCharPosition);
+      }
+
+      int next = transitions[state][c];
+      if (next == CombinedDFA.DEAD_STATE) {
+        Token maxToken = null;
+        if (acceptType != null && !isCommentType(acceptType)) {
+          maxToken = createToken(tokenStart, acceptLength, acceptType);
+          if (maxToken != null) {
+            int lexemeLength = isLiteralType(acceptType) ? maxToken.getLexeme().length() : acceptLength;
+            maxToken.setLocation(lineNumber, curCharPosition - lexemeLength + 1);
+            return maxToken;
+          }
+        }
+
+        if (!isCommentType(acceptType)) {
+          if (isSkipCharacter(c)) {
+            if (c == '\n') {
+              lineNumber++;
+              curCharPosition = 1;
+            } else {
+              curCharPosition++;
+            }
+            position++;
+          } else {
+            throw new LexerException("Error: All DFAs failed to create a valid token. Occurred at line#: " +
+                lineNumber + " character: " + curCharPosition);
+          }
+        }
+        state = CombinedDFA.START_STATE;
+        tokenStart = position;
+        acceptType = null;
+      } else {
+        state = next;
+        position++;
+        if (acceptTypes[state] != null) {
+          acceptType = acceptTypes[state];
+          acceptLength = position - tokenStart;
+        }
+        if (c == '\n') {
+          lineNumber++;
+          curCharPosition = 1;
+        } else {
+          curCharPosition++;
+        }
+      }
+    }
+    if (eof == null) {
+      eof = new Token("EOF", TokenType.EOF);
+    }
+    return eof;
+  }
+
+  /**
+   * Builds the token for the accepted slice, or null if the DFAs would not have produced one.
+   */
+  private Token createToken(int offset, int length, TokenType type) {
+    if (type.ordinal() < TokenType.RESERVED_LENGTH.ordinal()) {
+      return new Token(type.toString(), type);
+    }
+    switch (type) {
+      case IDENTIFIER:
+        return new Token(symbolPool.intern(source, offset, length), type);
+      case INT_LITERAL:
+        return NumericDFA.isValidNumber(source, offset, length) ? new Token(source, offset, length, type) : null;
+      case CHAR_LITERAL:
+      case STR_LITERAL:
+        return new Token(LiteralDFA.unescape(new String(source, offset, length, StandardCharsets.US_ASCII)), type);
+      default:
+        return new Token(source, offset, length, type);
+    }
+  }
+
+  private static boolean isSkipCharacter(int c) {
+    return c == '\n' || c == '\r' || c == ' ' || c == '\t' || c == '\f';
+  }
+
+  private static boolean isLiteralType(TokenType type) {
+    return type == TokenType.CHAR_LITERAL || type == TokenType.STR_LITERAL;
+  }
+
+  private static boolean isCommentType(TokenType type) {
+    return type == TokenType.COMMENT_SLASH || type == TokenType.COMMENT_STAR;
+  }
+}
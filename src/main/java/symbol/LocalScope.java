@@ -0,0 +1,52 @@
+package symbol;
+
+import token.Declaration;
+
+/**
+ * An immutable frame of the variables visible at a point of a class body: a declaration, linked to the frame it was
+ * declared in. Declaring a variable links a new frame instead of modifying one, so a frame can be captured and kept by
+ * a later pass at the cost of a reference, and leaving a scope is going back to the frame that was current when it was
+ * entered.
+ */
+public final class LocalScope {
+  public static final LocalScope EMPTY = new LocalScope(null, null, null);
+
+  private final String identifier;
+  private final Declaration declaration;
+  private final LocalScope parent;
+
+  private LocalScope(String identifier, Declaration declaration, LocalScope parent) {
+    this.identifier = identifier;
+    this.declaration = declaration;
+    this.parent = parent;
+  }
+
+  /**
+   * Returns the frame with declaration visible as identifier on top of this one.
+   */
+  public LocalScope declare(String identifier, Declaration declaration) {
+    return new LocalScope(identifier, declaration, this);
+  }
+
+  /**
+   * Returns the innermost declaration of identifier, or null.
+   */
+  public Declaration find(String identifier) {
+    for (LocalScope scope = this; scope != EMPTY; scope = scope.parent) {
+      if (scope.identifier.equals(identifier)) return scope.declaration;
+    }
+    return null;
+  }
+
+  /**
+   * Returns the innermost declaration of identifier of one of kinds (a SymbolKind mask), or null.
+   */
+  public Declaration findOfKind(String identifier, int kinds) {
+    for (LocalScope scope = this; scope != EMPTY; scope = scope.parent) {
+      if (scope.identifier.equals(identifier) && SymbolKind.isOfKind(scope.declaration, kinds)) {
+        return scope.declaration;
+      }
+    }
+    return null;
+  }
+}
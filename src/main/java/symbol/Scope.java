@@ -1,89 +1,300 @@
 package symbol;
 
+import algorithm.trie.SegmentTrie;
+
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
 
 /**
- * A class that encapsulates a scope that uses a balanced-tree to achieve O(logn) lookup.
- * We assume that scopes typically have a small set of variable declarations.
- * Thus, a TreeMap provides better space and runtime complexity trade-offs than a HashMap.
+ * A class that encapsulates a scope, keyed by the ids that a SymbolPool assigns to names.
+ * Lookups are a probe in an open-addressing table of ints, rather than string comparisons down a balanced-tree.
+ * Prefix queries on qualified names go through a SegmentTrie instead of scanning every key.
+ * <p/>
+ * Every value is added with a non-zero bitmask of kinds (see SymbolKind), and lookups can be restricted to a set of
+ * kinds given as a bitmask, e.g. types only, without allocating and without visiting the values of other kinds.
  */
-public class Scope<K, V> {
-  private TreeMap<K, List<V>> symbols;
+public class Scope<V> {
+  public static final int ALL_KINDS = SegmentTrie.ALL_KINDS;
+  private static final int INITIAL_CAPACITY = 8;
+
+  private final SymbolPool symbolPool;
+  // Open-addressing table of (symbol id + 1), 0 marks an empty slot, with the entry of each key.
+  private int[] keys;
+  private Object[] entries;
+  private int size;
+  // Segments of the names of the keys, for prefix queries.
+  private volatile SegmentTrie<String, Entry<V>> prefixIndex;
+
+  /**
+   * The values of a key with their kinds, in arrays sized to fit since almost every key has a single value.
+   * It is the list returned by find, and cannot be modified through it.
+   */
+  private static class Entry<V> extends AbstractList<V> {
+    Object[] values;
+    // Kind of each value, null while there is a single value since it is then kindMask.
+    int[] kinds;
+    // Union of kinds.
+    int kindMask;
+
+    Entry(V value, int kind) {
+      values = new Object[]{value};
+      kindMask = kind;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(int index) {
+      return (V) values[index];
+    }
+
+    @Override
+    public int size() {
+      return values.length;
+    }
+
+    int kindAt(int index) {
+      return kinds == null ? kindMask : kinds[index];
+    }
+
+    void add(V value, int kind) {
+      int size = values.length;
+      int[] grown = new int[size + 1];
+      for (int i = 0; i < size; ++i) {
+        grown[i] = kindAt(i);
+      }
+      grown[size] = kind;
+      kinds = grown;
+      values = Arrays.copyOf(values, size + 1);
+      values[size] = value;
+      kindMask |= kind;
+    }
+
+    /**
+     * Returns false if value was the last one, in which case the entry is left unchanged.
+     */
+    boolean removeValue(V value) {
+      int index = indexOf(value);
+      if (index == -1) return true;
+      if (values.length == 1) return false;
+      Object[] remainingValues = new Object[values.length - 1];
+      int[] remainingKinds = new int[values.length - 1];
+      kindMask = 0;
+      for (int i = 0, j = 0; i < values.length; ++i) {
+        if (i == index) continue;
+        remainingValues[j] = values[i];
+        remainingKinds[j] = kinds[i];
+        kindMask |= kinds[i];
+        j++;
+      }
+      values = remainingValues;
+      kinds = remainingKinds.length == 1 ? null : remainingKinds;
+      return true;
+    }
+
+    V first(int kindSet) {
+      if ((kindMask & kindSet) == 0) return null;
+      for (int i = 0; i < values.length; ++i) {
+        if ((kindAt(i) & kindSet) != 0) return get(i);
+      }
+      return null;
+    }
 
-  public Scope() {
-    this.symbols = new TreeMap<K, List<V>>();
+    void addTo(List<V> results, int kindSet) {
+      if ((kindMask & kindSet) == kindMask) {
+        results.addAll(this);
+        return;
+      }
+      for (int i = 0; i < values.length; ++i) {
+        if ((kindAt(i) & kindSet) != 0) results.add(get(i));
+      }
+    }
   }
 
-  public void add(K key, V value) {
-    if (symbols.containsKey(key)) {
-      symbols.get(key).add(value);
+  public Scope(SymbolPool symbolPool) {
+    this.symbolPool = symbolPool;
+    keys = new int[INITIAL_CAPACITY];
+    entries = new Object[INITIAL_CAPACITY];
+  }
+
+  public void add(int id, V value, int kind) {
+    int slot = findSlot(id);
+    if (keys[slot] == 0) {
+      Entry<V> entry = new Entry<V>(value, kind);
+      keys[slot] = id + 1;
+      entries[slot] = entry;
+      if (++size * 2 > keys.length) {
+        grow();
+      }
+      if (prefixIndex != null) prefixIndex.insert(symbolPool.getSymbol(id), entry, entry.kindMask);
     } else {
-      symbols.put(key, new ArrayList<V>());
-      symbols.get(key).add(value);
+      Entry<V> entry = entryAt(slot);
+      int kindMask = entry.kindMask;
+      entry.add(value, kind);
+      if (prefixIndex != null && entry.kindMask != kindMask) {
+        prefixIndex.setKinds(symbolPool.getSymbol(id), entry.kindMask);
+      }
     }
   }
 
-  public void remove(K key) {
-    symbols.remove(key);
+  public void remove(int id) {
+    int slot = findSlot(id);
+    if (keys[slot] == 0) return;
+    removeSlot(slot);
+    if (prefixIndex != null) prefixIndex.remove(symbolPool.getSymbol(id));
   }
 
-  public void remove(K key, V value) {
-    if (symbols.containsKey(key)) {
-      symbols.get(key).remove(value);
-      if (symbols.get(key).isEmpty()) {
-        symbols.remove(key);
+  public void remove(int id, V value) {
+    Entry<V> entry = getEntry(id);
+    if (entry != null) {
+      int kindMask = entry.kindMask;
+      if (!entry.removeValue(value)) {
+        remove(id);
+      } else if (prefixIndex != null && entry.kindMask != kindMask) {
+        prefixIndex.setKinds(symbolPool.getSymbol(id), entry.kindMask);
       }
     }
   }
 
   public boolean containsPrefix(String prefix) {
-    String[] prefixNames = prefix.split("\\.");
-    for (K key : symbols.keySet()) {
-      String[] keyNames = key.toString().split("\\.");
-      if (keyNames.length < prefixNames.length) continue;
-      boolean matched = true;
-      for (int i = 0; i < prefixNames.length; ++i) {
-        if (!prefixNames[i].equals(keyNames[i])) {
-          matched = false;
-          break;
-        }
-      }
-      if (matched) return true;
-    }
-    return false;
+    return containsPrefix(prefix, ALL_KINDS);
+  }
+
+  /**
+   * Returns true if a value of one of kinds has a name that starts with the segments of prefix.
+   */
+  public boolean containsPrefix(String prefix, int kinds) {
+    return getPrefixIndex().containsPrefix(prefix, kinds);
   }
 
   public List<V> findWithPrefix(String prefix) {
-    String[] prefixNames = prefix.split("\\.");
+    return findWithPrefix(prefix, ALL_KINDS);
+  }
+
+  /**
+   * Returns the values of one of kinds whose name starts with the segments of prefix, ordered by name.
+   */
+  public List<V> findWithPrefix(String prefix, int kinds) {
     List<V> values = new ArrayList<V>();
-    for (K key : symbols.keySet()) {
-      String[] keyNames = key.toString().split("\\.");
-      if (keyNames.length < prefixNames.length) continue;
-      boolean matched = true;
-      for (int i = 0; i < prefixNames.length; ++i) {
-        if (!prefixNames[i].equals(keyNames[i])) {
-          matched = false;
-          break;
+    for (Entry<V> entry : getPrefixIndex().findWithPrefix(prefix, kinds)) {
+      entry.addTo(values, kinds);
+    }
+    return values;
+  }
+
+  /**
+   * Built on the first prefix query, so that scopes that are only queried by exact name (e.g. locals) never pay for
+   * it, and maintained by add and remove afterwards. The first query may come from concurrent readers of a scope that
+   * is no longer modified, e.g. when type checking in parallel, so the index is built once under the lock.
+   */
+  private SegmentTrie<String, Entry<V>> getPrefixIndex() {
+    SegmentTrie<String, Entry<V>> index = prefixIndex;
+    if (index == null) {
+      synchronized (this) {
+        index = prefixIndex;
+        if (index == null) {
+          index = new SegmentTrie<String, Entry<V>>(null);
+          for (int slot = 0; slot < keys.length; ++slot) {
+            if (keys[slot] != 0) {
+              index.insert(symbolPool.getSymbol(keys[slot] - 1), entryAt(slot), entryAt(slot).kindMask);
+            }
+          }
+          prefixIndex = index;
         }
       }
-      if (matched) values.addAll(symbols.get(key));
     }
-    return values;
+    return index;
   }
 
   public int size() {
-    return symbols.size();
+    return size;
+  }
+
+  public List<V> find(int id) {
+    Entry<V> entry = getEntry(id);
+    return entry;
+  }
+
+  /**
+   * Returns the first value of id of one of kinds, or null.
+   */
+  public V find(int id, int kinds) {
+    Entry<V> entry = getEntry(id);
+    return entry != null ? entry.first(kinds) : null;
+  }
+
+  public boolean contains(int id) {
+    return keys[findSlot(id)] != 0;
   }
 
-  public List<V> find(K key) {
-    return symbols.get(key);
+  public boolean contains(int id, int kinds) {
+    Entry<V> entry = getEntry(id);
+    return entry != null && (entry.kindMask & kinds) != 0;
   }
 
-  public boolean contains(K key) {
-    return symbols.containsKey(key);
+  private Entry<V> getEntry(int id) {
+    int slot = findSlot(id);
+    return keys[slot] != 0 ? entryAt(slot) : null;
+  }
+
+  @SuppressWarnings("unchecked")
+  private Entry<V> entryAt(int slot) {
+    return (Entry<V>) entries[slot];
+  }
+
+  /**
+   * Returns the slot of id, or the empty slot where it would be inserted.
+   */
+  private int findSlot(int id) {
+    int mask = keys.length - 1;
+    int slot = hash(id) & mask;
+    while (keys[slot] != 0 && keys[slot] != id + 1) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  /**
+   * Ids are dense, so they are mixed before being used as a hash.
+   */
+  private static int hash(int id) {
+    int h = id * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * Empties slot, and shifts back the following keys of the probe sequence so that no tombstones are needed.
+   */
+  private void removeSlot(int slot) {
+    int mask = keys.length - 1;
+    keys[slot] = 0;
+    entries[slot] = null;
+    size--;
+    for (int next = (slot + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+      int home = hash(keys[next] - 1) & mask;
+      // Move the key back if its home is not in (slot, next].
+      if (slot <= next ? (home <= slot || home > next) : (home <= slot && home > next)) {
+        keys[slot] = keys[next];
+        entries[slot] = entries[next];
+        keys[next] = 0;
+        entries[next] = null;
+        slot = next;
+      }
+    }
+  }
+
+  private void grow() {
+    int[] oldKeys = keys;
+    Object[] oldEntries = entries;
+    keys = new int[oldKeys.length * 2];
+    entries = new Object[oldKeys.length * 2];
+    for (int slot = 0; slot < oldKeys.length; ++slot) {
+      if (oldKeys[slot] != 0) {
+        int newSlot = findSlot(oldKeys[slot] - 1);
+        keys[newSlot] = oldKeys[slot];
+        entries[newSlot] = oldEntries[slot];
+      }
+    }
   }
 }
@@ -0,0 +1,49 @@
+package symbol;
+
+import token.AbstractMethodDeclaration;
+import token.ClassDeclaration;
+import token.ConstructorDeclaration;
+import token.FieldDeclaration;
+import token.FormalParameter;
+import token.InterfaceDeclaration;
+import token.LocalVariableDeclaration;
+import token.MethodDeclaration;
+import token.PackageDeclaration;
+import token.Token;
+
+/**
+ * The kinds of declarations held by a SymbolTable.
+ * Sets of kinds are int bitmasks, e.g. SymbolKind.TYPES, so that lookups filtered by kind do not allocate.
+ */
+public enum SymbolKind {
+  PACKAGE, CLASS, INTERFACE, FIELD, METHOD, ABSTRACT_METHOD, CONSTRUCTOR, PARAMETER, LOCAL, OTHER;
+
+  public final int mask = 1 << ordinal();
+
+  public static final int TYPES = CLASS.mask | INTERFACE.mask;
+  public static final int METHODS = METHOD.mask | ABSTRACT_METHOD.mask;
+  public static final int VARIABLES = PARAMETER.mask | FIELD.mask | LOCAL.mask;
+
+  /**
+   * Returns the mask of the kind of token.
+   */
+  public static int of(Token token) {
+    if (token instanceof ClassDeclaration) return CLASS.mask;
+    if (token instanceof InterfaceDeclaration) return INTERFACE.mask;
+    if (token instanceof FieldDeclaration) return FIELD.mask;
+    if (token instanceof MethodDeclaration) return METHOD.mask;
+    if (token instanceof AbstractMethodDeclaration) return ABSTRACT_METHOD.mask;
+    if (token instanceof ConstructorDeclaration) return CONSTRUCTOR.mask;
+    if (token instanceof FormalParameter) return PARAMETER.mask;
+    if (token instanceof LocalVariableDeclaration) return LOCAL.mask;
+    if (token instanceof PackageDeclaration) return PACKAGE.mask;
+    return OTHER.mask;
+  }
+
+  /**
+   * Returns true if token is of one of the kinds in mask.
+   */
+  public static boolean isOfKind(Token token, int mask) {
+    return (of(token) & mask) != 0;
+  }
+}
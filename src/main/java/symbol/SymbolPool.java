@@ -0,0 +1,181 @@
+package symbol;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A per-compilation pool of interned names, so that equal names share a single String instance and can be compared
+ * by identity. Names can be interned directly from an ASCII source buffer, which only allocates a String the first
+ * time a name is seen.
+ * <p/>
+ * Each distinct name also gets a dense int id, which scopes use as their key.
+ * <p/>
+ * Adding a name takes a lock, but finding one does not: every insert publishes the arrays and the new size as a View
+ * through a volatile field, and readers only trust the ids below the size of the view they read. So lookups from the
+ * parallel passes, of a pool that hardly changes any more, never wait on each other.
+ */
+public class SymbolPool {
+  private static final int INITIAL_CAPACITY = 1024;
+
+  /**
+   * The table as of some insert. The arrays may get more entries afterwards, but never change the first size ones,
+   * and a slot that points to an id of size or more is still empty as far as this view is concerned.
+   */
+  private static final class View {
+    // Open-addressing table of (symbol id + 1), 0 marks an empty slot.
+    final int[] slots;
+    final String[] symbols;
+    final int[] hashes;
+    final int size;
+
+    View(int[] slots, String[] symbols, int[] hashes, int size) {
+      this.slots = slots;
+      this.symbols = symbols;
+      this.hashes = hashes;
+      this.size = size;
+    }
+  }
+
+  // Only changed under the lock.
+  private int[] slots;
+  private String[] symbols;
+  private int[] hashes;
+  private int size;
+  private volatile View view;
+
+  public SymbolPool() {
+    slots = new int[INITIAL_CAPACITY];
+    symbols = new String[INITIAL_CAPACITY / 2];
+    hashes = new int[INITIAL_CAPACITY / 2];
+    view = new View(slots, symbols, hashes, 0);
+  }
+
+  /**
+   * Interns the ASCII characters source[offset, offset + length).
+   */
+  public String intern(byte[] source, int offset, int length) {
+    int hash = 0;
+    for (int i = offset; i < offset + length; ++i) {
+      hash = 31 * hash + source[i];
+    }
+    View view = this.view;
+    int id = find(view, hash, source, offset, length);
+    return id >= 0 ? view.symbols[id] : insert(hash, source, offset, length);
+  }
+
+  /**
+   * Returns the canonical instance of name.
+   */
+  public String intern(String name) {
+    return getSymbol(id(name));
+  }
+
+  /**
+   * Interns name and returns its id. Ids are assigned in order from 0, and never change.
+   */
+  public int id(String name) {
+    int id = lookup(name);
+    return id >= 0 ? id : insert(name);
+  }
+
+  /**
+   * Returns the id of name, or -1 if it was never interned.
+   */
+  public int lookup(String name) {
+    // String.hashCode uses the same polynomial as intern(byte[], int, int) for ASCII names.
+    return find(this.view, name.hashCode(), name);
+  }
+
+  public String getSymbol(int id) {
+    return view.symbols[id];
+  }
+
+  public int size() {
+    return view.size;
+  }
+
+  private static int find(View view, int hash, byte[] source, int offset, int length) {
+    int mask = view.slots.length - 1;
+    for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+      int id = view.slots[slot] - 1;
+      if (id < 0 || id >= view.size) {
+        return -1;
+      }
+      if (view.hashes[id] == hash && matches(view.symbols[id], source, offset, length)) {
+        return id;
+      }
+    }
+  }
+
+  private static int find(View view, int hash, String name) {
+    int mask = view.slots.length - 1;
+    for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+      int id = view.slots[slot] - 1;
+      if (id < 0 || id >= view.size) {
+        return -1;
+      }
+      if (view.hashes[id] == hash && view.symbols[id].equals(name)) {
+        return id;
+      }
+    }
+  }
+
+  private static boolean matches(String symbol, byte[] source, int offset, int length) {
+    if (symbol.length() != length) return false;
+    for (int i = 0; i < length; ++i) {
+      if (symbol.charAt(i) != source[offset + i]) return false;
+    }
+    return true;
+  }
+
+  private synchronized String insert(int hash, byte[] source, int offset, int length) {
+    // Another thread may have added it since the unlocked lookup.
+    int id = find(view, hash, source, offset, length);
+    if (id >= 0) return symbols[id];
+    String name = new String(source, offset, length, StandardCharsets.US_ASCII);
+    add(hash, name);
+    return name;
+  }
+
+  private synchronized int insert(String name) {
+    int hash = name.hashCode();
+    int id = find(view, hash, name);
+    if (id >= 0) return id;
+    return add(hash, name);
+  }
+
+  /**
+   * Adds a name that is not in the pool yet and returns its id.
+   */
+  private int add(int hash, String name) {
+    int mask = slots.length - 1;
+    int slot = hash & mask;
+    while (slots[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+    int id = size;
+    symbols[id] = name;
+    hashes[id] = hash;
+    slots[slot] = ++size;
+    // Keep the load factor at or below 1/2.
+    if (size == symbols.length) {
+      grow();
+    }
+    view = new View(slots, symbols, hashes, size);
+    return id;
+  }
+
+  private void grow() {
+    symbols = Arrays.copyOf(symbols, symbols.length * 2);
+    hashes = Arrays.copyOf(hashes, hashes.length * 2);
+    slots = new int[slots.length * 2];
+    int mask = slots.length - 1;
+    for (int id = 0; id < size; ++id) {
+      int slot = hashes[id] & mask;
+      while (slots[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      slots[slot] = id + 1;
+    }
+  }
+}
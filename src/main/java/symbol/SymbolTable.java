@@ -6,24 +6,30 @@ import token.MethodDeclaration;
 import token.Token;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Set;
 
 /**
  * Class that encapsulates a scoped-based stack for resolving symbol definitions.
  */
 public class SymbolTable {
-  private LinkedList<Scope<String, Token>> table;
+  private final SymbolPool symbolPool;
+  private LinkedList<Scope<Token>> table;
 
   public SymbolTable() {
-    table = new LinkedList<Scope<String, Token>>();
+    this(new SymbolPool());
+  }
+
+  /**
+   * Shares the ids of symbolPool, e.g. the pool of the lexer that already interned the identifiers.
+   */
+  public SymbolTable(SymbolPool symbolPool) {
+    this.symbolPool = symbolPool;
+    table = new LinkedList<Scope<Token>>();
   }
 
   public void newScope() {
-    table.push(new Scope<String, Token>());
+    table.push(new Scope<Token>(symbolPool));
   }
 
   public void deleteScope() {
@@ -31,107 +37,116 @@ public class SymbolTable {
   }
 
   public void addDecl(String identifier, Declaration decl) {
-    table.peek().add(identifier, decl);
+    table.peek().add(symbolPool.id(identifier), decl, SymbolKind.of(decl));
     decl.setAbsolutePath(identifier);
   }
 
   public void removeDecl(String identifier, Declaration decl) {
-    table.peek().remove(identifier, decl);
+    int id = symbolPool.lookup(identifier);
+    if (id != -1) {
+      table.peek().remove(id, decl);
+    }
     if(table.peek().size() == 0) {
       table.pop();
     }
   }
 
   public List<Token> find(String identifier) {
-    for (Scope<String, Token> scope : table) {
-      if (scope.contains(identifier)) {
-        return scope.find(identifier);
+    int id = symbolPool.lookup(identifier);
+    if (id == -1) return new ArrayList<Token>();
+    for (Scope<Token> scope : table) {
+      List<Token> tokens = scope.find(id);
+      if (tokens != null) {
+        return tokens;
       }
     }
     return new ArrayList<Token>();
   }
 
-  public Token findWithType(String identifier, Class[] classes) {
-    Set<Class> classSet = new HashSet<Class>(Arrays.asList(classes));
-    for (Scope<String, Token> scope : table) {
-      if (scope.contains(identifier)) {
-        for (Token token : scope.find(identifier)) {
-          if (classSet.contains(token.getClass())) return token;
-        }
-      }
+  /**
+   * Returns the first declaration of identifier of one of kinds (a SymbolKind mask), in the innermost scope that has
+   * one.
+   */
+  public Token findOfKind(String identifier, int kinds) {
+    int id = symbolPool.lookup(identifier);
+    if (id == -1) return null;
+    for (Scope<Token> scope : table) {
+      Token token = scope.find(id, kinds);
+      if (token != null) return token;
     }
     return null;
   }
 
   public List<Token> findAll(String identifier) {
     List<Token> results = new ArrayList<Token>();
-    for (Scope<String, Token> scope : table) {
-      if (scope.contains(identifier)) {
-        results.addAll(scope.find(identifier));
+    int id = symbolPool.lookup(identifier);
+    if (id == -1) return results;
+    for (Scope<Token> scope : table) {
+      List<Token> tokens = scope.find(id);
+      if (tokens != null) {
+        results.addAll(tokens);
       }
     }
     return results;
   }
 
   public boolean contains(String identifier) {
-    for (Scope<String, Token> scope : table) {
-      if (scope.contains(identifier)) {
+    int id = symbolPool.lookup(identifier);
+    if (id == -1) return false;
+    for (Scope<Token> scope : table) {
+      if (scope.contains(id)) {
         return true;
       }
     }
     return false;
   }
 
-  public boolean containsAnyOfType(String identifier, Class[] classes) {
-    Set<Class> classSet = new HashSet<Class>(Arrays.asList(classes));
-    for (Scope<String, Token> scope: table) {
-      if (scope.contains(identifier)) {
-        for (Token symbol : scope.find(identifier)) {
-          if (classSet.contains(symbol.getClass())) return true;
-        }
-      }
+  public boolean containsAnyOfKind(String identifier, int kinds) {
+    int id = symbolPool.lookup(identifier);
+    if (id == -1) return false;
+    for (Scope<Token> scope : table) {
+      if (scope.contains(id, kinds)) return true;
     }
     return false;
   }
 
   public boolean containsPrefix(String identifier) {
-    for (Scope<String, Token> scope : table) {
+    for (Scope<Token> scope : table) {
       if (scope.containsPrefix(identifier)) return true;
     }
     return false;
   }
 
-  public boolean containsAnyPrefixOfType(String identifier, Class[] classes) {
-    Set<Class> classSet = new HashSet<Class>(Arrays.asList(classes));
-    for (Scope<String, Token> scope: table) {
-      for (Token symbol : scope.findWithPrefix(identifier)) {
-        if (classSet.contains(symbol.getClass())) return true;
-      }
+  public boolean containsAnyPrefixOfKind(String identifier, int kinds) {
+    for (Scope<Token> scope : table) {
+      if (scope.containsPrefix(identifier, kinds)) return true;
     }
     return false;
   }
 
   public List<Token> findWithPrefix(String prefix) {
     List<Token> tokens = new ArrayList<Token>();
-    for (Scope<String, Token> scope : table) {
+    for (Scope<Token> scope : table) {
       tokens.addAll(scope.findWithPrefix(prefix));
     }
     return tokens;
   }
 
-  public List<Token> findWithPrefixOfAnyType(String prefix, Class[] classes) {
-    Set<Class> classSet = new HashSet<Class>(Arrays.asList(classes));
-    List<Token> tokensOfClazzType = new ArrayList<Token>();
-    for (Token symbol : findWithPrefix(prefix)) {
-      if (classSet.contains(symbol.getClass())) tokensOfClazzType.add(symbol);
+  /**
+   * Returns the declarations of one of kinds whose name starts with the segments of prefix, without visiting the
+   * declarations of other kinds.
+   */
+  public List<Token> findWithPrefixOfAnyKind(String prefix, int kinds) {
+    List<Token> tokens = new ArrayList<Token>();
+    for (Scope<Token> scope : table) {
+      tokens.addAll(scope.findWithPrefix(prefix, kinds));
     }
-    return tokensOfClazzType;
+    return tokens;
   }
 
   public Declaration getClass(Declaration field) {
     String className = field.getAbsolutePath().substring(0, field.getAbsolutePath().lastIndexOf('.'));
-    List<Token> classDecl = find(className);
-    if (classDecl.isEmpty()) return null;
-    return (Declaration) classDecl.get(0);
+    // A package may have the name of a class of the default package.
+    return (Declaration) findOfKind(className, SymbolKind.TYPES);
   }
 }
@@ -9,9 +9,6 @@ import java.util.List;
 public class AbstractMethodDeclaration extends BaseMethodDeclaration {
   public MethodHeader methodHeader;
 
-  public Token newScope;
-  public Token closeScope;
-
   public int interfaceMethodId = -1;
 
   public AbstractMethodDeclaration(ArrayList<Token> children) {
@@ -19,9 +16,6 @@ public class AbstractMethodDeclaration extends BaseMethodDeclaration {
     methodHeader = (MethodHeader) children.get(0);
     identifier = methodHeader.identifier;
     type = methodHeader.type;
-    // To handle implicit scopes, we explicitly add the scope.
-    newScope = new Token("{", TokenType.LEFT_BRACE);
-    closeScope = new Token("}", TokenType.RIGHT_BRACE);
   }
 
   public List<FormalParameter> getParameters() {
@@ -31,18 +25,18 @@ public class AbstractMethodDeclaration extends BaseMethodDeclaration {
 
   @Override
   public void accept(Visitor v) throws VisitorException {
-    newScope.accept(v);
+    v.enterScope(this);
     methodHeader.accept(v);
-    closeScope.accept(v);
+    v.exitScope(this);
     v.visit(this);
   }
 
   @Override
   public void acceptReverse(Visitor v) throws VisitorException {
     v.visit(this);
-    newScope.acceptReverse(v);
+    v.enterScope(this);
     methodHeader.acceptReverse(v);
-    closeScope.acceptReverse(v);
+    v.exitScope(this);
   }
 
   @Override
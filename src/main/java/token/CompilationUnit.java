@@ -1,5 +1,6 @@
 package token;
 
+import algorithm.name.resolution.ImportEnvironment;
 import exception.VisitorException;
 import visitor.Visitor;
 
@@ -10,6 +11,8 @@ public class CompilationUnit extends Token {
   public PackageDeclaration packageDeclaration;
   public ImportDeclarations importDeclarations;
   public TypeDeclaration typeDeclaration;
+  // Set by type linking, see ImportEnvironment.build.
+  public ImportEnvironment importEnvironment;
 
 
   public CompilationUnit(ArrayList<Token> children) {
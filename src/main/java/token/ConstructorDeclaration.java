@@ -11,18 +11,12 @@ public class ConstructorDeclaration extends BaseMethodDeclaration {
   public ConstructorDeclarator declarator;
   public ConstructorBody body;
 
-  public Token newScope;
-  public Token closeScope;
-
   public ConstructorDeclaration(ArrayList<Token> children) {
     super("", TokenType.ConstructorDeclaration, children);
     for (Token child : children) {
       assignType(child);
     }
     identifier = declarator.children.get(0);
-    // To handle implicit scopes, we explicitly add the scope.
-    newScope = new Token("{", TokenType.LEFT_BRACE);
-    closeScope = new Token("}", TokenType.RIGHT_BRACE);
   }
 
   private void assignType(Token token) {
@@ -44,22 +38,22 @@ public class ConstructorDeclaration extends BaseMethodDeclaration {
 
   @Override
   public void accept(Visitor v) throws VisitorException {
-    newScope.accept(v);
+    v.enterScope(this);
     for (Token token : children) {
       token.accept(v);
     }
-    closeScope.accept(v);
+    v.exitScope(this);
     v.visit(this);
   }
 
   @Override
   public void acceptReverse(Visitor v) throws VisitorException {
     v.visit(this);
-    newScope.acceptReverse(v);
+    v.enterScope(this);
     for (Token token : children) {
       token.acceptReverse(v);
     }
-    closeScope.acceptReverse(v);
+    v.exitScope(this);
   }
 
   @Override
@@ -24,18 +24,22 @@ public class ForStatement extends BaseForStatement {
 
   @Override
   public void accept(Visitor v) throws VisitorException {
+    v.enterScope(this);
     for (Token token : children) {
       token.accept(v);
     }
+    v.exitScope(this);
     v.visit(this);
   }
 
   @Override
   public void acceptReverse(Visitor v) throws VisitorException {
     v.visit(this);
+    v.enterScope(this);
     for (Token token : children) {
       token.acceptReverse(v);
     }
+    v.exitScope(this);
   }
 
   @Override
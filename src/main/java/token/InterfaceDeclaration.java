@@ -35,6 +35,7 @@ public class InterfaceDeclaration extends Declaration {
 
   @Override
   public void accept(Visitor v) throws VisitorException {
+    if (extendsInterfaces != null) extendsInterfaces.accept(v);
     if (interfaceBody != null) interfaceBody.accept(v);
     if (modifiers != null) modifiers.accept(v);
     v.visit(this);
@@ -43,6 +44,7 @@ public class InterfaceDeclaration extends Declaration {
   @Override
   public void acceptReverse(Visitor v) throws VisitorException {
     v.visit(this);
+    if (extendsInterfaces != null) extendsInterfaces.acceptReverse(v);
     if (interfaceBody != null) interfaceBody.acceptReverse(v);
     if (modifiers != null) modifiers.acceptReverse(v);
   }
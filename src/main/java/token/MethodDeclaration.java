@@ -11,9 +11,6 @@ public class MethodDeclaration extends BaseMethodDeclaration {
   public MethodHeader methodHeader;
   public MethodBody methodBody;
 
-  public Token newScope;
-  public Token closeScope;
-
   public int methodId = -1;
 
   public MethodDeclaration(ArrayList<Token> children) {
@@ -22,9 +19,6 @@ public class MethodDeclaration extends BaseMethodDeclaration {
     methodBody = (MethodBody) children.get(1);
     identifier = methodHeader.identifier;
     type = methodHeader.type;
-    // To handle implicit scopes, we explicitly add the scope.
-    newScope = new Token("{", TokenType.LEFT_BRACE);
-    closeScope = new Token("}", TokenType.RIGHT_BRACE);
   }
 
   public List<FormalParameter> getParameters() {
@@ -34,20 +28,20 @@ public class MethodDeclaration extends BaseMethodDeclaration {
 
   @Override
   public void accept(Visitor v) throws VisitorException {
-    newScope.accept(v);
+    v.enterScope(this);
     methodHeader.accept(v);
     methodBody.accept(v);
-    closeScope.accept(v);
+    v.exitScope(this);
     v.visit(this);
   }
 
   @Override
   public void acceptReverse(Visitor v) throws VisitorException {
     v.visit(this);
-    newScope.acceptReverse(v);
+    v.enterScope(this);
     methodHeader.acceptReverse(v);
     methodBody.acceptReverse(v);
-    closeScope.acceptReverse(v);
+    v.exitScope(this);
   }
 
   @Override
@@ -12,6 +12,8 @@ public class MethodHeader extends Token {
   public Token voidType;
   public Token identifier;
   public FormalParameterList paramList;
+  // Code generation label of the method, set when the hierarchy graph is built.
+  public String signatureLabel;
 
   public MethodHeader(ArrayList<Token> children) {
     super("", TokenType.MethodHeader, children);
@@ -3,6 +3,7 @@ package token;
 import exception.VisitorException;
 import visitor.Visitor;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 
 /**
@@ -16,6 +17,11 @@ public class Token {
   protected String lexeme;
   protected TokenType tokenType;
 
+  // Slice of the ASCII source buffer holding the lexeme, until the lexeme is first requested.
+  private byte[] source;
+  private int sourceOffset;
+  private int sourceLength;
+
   public ArrayList<Token> children;
 
   public Token(String lexeme, TokenType tokenType, ArrayList<Token> children) {
@@ -33,15 +39,32 @@ public class Token {
     this.children = null;
   }
 
+  /**
+   * Creates a token whose lexeme is the ASCII slice source[offset, offset + length), the String is only built
+   * when getLexeme() is called.
+   */
+  public Token(byte[] source, int offset, int length, TokenType tokenType) {
+    this.source = source;
+    this.sourceOffset = offset;
+    this.sourceLength = length;
+    this.tokenType = tokenType;
+    this.children = null;
+  }
+
   /**
    * Gets the underlying lexeme.
    */
   public String getLexeme() {
+    if (lexeme == null && source != null) {
+      lexeme = new String(source, sourceOffset, sourceLength, StandardCharsets.US_ASCII);
+      source = null;
+    }
     return lexeme;
   }
 
   public void setLexeme(String lexeme) {
     this.lexeme = lexeme;
+    this.source = null;
   }
 
   /**
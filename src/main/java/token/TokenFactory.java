@@ -0,0 +1,200 @@
+package token;
+
+import java.util.ArrayList;
+
+/**
+ * Constructs the token for a reduced non-terminal without reflection.
+ * Generated by src/tools/java/TokenFileGenerator from input.cfg.
+ */
+public class TokenFactory {
+
+  /**
+   * Returns the token for tokenType built from children, or null if tokenType is not a non-terminal.
+   */
+  public static Token create(TokenType tokenType, ArrayList<Token> children) {
+    switch (tokenType) {
+      case AbstractMethodDeclaration:
+        return new AbstractMethodDeclaration(children);
+      case AdditiveExpression:
+        return new AdditiveExpression(children);
+      case AndExpression:
+        return new AndExpression(children);
+      case ArgumentList:
+        return new ArgumentList(children);
+      case ArrayAccess:
+        return new ArrayAccess(children);
+      case ArrayCreationExpression:
+        return new ArrayCreationExpression(children);
+      case ArrayType:
+        return new ArrayType(children);
+      case Assignment:
+        return new Assignment(children);
+      case AssignmentExpression:
+        return new AssignmentExpression(children);
+      case AssignmentOperator:
+        return new AssignmentOperator(children);
+      case Block:
+        return new Block(children);
+      case BlockStatement:
+        return new BlockStatement(children);
+      case BlockStatements:
+        return new BlockStatements(children);
+      case BooleanLiteral:
+        return new BooleanLiteral(children);
+      case CastExpression:
+        return new CastExpression(children);
+      case ClassBody:
+        return new ClassBody(children);
+      case ClassBodyDeclaration:
+        return new ClassBodyDeclaration(children);
+      case ClassBodyDeclarations:
+        return new ClassBodyDeclarations(children);
+      case ClassDeclaration:
+        return new ClassDeclaration(children);
+      case ClassInstanceCreationExpression:
+        return new ClassInstanceCreationExpression(children);
+      case ClassMemberDeclaration:
+        return new ClassMemberDeclaration(children);
+      case ClassOrInterfaceType:
+        return new ClassOrInterfaceType(children);
+      case ClassType:
+        return new ClassType(children);
+      case CompilationUnit:
+        return new CompilationUnit(children);
+      case ConditionalAndExpression:
+        return new ConditionalAndExpression(children);
+      case ConditionalOrExpression:
+        return new ConditionalOrExpression(children);
+      case ConstructorBody:
+        return new ConstructorBody(children);
+      case ConstructorDeclaration:
+        return new ConstructorDeclaration(children);
+      case ConstructorDeclarator:
+        return new ConstructorDeclarator(children);
+      case EmptyStatement:
+        return new EmptyStatement(children);
+      case EqualityExpression:
+        return new EqualityExpression(children);
+      case Expression:
+        return new Expression(children);
+      case ExpressionStatement:
+        return new ExpressionStatement(children);
+      case ExtendsInterfaces:
+        return new ExtendsInterfaces(children);
+      case FieldAccess:
+        return new FieldAccess(children);
+      case FieldDeclaration:
+        return new FieldDeclaration(children);
+      case ForInit:
+        return new ForInit(children);
+      case ForStatement:
+        return new ForStatement(children);
+      case ForStatementNoShortIf:
+        return new ForStatementNoShortIf(children);
+      case ForUpdate:
+        return new ForUpdate(children);
+      case FormalParameter:
+        return new FormalParameter(children);
+      case FormalParameterList:
+        return new FormalParameterList(children);
+      case IfThenElseStatement:
+        return new IfThenElseStatement(children);
+      case IfThenElseStatementNoShortIf:
+        return new IfThenElseStatementNoShortIf(children);
+      case IfThenStatement:
+        return new IfThenStatement(children);
+      case ImportDeclaration:
+        return new ImportDeclaration(children);
+      case ImportDeclarations:
+        return new ImportDeclarations(children);
+      case InclusiveOrExpression:
+        return new InclusiveOrExpression(children);
+      case InterfaceBody:
+        return new InterfaceBody(children);
+      case InterfaceDeclaration:
+        return new InterfaceDeclaration(children);
+      case InterfaceMemberDeclaration:
+        return new InterfaceMemberDeclaration(children);
+      case InterfaceMemberDeclarations:
+        return new InterfaceMemberDeclarations(children);
+      case InterfaceType:
+        return new InterfaceType(children);
+      case InterfaceTypeList:
+        return new InterfaceTypeList(children);
+      case Interfaces:
+        return new Interfaces(children);
+      case LeftHandSide:
+        return new LeftHandSide(children);
+      case Literal:
+        return new Literal(children);
+      case LocalVariableDeclaration:
+        return new LocalVariableDeclaration(children);
+      case LocalVariableDeclarationStatement:
+        return new LocalVariableDeclarationStatement(children);
+      case MethodBody:
+        return new MethodBody(children);
+      case MethodDeclaration:
+        return new MethodDeclaration(children);
+      case MethodDeclarator:
+        return new MethodDeclarator(children);
+      case MethodHeader:
+        return new MethodHeader(children);
+      case MethodInvocation:
+        return new MethodInvocation(children);
+      case Modifier:
+        return new Modifier(children);
+      case Modifiers:
+        return new Modifiers(children);
+      case MultiplicativeExpression:
+        return new MultiplicativeExpression(children);
+      case Name:
+        return new Name(children);
+      case PackageDeclaration:
+        return new PackageDeclaration(children);
+      case Primary:
+        return new Primary(children);
+      case PrimitiveType:
+        return new PrimitiveType(children);
+      case QualifiedName:
+        return new QualifiedName(children);
+      case ReferenceType:
+        return new ReferenceType(children);
+      case RelationalExpression:
+        return new RelationalExpression(children);
+      case ReturnStatement:
+        return new ReturnStatement(children);
+      case SimpleName:
+        return new SimpleName(children);
+      case SingleTypeImportDeclaration:
+        return new SingleTypeImportDeclaration(children);
+      case Statement:
+        return new Statement(children);
+      case StatementExpression:
+        return new StatementExpression(children);
+      case StatementNoShortIf:
+        return new StatementNoShortIf(children);
+      case StatementWithoutTrailingSubstatement:
+        return new StatementWithoutTrailingSubstatement(children);
+      case Super:
+        return new Super(children);
+      case Type:
+        return new Type(children);
+      case TypeDeclaration:
+        return new TypeDeclaration(children);
+      case TypeImportOnDemandDeclaration:
+        return new TypeImportOnDemandDeclaration(children);
+      case UnaryExpression:
+        return new UnaryExpression(children);
+      case UnaryExpressionNotMinus:
+        return new UnaryExpressionNotMinus(children);
+      case VariableDeclarator:
+        return new VariableDeclarator(children);
+      case WhileStatement:
+        return new WhileStatement(children);
+      case WhileStatementNoShortIf:
+        return new WhileStatementNoShortIf(children);
+      default:
+        return null;
+    }
+  }
+}
@@ -13,18 +13,22 @@ public class WhileStatement extends BaseWhileStatement {
 
   @Override
   public void accept(Visitor v) throws VisitorException {
+    v.enterScope(this);
     for (Token token : children) {
       token.accept(v);
     }
+    v.exitScope(this);
     v.visit(this);
   }
 
   @Override
   public void acceptReverse(Visitor v) throws VisitorException {
     v.visit(this);
+    v.enterScope(this);
     for (Token token : children) {
       token.acceptReverse(v);
     }
+    v.exitScope(this);
   }
 
   @Override
@@ -11,6 +11,7 @@ import java.util.*;
  */
 public class CompilationUnitsToHierarchyGraphConverter {
   private HierarchyGraph graph;
+  private MethodSignature.Pool signatures;
   public Map<CompilationUnit, HierarchyGraphNode> compilationUnitToNode = new HashMap<CompilationUnit, HierarchyGraphNode>();
 
   public CompilationUnitsToHierarchyGraphConverter() {}
@@ -22,6 +23,7 @@ public class CompilationUnitsToHierarchyGraphConverter {
    */
   public HierarchyGraph convert(List<CompilationUnit> compilationUnits) throws DeadCodeException, TypeHierarchyException {
     graph = new HierarchyGraph();
+    signatures = new MethodSignature.Pool();
     compilationUnitToNode = new HashMap<CompilationUnit, HierarchyGraphNode>();
     // Construct the hierarchy graph with only the nodes representing the files
     for (CompilationUnit compilationUnit : compilationUnits) {
@@ -162,6 +164,7 @@ public class CompilationUnitsToHierarchyGraphConverter {
           case ConstructorDeclarator:
             method.identifier = ((ConstructorDeclarator)token).getIdentifier().getLexeme();
             method.parameterTypes.addAll(extractParameterTypes(((ConstructorDeclarator) token).getParameterList()));
+            method.signature = extractSignature(method.identifier, ((ConstructorDeclarator) token).getParameterList());
             break;
           case Modifiers:
             method.addModifiers(((Modifiers)token).getModifiers());
@@ -193,6 +196,10 @@ public class CompilationUnitsToHierarchyGraphConverter {
           case MethodDeclarator:
             method.identifier = ((MethodDeclarator)token).identifier;
             method.parameterTypes.addAll(extractParameterTypes(((MethodDeclarator) token).getParameterList()));
+            method.signature = extractSignature(method.identifier, ((MethodDeclarator) token).getParameterList());
+            // The label stands for CodeGenUtils.genMethodLabel, which only agrees with it on linked types.
+            methodHeader.signatureLabel = isLinked(((MethodDeclarator) token).getParameterList()) ?
+              method.signature.getLabel() : null;
             break;
           case Modifiers:
             method.addModifiers(((Modifiers)token).getModifiers());
@@ -222,6 +229,43 @@ public class CompilationUnitsToHierarchyGraphConverter {
     return parameterTypes;
   }
 
+  /**
+   * Creates the signature of a method from its parameters.  Parameter types are the linked types when type linking
+   * ran, as in code generation, and the types as written otherwise
+   */
+  private MethodSignature extractSignature(String identifier, FormalParameterList parameterList) {
+    List<String> types = new ArrayList<String>();
+    if (parameterList != null) {
+      for (FormalParameter formalParameter : parameterList.getFormalParameters()) {
+        if (!isLinked(formalParameter)) {
+          types.add(formalParameter.getType().getLexeme() + (formalParameter.isArray() ? "@" : ""));
+        } else {
+          types.add(formalParameter.getTypeString());
+        }
+      }
+    }
+    return signatures.of(identifier, types);
+  }
+
+  /**
+   * Whether the types of all the parameters are linked, see isLinked(FormalParameter)
+   */
+  private static boolean isLinked(FormalParameterList parameterList) {
+    if (parameterList != null) {
+      for (FormalParameter formalParameter : parameterList.getFormalParameters()) {
+        if (!isLinked(formalParameter)) return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Whether the type of the parameter is primitive or has been linked to its declaration
+   */
+  private static boolean isLinked(FormalParameter formalParameter) {
+    return formalParameter.isPrimitive() || formalParameter.type.getReferenceName().getAbsolutePath() != null;
+  }
+
   /**
    * Retrieves all the MethodHeaders from a ClassBody
    */
@@ -270,7 +314,7 @@ public class CompilationUnitsToHierarchyGraphConverter {
    * @throws TypeHierarchyException
    */
   private void extend(Super extend, HierarchyGraphNode node) throws TypeHierarchyException {
-    updateNodeRelationships(extend.getType().getLexeme(), node, extend.getTokenType());
+    updateNodeRelationships((Name) extend.getType(), node, extend.getTokenType());
   }
 
   /**
@@ -282,7 +326,7 @@ public class CompilationUnitsToHierarchyGraphConverter {
    */
   private void implementsInterfaces(Interfaces interfaces, HierarchyGraphNode node) throws TypeHierarchyException {
     for (InterfaceType interfaceType : interfaces.interfaceTypeList.types) {
-      updateNodeRelationships(interfaceType.getType().getLexeme(), node, interfaces.getTokenType());
+      updateNodeRelationships((Name) interfaceType.getType(), node, interfaces.getTokenType());
     }
   }
 
@@ -295,7 +339,7 @@ public class CompilationUnitsToHierarchyGraphConverter {
    */
   private void extendsInterfaces(ExtendsInterfaces interfaces, HierarchyGraphNode node) throws TypeHierarchyException {
     for (InterfaceType interfaceType : interfaces.getInterfaceType()) {
-      updateNodeRelationships(interfaceType.getType().getLexeme(), node, interfaces.getTokenType());
+      updateNodeRelationships((Name) interfaceType.getType(), node, interfaces.getTokenType());
     }
   }
 
@@ -303,10 +347,10 @@ public class CompilationUnitsToHierarchyGraphConverter {
    * Set the child/parent relationships. Create a node for the parent if it does not exist
    * @throws TypeHierarchyException
    */
-  private void updateNodeRelationships(String name, HierarchyGraphNode child, TokenType tokenType) throws TypeHierarchyException {
-    HierarchyGraphNode parentNode = graph.getNode(child, name, child.getImportList());
+  private void updateNodeRelationships(Name name, HierarchyGraphNode child, TokenType tokenType) throws TypeHierarchyException {
+    HierarchyGraphNode parentNode = graph.getNode(name);
     if (child.hasParent(parentNode.getFullname())) {
-      throw new TypeHierarchyException("Interface " + name + " is repeated in the TypeDeclaration of " + child.identifier);
+      throw new TypeHierarchyException("Interface " + name.getLexeme() + " is repeated in the TypeDeclaration of " + child.identifier);
     }
 
     parentNode.children.add(child);
@@ -5,23 +5,39 @@ import exception.TypeHierarchyException;
 import token.*;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Responsible for performing Class Hierarchy checks
+ * <p/>
+ * Methods are verified from the roots of the graph down, one level at a time: the classes/interfaces of a level only
+ * have parents in the levels above, so they are verified concurrently on a fork/join pool, each from the methods its
+ * parents pass down. When several of them fail, the error of the first one in level order is reported, as with a
+ * sequential run.
  */
 public class HierarchyChecker {
-  private static String OBJECT_CLASS = "java.lang.Object";
-  private static HierarchyGraph hierarchyGraph;
+  private static final String OBJECT_CLASS = "java.lang.Object";
+  private final HierarchyGraph hierarchyGraph;
+  private final int parallelism;
 
-  private HierarchyChecker() {}
+  public HierarchyChecker(HierarchyGraph graph) {
+    this(graph, Runtime.getRuntime().availableProcessors());
+  }
+
+  public HierarchyChecker(HierarchyGraph graph, int parallelism) {
+    this.hierarchyGraph = graph;
+    this.parallelism = parallelism;
+  }
 
   /**
    * Perform all the necessary hierarchy verifications
    * Please see class comments for full detail
    * @throws TypeHierarchyException
    */
-  public static void verifyHierarchyGraph(HierarchyGraph graph) throws TypeHierarchyException, DeadCodeException {
-    hierarchyGraph = graph;
+  public void verifyHierarchyGraph() throws TypeHierarchyException, DeadCodeException {
+    HierarchyGraph graph = hierarchyGraph;
     HierarchyGraphNode currentNode;
 
     for (Map.Entry<String, HierarchyGraphNode> entry : graph.entrySet()) {
@@ -30,8 +46,13 @@ public class HierarchyChecker {
       verifyImplementedInterfaces(currentNode.implementsList, currentNode);
       checkForConstructorDuplication(currentNode);
     }
-    isCyclic();
+    for (Map.Entry<String, HierarchyGraphNode> entry : graph.entrySet()) {
+      extendObjectClass(entry.getValue());
+    }
+    verifyAcyclic();
     verifyMethodHierarchy();
+    graph.buildSubtypeIndex();
+    graph.buildMemberViews();
   }
 
   /*******************************************  Verification Functions *******************************************/
@@ -42,7 +63,7 @@ public class HierarchyChecker {
    * @param currentNode HierarchyGraph node associated to the class/interface being processed
    * @throws TypeHierarchyException
    */
-  private static void verifyExtendedClassOrInterfaces(List<HierarchyGraphNode> parents, HierarchyGraphNode currentNode) throws TypeHierarchyException {
+  private void verifyExtendedClassOrInterfaces(List<HierarchyGraphNode> parents, HierarchyGraphNode currentNode) throws TypeHierarchyException {
     for (HierarchyGraphNode parent : parents) {
       if (currentNode.classOrInterface instanceof ClassDeclaration) {
         if (parent.classOrInterface instanceof InterfaceDeclaration) {
@@ -70,8 +91,8 @@ public class HierarchyChecker {
    * @param currentNode name of the class being processed
    * @throws TypeHierarchyException
    */
-  private static void verifyImplementedInterfaces(List<HierarchyGraphNode> implementedParents,
-                                                  HierarchyGraphNode currentNode) throws TypeHierarchyException {
+  private void verifyImplementedInterfaces(List<HierarchyGraphNode> implementedParents,
+                                           HierarchyGraphNode currentNode) throws TypeHierarchyException {
     for (HierarchyGraphNode parent : implementedParents) {
       if (parent.classOrInterface instanceof ClassDeclaration) {
         throw new TypeHierarchyException("A Class cannot implement a class [class: " + currentNode.identifier +
@@ -86,70 +107,131 @@ public class HierarchyChecker {
   /**
    * Ensure no 2 constructors within a class have the same signature
    */
-  private static void checkForConstructorDuplication(HierarchyGraphNode currentNode) throws TypeHierarchyException {
-    for (int i = 0; i < currentNode.constructors.size(); i++) {
-      for (int j = 0; j < currentNode.constructors.size(); j++) {
-        if (i != j && currentNode.constructors.get(i).signaturesMatch(currentNode.constructors.get(j))) {
-          throw new TypeHierarchyException("Class " + currentNode.identifier + " contains a duplicate constructor");
-        }
+  private void checkForConstructorDuplication(HierarchyGraphNode currentNode) throws TypeHierarchyException {
+    Set<MethodSignature> signatures = new HashSet<MethodSignature>();
+    for (Method constructor : currentNode.constructors) {
+      if (!signatures.add(constructor.signature)) {
+        throw new TypeHierarchyException("Class " + currentNode.identifier + " contains a duplicate constructor");
       }
     }
   }
 
   /**
-   * Use depth first search to see if the Hierarchy Graph is cyclic
-   * @return one of the nodes in the cycle to improve our error msg
+   * Ensure the Hierarchy Graph is acyclic, reporting every cycle in it
    */
-  private static void isCyclic() throws TypeHierarchyException {
-    HashSet<HierarchyGraphNode> visited = new HashSet<HierarchyGraphNode>();
-    HashSet<HierarchyGraphNode> recursionStack = new HashSet<HierarchyGraphNode>();
-    HierarchyGraphNode cyclicNode;
-
-    for (Map.Entry<String, HierarchyGraphNode> entry : hierarchyGraph.entrySet()) {
-      HierarchyGraphNode currentNode = entry.getValue();
-      if ((cyclicNode = isCyclicHelper(currentNode, visited, recursionStack)) != null) {
-        throw new TypeHierarchyException("Graph is not acyclic.  " +
-          cyclicNode.identifier + " is causing cycles in hierarchy checking");
+  private void verifyAcyclic() throws TypeHierarchyException {
+    List<List<HierarchyGraphNode>> cycles = hierarchyGraph.findCycles();
+    if (cycles.isEmpty()) return;
+
+    StringBuilder sb = new StringBuilder("Graph is not acyclic.");
+    for (List<HierarchyGraphNode> cycle : cycles) {
+      sb.append("  Cycle:");
+      for (HierarchyGraphNode node : cycle) {
+        sb.append(' ').append(node.identifier);
       }
     }
+    throw new TypeHierarchyException(sb.toString());
   }
 
-  private static HierarchyGraphNode isCyclicHelper(HierarchyGraphNode currentNode, HashSet<HierarchyGraphNode> visited, HashSet<HierarchyGraphNode> recursionStack) {
-    if (!visited.contains(currentNode)) {
-      visited.add(currentNode);
-      recursionStack.add(currentNode);
-      for (HierarchyGraphNode child : currentNode.children) {
-        if ( (!visited.contains(child) && isCyclicHelper(child, visited, recursionStack) != null) ||
-          recursionStack.contains(child)) {
-          return child;
+  /**
+   * Verify method hierarchy from the roots down, so the methods passed down by the parents of a class/interface are
+   * known before it is verified
+   * @throws TypeHierarchyException
+   * @throws DeadCodeException
+   */
+  private void verifyMethodHierarchy() throws TypeHierarchyException, DeadCodeException {
+    List<HierarchyGraphNode> order = hierarchyGraph.getTopologicalOrder();
+    // Methods passed down by each verified node, by node id
+    final List<List<Method>> methodsPassedDown =
+      new ArrayList<List<Method>>(Collections.nCopies(order.size(), (List<Method>) null));
+
+    List<List<HierarchyGraphNode>> levels = getLevels(order);
+    if (parallelism <= 1) {
+      for (List<HierarchyGraphNode> level : levels) {
+        for (HierarchyGraphNode currentNode : level) {
+          methodsPassedDown.set(currentNode.id, verifyNodeMethods(currentNode, methodsPassedDown));
         }
       }
+      return;
+    }
+
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      for (List<HierarchyGraphNode> level : levels) {
+        verifyLevel(pool, level, methodsPassedDown);
+      }
+    } finally {
+      pool.shutdown();
     }
-    recursionStack.remove(currentNode);
-    return null;
   }
 
   /**
-   * Used depth first ordering to verify method hierarchy
-   * @return
-   * @throws TypeHierarchyException
-   * @throws DeadCodeException
+   * Groups the nodes by their distance to the roots of the graph, keeping the topological order within each group
    */
-  private static HierarchyGraphNode verifyMethodHierarchy() throws TypeHierarchyException, DeadCodeException {
-    //Skip verifying nodes that have already been verified
-    HashSet<HierarchyGraphNode> verified = new HashSet<HierarchyGraphNode>();
+  private static List<List<HierarchyGraphNode>> getLevels(List<HierarchyGraphNode> order) {
+    int[] depth = new int[order.size()];
+    List<List<HierarchyGraphNode>> levels = new ArrayList<List<HierarchyGraphNode>>();
+    for (HierarchyGraphNode node : order) {
+      for (HierarchyGraphNode child : node.children) {
+        depth[child.id] = Math.max(depth[child.id], depth[node.id] + 1);
+      }
+      if (depth[node.id] == levels.size()) {
+        levels.add(new ArrayList<HierarchyGraphNode>());
+      }
+      levels.get(depth[node.id]).add(node);
+    }
+    return levels;
+  }
 
-    for (Map.Entry<String, HierarchyGraphNode> entry : hierarchyGraph.entrySet()) {
-      HierarchyGraphNode currentNode = entry.getValue();
-      verifyMethodHierarchyHelper(currentNode, verified);
+  /**
+   * Verify the nodes of a level concurrently, and report the failure of the first one in order
+   */
+  private void verifyLevel(ForkJoinPool pool, List<HierarchyGraphNode> level,
+                           final List<List<Method>> methodsPassedDown) throws TypeHierarchyException, DeadCodeException {
+    final Exception[] failures = new Exception[level.size()];
+    // Nodes after the first failure are skipped, their result would not be reported anyway.
+    final AtomicInteger firstFailure = new AtomicInteger(Integer.MAX_VALUE);
+    final List<RecursiveAction> tasks = new ArrayList<RecursiveAction>(level.size());
+    for (int i = 0; i < level.size(); ++i) {
+      final int index = i;
+      final HierarchyGraphNode currentNode = level.get(i);
+      tasks.add(new RecursiveAction() {
+        @Override
+        protected void compute() {
+          if (index > firstFailure.get()) return;
+          try {
+            methodsPassedDown.set(currentNode.id, verifyNodeMethods(currentNode, methodsPassedDown));
+          } catch (Exception e) {
+            failures[index] = e;
+            for (int failure = firstFailure.get(); index < failure; failure = firstFailure.get()) {
+              if (firstFailure.compareAndSet(failure, index)) break;
+            }
+          }
+        }
+      });
+    }
+
+    pool.invoke(new RecursiveAction() {
+      @Override
+      protected void compute() {
+        invokeAll(tasks);
+      }
+    });
+
+    if (firstFailure.get() != Integer.MAX_VALUE) {
+      Exception failure = failures[firstFailure.get()];
+      if (failure instanceof TypeHierarchyException) throw (TypeHierarchyException) failure;
+      if (failure instanceof DeadCodeException) throw (DeadCodeException) failure;
+      throw (RuntimeException) failure;
     }
-    return null;
   }
 
   /**
    * Perform method verification on extended and implemented methods
+   * @return the methods passed down to the children of currentNode
    */
-  private static List<Method> verifyMethodHierarchyHelper(HierarchyGraphNode currentNode, HashSet<HierarchyGraphNode> verified) throws TypeHierarchyException, DeadCodeException {
+  private List<Method> verifyNodeMethods(HierarchyGraphNode currentNode,
+                                         List<List<Method>> methodsPassedDown) throws TypeHierarchyException, DeadCodeException {
     List<Method> extendedMethods = new ArrayList<Method>();
     List<Method> implementedMethods = new ArrayList<Method>();
     // Includes all the methods getting passed down the hierarchy tree
@@ -157,13 +239,11 @@ public class HierarchyChecker {
     // Abstract methods (including interface methods) not implemented by currentNode
     List<Method> unimplementedMethods = new ArrayList<Method>();
 
-    extendObjectClass(currentNode);
-
     for (HierarchyGraphNode node : currentNode.extendsList) {
-      extendedMethods.addAll(verifyMethodHierarchyHelper(node, verified));
+      extendedMethods.addAll(methodsPassedDown.get(node.id));
     }
     for (HierarchyGraphNode node : currentNode.implementsList) {
-      implementedMethods.addAll(verifyMethodHierarchyHelper(node, verified));
+      implementedMethods.addAll(methodsPassedDown.get(node.id));
     }
 
     abstractMethodChecks(extendedMethods, currentNode, unimplementedMethods);
@@ -172,10 +252,7 @@ public class HierarchyChecker {
     allMethods.addAll(currentNode.methods);
     implementedMethodsCheck(implementedMethods, allMethods, currentNode, unimplementedMethods);
 
-    if (!verified.contains(currentNode)) {
-      verifyOwnedMethods(currentNode);
-      verified.add(currentNode);
-    };
+    verifyOwnedMethods(currentNode);
 
     extendedMethodChecks(currentNode, extendedMethods);
 
@@ -193,37 +270,33 @@ public class HierarchyChecker {
    * @param unimplementedMethods
    * @throws TypeHierarchyException
    */
-  private static void abstractMethodChecks(List<Method> extendedMethods, HierarchyGraphNode currentNode, List<Method> unimplementedMethods) throws TypeHierarchyException {
+  private void abstractMethodChecks(List<Method> extendedMethods, HierarchyGraphNode currentNode, List<Method> unimplementedMethods) throws TypeHierarchyException {
+    // Whether a later extended method has the same signature, and whether a later one is from a non-abstract class
+    boolean[] replacedLater = new boolean[extendedMethods.size()];
+    boolean[] nonAbstractLater = new boolean[extendedMethods.size()];
+    Set<MethodSignature> laterSignatures = new HashSet<MethodSignature>();
+    boolean nonAbstractParent = false;
+    for (int i = extendedMethods.size() - 1; i >= 0; i--) {
+      Method extendedMethod = extendedMethods.get(i);
+      replacedLater[i] = !laterSignatures.add(extendedMethod.signature);
+      nonAbstractLater[i] = nonAbstractParent;
+      if (!extendedMethod.parent.isAbstract() && !(extendedMethod.parent.classOrInterface instanceof InterfaceDeclaration)) {
+        nonAbstractParent = true;
+      }
+    }
+
+    boolean nonAbstractNode = !currentNode.isAbstract() && !(currentNode.classOrInterface instanceof InterfaceDeclaration);
+    Map<MethodSignature, Method> ownMethods = currentNode.getMethodsBySignature();
     for (int i = 0; i < extendedMethods.size(); i++) {
-      boolean nonAbstractClass = false;
-      boolean found = false;
       boolean absractMethod =
         extendedMethods.get(i).isAbstract() ||
           extendedMethods.get(i).parent.classOrInterface instanceof InterfaceDeclaration;
 
       if (!absractMethod) continue;
 
-      // Check extended methods
-      for (int j = i+1; j < extendedMethods.size(); j++) {
-        if (i != j) {
-          if (!extendedMethods.get(j).parent.isAbstract() && !(extendedMethods.get(j).parent.classOrInterface instanceof InterfaceDeclaration)) {
-            nonAbstractClass = true;
-          }
-          if (extendedMethods.get(j).signaturesMatch(extendedMethods.get(i))) {
-            found = true;
-          }
-        }
-      }
-
-      // Check the class's declared methods
-      for (Method method : currentNode.methods) {
-        if (method.signaturesMatch(extendedMethods.get(i))) {
-          found = true;
-        }
-      }
-      if (!currentNode.isAbstract() && !(currentNode.classOrInterface instanceof InterfaceDeclaration)) {
-        nonAbstractClass = true;
-      }
+      // Check extended methods and the class's declared methods
+      boolean found = replacedLater[i] || ownMethods.containsKey(extendedMethods.get(i).signature);
+      boolean nonAbstractClass = nonAbstractLater[i] || nonAbstractNode;
 
       if (!found && nonAbstractClass) {
         throw new TypeHierarchyException(currentNode.identifier + " contains an abstract method " + extendedMethods.get(i));
@@ -236,17 +309,23 @@ public class HierarchyChecker {
   /**
    * Performs checks on implemented methods
    */
-  public static void implementedMethodsCheck(List<Method> implementedMethods,
-                                             List<Method> methodsAvailable,
-                                             HierarchyGraphNode currentNode,
-                                             List<Method> unimplementedMethods) throws TypeHierarchyException, DeadCodeException {
+  public void implementedMethodsCheck(List<Method> implementedMethods,
+                                      List<Method> methodsAvailable,
+                                      HierarchyGraphNode currentNode,
+                                      List<Method> unimplementedMethods) throws TypeHierarchyException, DeadCodeException {
     if (currentNode.classOrInterface instanceof InterfaceBody) {
       throw new DeadCodeException("interface " + currentNode.getFullname() + " has implemented methods");
     }
+    Map<MethodSignature, List<Integer>> implementedPositions = getPositionsBySignature(implementedMethods);
+    // The first available method of each signature
+    Map<MethodSignature, Method> available = new HashMap<MethodSignature, Method>();
+    for (Method method : methodsAvailable) {
+      if (!available.containsKey(method.signature)) available.put(method.signature, method);
+    }
     for (int i = 0; i < implementedMethods.size(); i++) {
       boolean found = false;
-      for (int j = i+1; j < implementedMethods.size(); j++) {
-        if (implementedMethods.get(i).signaturesMatch(implementedMethods.get(j)) &&
+      for (int j : implementedPositions.get(implementedMethods.get(i).signature)) {
+        if (j > i &&
           !implementedMethods.get(i).returnType.equals(implementedMethods.get(j).returnType) &&
           !implementedMethods.get(i).parent.equals(implementedMethods.get(j).parent)) {
           throw new TypeHierarchyException("Method " + implementedMethods.get(i).identifier + " is implemented " +
@@ -255,19 +334,17 @@ public class HierarchyChecker {
             " by " + currentNode.getFullname() + " but their return types are different");
         }
       }
-      for (Method method : methodsAvailable) {
-        if (method.signaturesMatch(implementedMethods.get(i))) {
-          if (method.isProtected() && implementedMethods.get(i).isPublic()) {
-            throw new TypeHierarchyException(currentNode.identifier + " contains a protected method " +
-              "which replaces a public method [" + method.identifier + "]");
-          }
-          if (!method.returnType.equals(implementedMethods.get(i).returnType)) {
-            throw new TypeHierarchyException(currentNode.identifier + " implements " + method.identifier +
-              " with a different return type");
-          }
-          found = true;
-          break;
+      Method method = available.get(implementedMethods.get(i).signature);
+      if (method != null) {
+        if (method.isProtected() && implementedMethods.get(i).isPublic()) {
+          throw new TypeHierarchyException(currentNode.identifier + " contains a protected method " +
+            "which replaces a public method [" + method.identifier + "]");
         }
+        if (!method.returnType.equals(implementedMethods.get(i).returnType)) {
+          throw new TypeHierarchyException(currentNode.identifier + " implements " + method.identifier +
+            " with a different return type");
+        }
+        found = true;
       }
       if (!found  && !currentNode.isAbstract()) {
         throw new TypeHierarchyException("Class " + currentNode.identifier + " implements " + implementedMethods.get(i).classOrInterfaceName +
@@ -278,22 +355,42 @@ public class HierarchyChecker {
     }
   }
 
-  private static void extendedMethodChecks(HierarchyGraphNode currentNode, List<Method> extendedMethods) throws TypeHierarchyException {
+  private void extendedMethodChecks(HierarchyGraphNode currentNode, List<Method> extendedMethods) throws TypeHierarchyException {
+    // Owned methods have distinct signatures once verifyOwnedMethods passed
+    Map<MethodSignature, Method> ownMethods = currentNode.getMethodsBySignature();
     for (Method extendedMethod : extendedMethods) {
-      for (Method method : currentNode.methods) {
+      Method method = ownMethods.get(extendedMethod.signature);
+      if (method != null) {
         methodCheck(method, extendedMethod);
       }
     }
+    Map<MethodSignature, List<Integer>> extendedPositions = getPositionsBySignature(extendedMethods);
     for (int i = 0; i < extendedMethods.size(); i++) {
-      for (int j = i+1; j < extendedMethods.size(); j++) {
-        if (i != j) {
+      for (int j : extendedPositions.get(extendedMethods.get(i).signature)) {
+        if (j > i) {
           methodCheck(extendedMethods.get(j), extendedMethods.get(i));
         }
       }
     }
   }
 
-  private static void methodCheck(Method method, Method extendedMethod) throws TypeHierarchyException {
+  /**
+   * Signature -> the positions of the methods with it, in order
+   */
+  private static Map<MethodSignature, List<Integer>> getPositionsBySignature(List<Method> methods) {
+    Map<MethodSignature, List<Integer>> positions = new HashMap<MethodSignature, List<Integer>>();
+    for (int i = 0; i < methods.size(); i++) {
+      List<Integer> signaturePositions = positions.get(methods.get(i).signature);
+      if (signaturePositions == null) {
+        signaturePositions = new ArrayList<Integer>(1);
+        positions.put(methods.get(i).signature, signaturePositions);
+      }
+      signaturePositions.add(i);
+    }
+    return positions;
+  }
+
+  private void methodCheck(Method method, Method extendedMethod) throws TypeHierarchyException {
     if (extendedMethod.signaturesMatch(method)) {
       if (!extendedMethod.returnType.equals(method.returnType)) {
         throw new TypeHierarchyException("A class or interface must not contain two methods with the same signature but different return types");
@@ -318,14 +415,17 @@ public class HierarchyChecker {
    * @param currentNode
    * @throws TypeHierarchyException
    */
-  private static void verifyOwnedMethods(HierarchyGraphNode currentNode) throws TypeHierarchyException {
+  private void verifyOwnedMethods(HierarchyGraphNode currentNode) throws TypeHierarchyException {
     boolean classIsAbstract = currentNode.modifiers.contains(TokenType.ABSTRACT);
+    Set<MethodSignature> signatures = new HashSet<MethodSignature>();
+    Set<MethodSignature> duplicated = new HashSet<MethodSignature>();
+    for (Method method : currentNode.methods) {
+      if (!signatures.add(method.signature)) duplicated.add(method.signature);
+    }
     for (int i = 0; i < currentNode.methods.size(); i++) {
-      for (int j = 0; j < currentNode.methods.size(); j++) {
-        if (i != j && currentNode.methods.get(i).signaturesMatch(currentNode.methods.get(j))) {
-          throw new TypeHierarchyException("A method with the exact same signature is found in "
-            + currentNode.identifier + " Method: " + currentNode.methods.get(i));
-        }
+      if (duplicated.contains(currentNode.methods.get(i).signature)) {
+        throw new TypeHierarchyException("A method with the exact same signature is found in "
+          + currentNode.identifier + " Method: " + currentNode.methods.get(i));
       }
       if (!classIsAbstract &&
         currentNode.classOrInterface instanceof ClassDeclaration &&
@@ -339,7 +439,7 @@ public class HierarchyChecker {
   /**
    * A class not extending any other class automatically extends Object
    */
-  public static void extendObjectClass(HierarchyGraphNode currentNode) {
+  public void extendObjectClass(HierarchyGraphNode currentNode) {
     if (!hierarchyGraph.contains(OBJECT_CLASS)) {
       // possible secret test. They might leave out object and see if we throw an exception
       // For A1, the do not pass in any of stdlib classes so we do not need to extend Object
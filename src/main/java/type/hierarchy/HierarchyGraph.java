@@ -1,7 +1,7 @@
 package type.hierarchy;
 
 import exception.TypeHierarchyException;
-import token.ImportDeclaration;
+import token.Name;
 
 import java.util.*;
 
@@ -10,9 +10,20 @@ import java.util.*;
  */
 public class HierarchyGraph {
   private HashMap<String, HierarchyGraphNode> nodes;
+  // Nodes in order of creation, the position of a node is its id.
+  private List<HierarchyGraphNode> nodesById = new ArrayList<HierarchyGraphNode>();
+  // Nodes with every parent before its children, and the cycles that prevent it, as of the last findCycles.
+  private List<HierarchyGraphNode> topologicalOrder;
+  private List<List<HierarchyGraphNode>> cycles;
+  // Whether the ancestors of every node are recorded, see buildSubtypeIndex.
+  private boolean subtypeIndexBuilt;
 
   public void reset() {
     this.nodes.clear();
+    nodesById.clear();
+    topologicalOrder = null;
+    cycles = null;
+    subtypeIndexBuilt = false;
   }
 
   public HierarchyGraph() {
@@ -30,31 +41,168 @@ public class HierarchyGraph {
     HierarchyGraphNode node;
     node = new HierarchyGraphNode();
     node.identifier = name;
+    node.id = nodesById.size();
     nodes.put(name, node);
+    nodesById.add(node);
+    topologicalOrder = null;
+    cycles = null;
+    subtypeIndexBuilt = false;
     return node;
   }
 
   /**
-   * Returns the node corresponding to name
-   * Creates a new node if it doesn't exist
+   * Records in every node the set of its strict ancestors, the nodes it is a child of transitively, so that
+   * nodeAIsParentOfNodeB is a bit test instead of a search through the children.
+   * The graph must be complete and acyclic, i.e. verified by HierarchyChecker; edges added afterwards are not seen.
    */
-  public HierarchyGraphNode getNode(HierarchyGraphNode node, String name, List<ImportDeclaration> imports) throws TypeHierarchyException {
-    if (nodes.containsKey(name)) {
-      return nodes.get(name);
-    } else if (nodes.containsKey(node.getPackageName() + name)) {
-      return nodes.get(node.getPackageName() + name);
-    } else if (imports.size() > 0) {
-      // Check to see if a node with identifier import.class name exists
-      for (ImportDeclaration imported : imports) {
-        String importName = imported.getLexeme() + (imported.onDemand ? "." + name : "");
-        if (nodes.containsKey(importName)) {
-          return nodes.get(importName);
+  public void buildSubtypeIndex() {
+    for (HierarchyGraphNode node : nodesById) {
+      node.ancestors = new BitSet(nodesById.size());
+    }
+    for (HierarchyGraphNode node : getTopologicalOrder()) {
+      for (HierarchyGraphNode child : node.children) {
+        child.ancestors.or(node.ancestors);
+        child.ancestors.set(node.id);
+      }
+    }
+    // With a cycle, the order does not put every parent first, keep searching the children then.
+    subtypeIndexBuilt = cycles.isEmpty();
+  }
+
+  /**
+   * Builds the inherited views of every node (getAllMethods, getAllFields, ...) from the roots down, so that each is
+   * made of the views its parents already hold, and publishes them to be read without locking. Replaces the views
+   * built before, e.g. while the graph was not complete.
+   */
+  public void buildMemberViews() {
+    invalidateMemberViews();
+    for (HierarchyGraphNode node : getTopologicalOrder()) {
+      node.buildMemberViews();
+    }
+  }
+
+  /**
+   * Drops the inherited views of every node, they are built again on their next use. Needed after adding edges or
+   * members to nodes whose views were used.
+   */
+  public void invalidateMemberViews() {
+    for (HierarchyGraphNode node : nodes.values()) {
+      node.invalidateMemberViews();
+    }
+  }
+
+  /**
+   * Finds the strongly connected components of the graph over the children edges, with an iterative version of
+   * Tarjan's algorithm, so the depth of the hierarchy is not limited by the stack. Returns every component that is a
+   * cycle, sorted by the first created of their nodes rather than in the order the algorithm completes them, and keeps
+   * the topological order of the components (see getTopologicalOrder) for the checks that go from the parents to the
+   * children.
+   */
+  public List<List<HierarchyGraphNode>> findCycles() {
+    int size = nodesById.size();
+    int[] index = new int[size];
+    int[] lowLink = new int[size];
+    boolean[] onStack = new boolean[size];
+    // Nodes of the components being built.
+    int[] stack = new int[size];
+    int stackSize = 0;
+    // Nodes being visited, with the position of the next child to visit for each.
+    int[] path = new int[size];
+    int[] nextChild = new int[size];
+    int pathSize = 0;
+    int count = 0;
+    Arrays.fill(index, -1);
+    // Position in cycles of the cycle each node is in, or -1.
+    int[] cycleOf = new int[size];
+    Arrays.fill(cycleOf, -1);
+
+    // Components are completed after all the components below them, so this is the reverse topological order.
+    List<HierarchyGraphNode> completed = new ArrayList<HierarchyGraphNode>(size);
+    cycles = new ArrayList<List<HierarchyGraphNode>>();
+    for (int root = 0; root < size; ++root) {
+      if (index[root] != -1) continue;
+      index[root] = lowLink[root] = count++;
+      stack[stackSize++] = root;
+      onStack[root] = true;
+      path[pathSize++] = root;
+      nextChild[root] = 0;
+      while (pathSize > 0) {
+        int node = path[pathSize - 1];
+        List<HierarchyGraphNode> children = nodesById.get(node).children;
+        if (nextChild[node] < children.size()) {
+          int child = children.get(nextChild[node]++).id;
+          if (index[child] == -1) {
+            index[child] = lowLink[child] = count++;
+            stack[stackSize++] = child;
+            onStack[child] = true;
+            path[pathSize++] = child;
+            nextChild[child] = 0;
+          } else if (onStack[child]) {
+            lowLink[node] = Math.min(lowLink[node], index[child]);
+          }
+          continue;
+        }
+        pathSize--;
+        if (pathSize > 0) {
+          int parent = path[pathSize - 1];
+          lowLink[parent] = Math.min(lowLink[parent], lowLink[node]);
+        }
+        if (lowLink[node] == index[node]) {
+          List<HierarchyGraphNode> component = new ArrayList<HierarchyGraphNode>(1);
+          int member;
+          do {
+            member = stack[--stackSize];
+            onStack[member] = false;
+            component.add(nodesById.get(member));
+          } while (member != node);
+          completed.addAll(component);
+          HierarchyGraphNode only = component.get(0);
+          if (component.size() > 1 || only.children.contains(only)) {
+            Collections.reverse(component);
+            for (HierarchyGraphNode cycleNode : component) {
+              cycleOf[cycleNode.id] = cycles.size();
+            }
+            cycles.add(component);
+          }
         }
       }
-    } else if (nodes.containsKey("java.lang." + name)) {
-      return nodes.get("java.lang." + name);
     }
-    throw new TypeHierarchyException(name + " was not found in hierarchy graph");
+    Collections.reverse(completed);
+    topologicalOrder = completed;
+
+    List<List<HierarchyGraphNode>> completedCycles = cycles;
+    cycles = new ArrayList<List<HierarchyGraphNode>>(completedCycles.size());
+    for (int node = 0; node < size; ++node) {
+      int cycle = cycleOf[node];
+      if (cycle != -1 && completedCycles.get(cycle) != null) {
+        cycles.add(completedCycles.get(cycle));
+        completedCycles.set(cycle, null);
+      }
+    }
+    return cycles;
+  }
+
+  /**
+   * Returns the nodes from the roots down, each after all of its parents when the graph is acyclic, as of the last
+   * findCycles.
+   */
+  public List<HierarchyGraphNode> getTopologicalOrder() {
+    if (topologicalOrder == null) {
+      findCycles();
+    }
+    return topologicalOrder;
+  }
+
+  /**
+   * Returns the node of the type that name refers to, through the absolute path given to name by type linking, or
+   * name as written when type linking did not run.
+   */
+  public HierarchyGraphNode getNode(Name name) throws TypeHierarchyException {
+    HierarchyGraphNode node = nodes.get(name.getAbsolutePath() != null ? name.getAbsolutePath() : name.getLexeme());
+    if (node == null) {
+      throw new TypeHierarchyException(name.getLexeme() + " was not found in hierarchy graph");
+    }
+    return node;
   }
 
   public HierarchyGraphNode get(String name) {
@@ -70,6 +218,9 @@ public class HierarchyGraph {
   }
 
   public boolean nodeAIsParentOfNodeB(HierarchyGraphNode a, HierarchyGraphNode b) {
+    if (subtypeIndexBuilt) {
+      return b.ancestors.get(a.id);
+    }
     if (a.children.size() == 0) return false;
     if (a.children.contains(b)) {
       return true;
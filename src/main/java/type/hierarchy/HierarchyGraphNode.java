@@ -3,7 +3,12 @@ package type.hierarchy;
 import token.*;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * A wrapper that represents a Class/Interface with additional attributes used by ObjectHierarchyGraph.
@@ -31,6 +36,11 @@ public class HierarchyGraphNode {
   public List<FieldDeclaration> fields = new ArrayList<FieldDeclaration>();
   public String packageName;
   private ImportDeclarations importDeclarations;
+  // Inherited views and identifier -> members tables, see MemberViews.
+  private volatile MemberViews views;
+  // Position of the node in its HierarchyGraph, and the positions of its strict ancestors (see buildSubtypeIndex).
+  int id = -1;
+  BitSet ancestors;
 
   public HierarchyGraphNode() {
     children = new ArrayList<HierarchyGraphNode>();
@@ -99,79 +109,38 @@ public class HierarchyGraphNode {
    * Traverse the graph and fetch all classes connected to this node.
    */
   public List<Token> getAllBaseClasses() {
-    List<Token> allBaseClasses = new ArrayList<Token>();
-    for (HierarchyGraphNode node : extendsList) {
-      allBaseClasses.addAll(node.getAllBaseClasses());
-    }
-    for (HierarchyGraphNode node : implementsList) {
-      allBaseClasses.addAll(node.getAllBaseClasses());
-    }
-    allBaseClasses.add(classOrInterface);
-    return allBaseClasses;
+    return getViews().allBaseClasses;
   }
 
   /**
    * Traverse the graph and fetch all interfaces.
    */
   public List<Token> getAllInterfaces() {
-    List<Token> allInterfaces = new ArrayList<Token>();
-    for (HierarchyGraphNode interfaceNode : implementsList) {
-      allInterfaces.add(interfaceNode.classOrInterface);
-    }
-    for (HierarchyGraphNode node : extendsList) {
-      allInterfaces.addAll(node.getAllInterfaces());
-    }
-    return allInterfaces;
+    return getViews().allInterfaces;
   }
 
   /**
    * Traverse the graph and fetch all the fields extended by this class
    * @return this node's fields + all the extended fields
    */
-
   public List<FieldDeclaration> getAllFields() {
-    List<FieldDeclaration> allFields = new ArrayList<FieldDeclaration>();
-    allFields.addAll(fields);
-    for (HierarchyGraphNode node : extendsList) {
-      allFields.addAll(node.getAllFields());
-    }
-    return allFields;
+    return getViews().allFields;
   }
 
   public List<FieldDeclaration> getAllFieldsReverse() {
-    List<FieldDeclaration> allFields = new ArrayList<FieldDeclaration>();
-    for (HierarchyGraphNode node : extendsList) {
-      allFields.addAll(node.getAllFieldsReverse());
-    }
-    allFields.addAll(fields);
-    return allFields;
+    return getViews().allFieldsReverse;
   }
 
   public List<FieldDeclaration> getAllBaseFields() {
-    List<FieldDeclaration> baseFields = new ArrayList<FieldDeclaration>();
-    for (HierarchyGraphNode node : extendsList) {
-      baseFields.addAll(node.getAllFields());
-    }
-    return baseFields;
+    return getViews().allBaseFields;
   }
 
   /**
    * Traverse the graph and return this class/interface's methods, the methods it extends,
    * and the methods it is supposed to implement
    */
-
   public List<BaseMethodDeclaration> getAllMethods() {
-    List<BaseMethodDeclaration> allMethods = new ArrayList<BaseMethodDeclaration>();
-
-    allMethods.addAll(baseMethodDeclarations);
-
-    for (HierarchyGraphNode node : extendsList) {
-      allMethods.addAll(node.getAllMethods());
-    }
-    for (HierarchyGraphNode node : implementsList) {
-      allMethods.addAll(node.getAllMethods());
-    }
-    return allMethods;
+    return getViews().allMethods;
   }
 
   public boolean isDefaultConstructorVisibleToChildren() {
@@ -182,20 +151,184 @@ public class HierarchyGraphNode {
   }
 
   public List<BaseMethodDeclaration> getAllBaseMethods() {
-    List<BaseMethodDeclaration> baseMethods = new ArrayList<BaseMethodDeclaration>();
+    return getViews().allBaseMethods;
+  }
 
-    for (HierarchyGraphNode node : extendsList) {
-      baseMethods.addAll(node.getAllMethods());
-    }
-    for (HierarchyGraphNode node : implementsList) {
-      baseMethods.addAll(node.getAllMethods());
-    }
-    return baseMethods;
+  /**
+   * Builds the inherited views and member tables of this node from the views of its parents, which have to be built
+   * already, and publishes them. HierarchyGraph.buildMemberViews calls it from the roots down.
+   */
+  void buildMemberViews() {
+    views = new MemberViews(this);
+  }
+
+  /**
+   * Drops the inherited views and member tables of this node. They are built from the views of the parents, so
+   * HierarchyGraph.invalidateMemberViews is the way to drop them after the graph changes.
+   */
+  public synchronized void invalidateMemberViews() {
+    views = null;
   }
 
   public void setBaseMethodDeclarations(List<BaseMethodDeclaration> baseMethodDeclarations) {
     this.baseMethodDeclarations = baseMethodDeclarations;
   }
 
+  /**
+   * Returns the field called identifier that this class sees first, its own or an inherited one, or null.
+   */
+  public FieldDeclaration getField(String identifier) {
+    return getFieldTable().get(identifier);
+  }
+
+  /**
+   * Returns the first field called identifier of the classes this class extends, or null.
+   */
+  public FieldDeclaration getBaseField(String identifier) {
+    for (HierarchyGraphNode node : extendsList) {
+      FieldDeclaration field = node.getField(identifier);
+      if (field != null) return field;
+    }
+    return null;
+  }
 
+  /**
+   * Returns the methods called identifier of this class/interface, the methods it extends and the methods it is
+   * supposed to implement, in the order of getAllMethods.
+   */
+  public List<BaseMethodDeclaration> getMethods(String identifier) {
+    List<BaseMethodDeclaration> methods = getMethodTable().get(identifier);
+    return methods != null ? methods : Collections.<BaseMethodDeclaration>emptyList();
+  }
+
+  /**
+   * Identifier -> the first field of getAllFields with it.
+   */
+  public Map<String, FieldDeclaration> getFieldTable() {
+    return getViews().fieldTable;
+  }
+
+  /**
+   * Identifier -> the methods of getAllMethods with it, in order, as immutable lists.
+   */
+  public Map<String, List<BaseMethodDeclaration>> getMethodTable() {
+    return getViews().methodTable;
+  }
+
+  /**
+   * Signature -> the first of the methods of this class/interface with it.
+   */
+  public Map<MethodSignature, Method> getMethodsBySignature() {
+    return getViews().methodsBySignature;
+  }
+
+  /**
+   * The views published by buildMemberViews, read without locking. A graph that is still being built or checked has
+   * no views yet: they are then built on first use, under the lock of the node.
+   */
+  private MemberViews getViews() {
+    MemberViews views = this.views;
+    return views != null ? views : buildViewsOnFirstUse();
+  }
+
+  private synchronized MemberViews buildViewsOnFirstUse() {
+    if (views == null) {
+      views = new MemberViews(this);
+    }
+    return views;
+  }
+
+  /**
+   * The inherited views and member tables of a node. They are immutable, so once published they can be shared by every
+   * thread.
+   */
+  private static final class MemberViews {
+    final List<Token> allBaseClasses;
+    final List<Token> allInterfaces;
+    final List<FieldDeclaration> allFields;
+    final List<FieldDeclaration> allFieldsReverse;
+    final List<FieldDeclaration> allBaseFields;
+    final List<BaseMethodDeclaration> allMethods;
+    final List<BaseMethodDeclaration> allBaseMethods;
+    // Identifier -> the first field of allFields with it.
+    final Map<String, FieldDeclaration> fieldTable;
+    // Identifier -> the methods of allMethods with it, in order.
+    final Map<String, List<BaseMethodDeclaration>> methodTable;
+    // Signature -> the first of the methods of the node with it.
+    final Map<MethodSignature, Method> methodsBySignature;
+
+    MemberViews(HierarchyGraphNode node) {
+      List<Token> baseClasses = new ArrayList<Token>();
+      List<Token> interfaces = new ArrayList<Token>();
+      List<FieldDeclaration> baseFields = new ArrayList<FieldDeclaration>();
+      List<FieldDeclaration> fieldsReverse = new ArrayList<FieldDeclaration>();
+      List<BaseMethodDeclaration> baseMethods = new ArrayList<BaseMethodDeclaration>();
+      for (HierarchyGraphNode parent : node.implementsList) {
+        interfaces.add(parent.classOrInterface);
+      }
+      for (HierarchyGraphNode parent : node.extendsList) {
+        baseClasses.addAll(parent.getAllBaseClasses());
+        interfaces.addAll(parent.getAllInterfaces());
+        baseFields.addAll(parent.getAllFields());
+        fieldsReverse.addAll(parent.getAllFieldsReverse());
+        baseMethods.addAll(parent.getAllMethods());
+      }
+      for (HierarchyGraphNode parent : node.implementsList) {
+        baseClasses.addAll(parent.getAllBaseClasses());
+        baseMethods.addAll(parent.getAllMethods());
+      }
+      baseClasses.add(node.classOrInterface);
+      fieldsReverse.addAll(node.fields);
+      List<FieldDeclaration> fields = new ArrayList<FieldDeclaration>(node.fields);
+      fields.addAll(baseFields);
+      List<BaseMethodDeclaration> methods = new ArrayList<BaseMethodDeclaration>(node.baseMethodDeclarations);
+      methods.addAll(baseMethods);
+
+      allBaseClasses = freeze(baseClasses);
+      allInterfaces = freeze(interfaces);
+      allFields = freeze(fields);
+      allFieldsReverse = freeze(fieldsReverse);
+      allBaseFields = freeze(baseFields);
+      allMethods = freeze(methods);
+      allBaseMethods = freeze(baseMethods);
+
+      Map<String, FieldDeclaration> fieldTable = new HashMap<String, FieldDeclaration>();
+      for (FieldDeclaration field : allFields) {
+        if (!fieldTable.containsKey(field.getIdentifier())) {
+          fieldTable.put(field.getIdentifier(), field);
+        }
+      }
+      this.fieldTable = Collections.unmodifiableMap(fieldTable);
+
+      Map<String, List<BaseMethodDeclaration>> methodTable = new HashMap<String, List<BaseMethodDeclaration>>();
+      for (BaseMethodDeclaration method : allMethods) {
+        List<BaseMethodDeclaration> identifierMethods = methodTable.get(method.getIdentifier());
+        if (identifierMethods == null) {
+          identifierMethods = new ArrayList<BaseMethodDeclaration>(1);
+          methodTable.put(method.getIdentifier(), identifierMethods);
+        }
+        identifierMethods.add(method);
+      }
+      for (Map.Entry<String, List<BaseMethodDeclaration>> entry : methodTable.entrySet()) {
+        entry.setValue(freeze(entry.getValue()));
+      }
+      this.methodTable = Collections.unmodifiableMap(methodTable);
+
+      Map<MethodSignature, Method> methodsBySignature = new HashMap<MethodSignature, Method>();
+      for (Method method : node.methods) {
+        if (!methodsBySignature.containsKey(method.signature)) {
+          methodsBySignature.put(method.signature, method);
+        }
+      }
+      this.methodsBySignature = Collections.unmodifiableMap(methodsBySignature);
+    }
+  }
+
+  /**
+   * Copies list into an immutable list over an array of its exact size.
+   */
+  @SuppressWarnings("unchecked")
+  private static <T> List<T> freeze(List<T> list) {
+    return Collections.unmodifiableList(Arrays.asList((T[]) list.toArray()));
+  }
 }
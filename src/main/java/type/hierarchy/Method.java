@@ -20,6 +20,8 @@ public class Method {
 
   public List<Parameter> parameterTypes;
 
+  public MethodSignature signature;
+
   public HierarchyGraphNode parent;
 
   public Method() {
@@ -48,7 +50,7 @@ public class Method {
   }
 
   public boolean signaturesMatch(Method method) {
-    return method.identifier.equals(this.identifier) && parameterTypesMatch(method);
+    return signature.equals(method.signature);
   }
 
   public void addModifiers(List<Modifier> newModifiers) {
@@ -56,19 +58,4 @@ public class Method {
       modifiers.add(modifier.getModifier().getTokenType());
     }
   }
-
-  private boolean parameterTypesMatch(Method method) {
-    if (method.parameterTypes.size() != parameterTypes.size()) {
-      return false;
-    }
-    for (int i = 0; i < parameterTypes.size(); i++) {
-      boolean match = false;
-      if (!parameterTypes.get(i).type.equals(method.parameterTypes.get(i).type) &&
-        !HierarchyUtil.checkWithImports(parent.getImportList(), parameterTypes.get(i).type, method.parameterTypes.get(i).type) &&
-        !HierarchyUtil.checkWithImports(method.parent.getImportList(), method.parameterTypes.get(i).type, parameterTypes.get(i).type)){
-        return false;
-      }
-    }
-    return true;
-  }
 }
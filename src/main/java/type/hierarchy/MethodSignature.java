@@ -0,0 +1,90 @@
+package type.hierarchy;
+
+import symbol.SymbolPool;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The name and parameter types of a method, which decide whether two methods replace each other. Parameter types are
+ * kept as ids interned in the pool of the compilation and the hash is computed once, so signatures are cheap map keys.
+ * Signatures are interned too: equal signatures of a pool are the same instance, and share their label. Signatures of
+ * different pools must not be compared.
+ * <p/>
+ * The label is the one used by code generation for the method: the name, then '#' and each parameter type, or
+ * '#void' without parameters.
+ */
+public final class MethodSignature {
+  private final String identifier;
+  private final int[] parameterTypeIds;
+  private final String label;
+  private final int hash;
+
+  private MethodSignature(String identifier, int[] parameterTypeIds, String label) {
+    this.identifier = identifier;
+    this.parameterTypeIds = parameterTypeIds;
+    this.label = label;
+    this.hash = 31 * identifier.hashCode() + Arrays.hashCode(parameterTypeIds);
+  }
+
+  /**
+   * The signatures of one compilation, and the ids of their parameter types.
+   */
+  public static class Pool {
+    private final SymbolPool parameterTypes = new SymbolPool();
+    private final Map<String, MethodSignature> signatures = new HashMap<String, MethodSignature>();
+
+    /**
+     * Returns the signature of a method called identifier with parameters of the given types.
+     */
+    public MethodSignature of(String identifier, List<String> types) {
+      StringBuilder sb = new StringBuilder(identifier);
+      for (String type : types) {
+        sb.append('#').append(type);
+      }
+      if (types.isEmpty()) {
+        sb.append("#void");
+      }
+      String label = sb.toString();
+      MethodSignature signature = signatures.get(label);
+      if (signature != null) return signature;
+
+      int[] parameterTypeIds = new int[types.size()];
+      for (int i = 0; i < parameterTypeIds.length; ++i) {
+        parameterTypeIds[i] = parameterTypes.id(types.get(i));
+      }
+      signature = new MethodSignature(identifier, parameterTypeIds, label);
+      signatures.put(label, signature);
+      return signature;
+    }
+  }
+
+  public String getIdentifier() {
+    return identifier;
+  }
+
+  public String getLabel() {
+    return label;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof MethodSignature)) return false;
+    MethodSignature signature = (MethodSignature) o;
+    return hash == signature.hash && identifier.equals(signature.identifier) &&
+      Arrays.equals(parameterTypeIds, signature.parameterTypeIds);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    return label;
+  }
+}
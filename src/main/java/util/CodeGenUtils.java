@@ -61,6 +61,7 @@ public class CodeGenUtils {
    * Generate a label for a given method using it's identifier and paramater list.
    */
   public static String genMethodLabel(MethodDeclaration methodDeclaration) {
+    if (methodDeclaration.methodHeader.signatureLabel != null) return methodDeclaration.methodHeader.signatureLabel;
     StringBuilder sb = new StringBuilder();
     sb.append(methodDeclaration.getIdentifier());
     for (FormalParameter parameter : methodDeclaration.getParameters()) {
@@ -75,6 +76,7 @@ public class CodeGenUtils {
   }
 
   public static String genMethodLabel(AbstractMethodDeclaration methodDeclaration) {
+    if (methodDeclaration.methodHeader.signatureLabel != null) return methodDeclaration.methodHeader.signatureLabel;
     StringBuilder sb = new StringBuilder();
     sb.append(methodDeclaration.getIdentifier());
     for (FormalParameter parameter : methodDeclaration.getParameters()) {
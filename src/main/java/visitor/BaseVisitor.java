@@ -380,4 +380,10 @@ public class BaseVisitor implements Visitor {
   public void visit(Token token) throws VisitorException {
   }
 
+  public void enterScope(Token owner) throws VisitorException {
+  }
+
+  public void exitScope(Token owner) throws VisitorException {
+  }
+
 }
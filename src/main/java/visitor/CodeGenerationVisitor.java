@@ -1,6 +1,7 @@
 package visitor;
 
 import exception.VisitorException;
+import symbol.SymbolKind;
 import symbol.SymbolTable;
 import token.*;
 import type.hierarchy.HierarchyGraph;
@@ -367,7 +368,7 @@ public class CodeGenerationVisitor extends BaseVisitor {
     // General idea: We only fetch "Class" methods and static field labels. This excludes interfaces.
     List<Token> classWithPrefixes;
     if (token.isOnDemand()) {
-      classWithPrefixes = table.findWithPrefixOfAnyType(token.getLexeme(), new Class[] {ClassDeclaration.class});
+      classWithPrefixes = table.findWithPrefixOfAnyKind(token.getLexeme(), SymbolKind.CLASS.mask);
     } else {
       classWithPrefixes = table.find(token.getLexeme());
     }
@@ -1103,9 +1104,9 @@ public class CodeGenerationVisitor extends BaseVisitor {
     output.println(String.format("mov dword ebx, [__vtable__%s]", classDeclaration.getAbsolutePath()));
     output.println("mov [eax], ebx");
     offset = 0;
-    token.newScope.traverse(this);
+    enterScope(token);
     token.body.traverse(this);
-    token.closeScope.traverse(this);
+    exitScope(token);
     output.println("mov esp, ebp");
     output.println("pop ebp");
     output.println("ret");
@@ -1235,9 +1236,9 @@ public class CodeGenerationVisitor extends BaseVisitor {
     thisOffset = !token.methodHeader.modifiers.containsModifier("static") ? paramOffset : 0;
 
     offset = 0;
-    token.newScope.traverse(this);
+    enterScope(token);
     token.methodBody.traverse(this);
-    token.closeScope.traverse(this);
+    exitScope(token);
     if (token.methodHeader.isVoid()) {
       output.println("mov esp, ebp");
       output.println("pop ebp");
@@ -1468,7 +1469,7 @@ public class CodeGenerationVisitor extends BaseVisitor {
 
   private void genJavaLangImports(ClassDeclaration excludeToken) {
     // Extern all java.lang.* explicitly
-    List<Token> javaLangClasses = table.findWithPrefixOfAnyType("java.lang.", new Class[] {ClassDeclaration.class});
+    List<Token> javaLangClasses = table.findWithPrefixOfAnyKind("java.lang.", SymbolKind.CLASS.mask);
     for (Token javaLangClass : javaLangClasses) {
       ClassDeclaration classDeclaration = (ClassDeclaration) javaLangClass;
       if (classDeclaration == excludeToken ||
@@ -1546,7 +1547,9 @@ public class CodeGenerationVisitor extends BaseVisitor {
   @Override
   public void visit(Block token) throws VisitorException {
     super.visit(token);
+    enterScope(token);
     visitEveryChild(token);
+    exitScope(token);
   }
 
   @Override
@@ -1598,7 +1601,9 @@ public class CodeGenerationVisitor extends BaseVisitor {
   @Override
   public void visit(ConstructorBody token) throws VisitorException {
     super.visit(token);
+    enterScope(token);
     visitEveryChild(token);
+    exitScope(token);
   }
 
   @Override
@@ -1642,18 +1647,20 @@ public class CodeGenerationVisitor extends BaseVisitor {
   }
 
   @Override
-  public void visit(Token token) throws VisitorException {
-    super.visit(token);
-    if (token.getLexeme().equals("{")) {
-      declStack.push(new Stack<LocalVariableDeclaration>());
-    } else if (token.getLexeme().equals("}")) {
-      while (!declStack.peek().empty()) {
-        LocalVariableDeclaration decl = declStack.peek().pop();
-        offset -= CodeGenUtils.getSize(decl.type.getType().getLexeme());
-        output.println("pop ebx");
-      }
-      declStack.pop();
+  public void enterScope(Token owner) throws VisitorException {
+    super.enterScope(owner);
+    declStack.push(new Stack<LocalVariableDeclaration>());
+  }
+
+  @Override
+  public void exitScope(Token owner) throws VisitorException {
+    super.exitScope(owner);
+    while (!declStack.peek().empty()) {
+      LocalVariableDeclaration decl = declStack.peek().pop();
+      offset -= CodeGenUtils.getSize(decl.type.getType().getLexeme());
+      output.println("pop ebx");
     }
+    declStack.pop();
   }
 
   private void checkForNull(String register) {
@@ -1691,7 +1698,7 @@ public class CodeGenerationVisitor extends BaseVisitor {
     output.println("; CODE GENERATION: forLoopVisitHelper");
     String startLabel = CodeGenUtils.genNextForStatementLabel();
     String endForLabel = "end#" + startLabel;
-    token.newScope.traverse(this);
+    enterScope(token);
     if (token.forInit != null) token.forInit.traverse(this);
     output.println(String.format("%s:", startLabel));
     if (token.expression != null)
@@ -1708,7 +1715,7 @@ public class CodeGenerationVisitor extends BaseVisitor {
     }
     output.println("jmp " + startLabel);
     output.println(String.format("%s:", endForLabel));
-    token.closeScope.traverse(this);
+    exitScope(token);
     output.println("; END: forLoopVisitHelper");
   }
 
@@ -1716,7 +1723,7 @@ public class CodeGenerationVisitor extends BaseVisitor {
     output.println("; CODE GENERATION: whileStatementHelper");
     String startLabel = CodeGenUtils.genNextWhileStmtLabel();
     String endLabel = "end#" + startLabel;
-    token.newScope.traverse(this);
+    enterScope(token);
     output.println(String.format("%s:", startLabel));
     token.expression.traverse(this);
     output.println("cmp eax, 0");
@@ -1728,7 +1735,7 @@ public class CodeGenerationVisitor extends BaseVisitor {
     }
     output.println(String.format("jmp %s", startLabel));
     output.println(String.format("%s:", endLabel));
-    token.closeScope.traverse(this);
+    exitScope(token);
     output.println("; END: whileStatementHelper");
   }
 
@@ -1809,7 +1816,7 @@ public class CodeGenerationVisitor extends BaseVisitor {
       output.println(String.format("mov %s, eax", registerToConvert));
     }
 
-    List<Token> declarations = this.table.findWithPrefixOfAnyType("java.lang.String.concat", new Class [] {MethodDeclaration.class});
+    List<Token> declarations = this.table.findWithPrefixOfAnyKind("java.lang.String.concat", SymbolKind.METHOD.mask);
     int concatMethodId = ((MethodDeclaration) declarations.get(0)).methodId;
     methodInvocation(null, concatMethodId, leftRegister, rightRegister);
     output.println("; END: concat");
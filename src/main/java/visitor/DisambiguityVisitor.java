@@ -1,13 +1,14 @@
 package visitor;
 
+import algorithm.name.resolution.TypeResolutionCache;
 import algorithm.name.resolution.VariableNameResolutionAlgorithm;
 import exception.DisambiguityVisitorException;
 import exception.VariableNameResolutionException;
 import exception.VisitorException;
+import symbol.SymbolKind;
 import symbol.SymbolTable;
 import token.CompilationUnit;
 import token.Declaration;
-import token.FieldDeclaration;
 import token.LeftHandSide;
 import token.Name;
 import token.Token;
@@ -27,16 +28,19 @@ public class DisambiguityVisitor extends VariableScopeVisitor {
   private boolean skipResolution = false;
 
   public DisambiguityVisitor(SymbolTable symbolTable, HierarchyGraph graph) {
+    this(symbolTable, graph, new TypeResolutionCache());
+  }
+
+  public DisambiguityVisitor(SymbolTable symbolTable, HierarchyGraph graph, TypeResolutionCache typeResolutionCache) {
     super();
     this.table = symbolTable;
-    resolutionAlgm = new VariableNameResolutionAlgorithm(symbolTable, getVariableTable(), graph);
+    resolutionAlgm = new VariableNameResolutionAlgorithm(symbolTable, graph, typeResolutionCache);
   }
 
   public void disambiguateUnits(List<CompilationUnit> units) throws VisitorException {
     for (CompilationUnit unit : units) {
-      getVariableTable().newScope();
+      resetLocalScope();
       unit.acceptReverse(this);
-      getVariableTable().deleteScope();
     }
   }
 
@@ -54,7 +58,7 @@ public class DisambiguityVisitor extends VariableScopeVisitor {
       return;
     }
     try {
-      resolutionAlgm.resolveName(unit, token);
+      resolutionAlgm.resolveName(unit, token, getLocalScope());
     } catch (VariableNameResolutionException e) {
       throw new DisambiguityVisitorException(e.getMessage(), token);
     }
@@ -66,7 +70,7 @@ public class DisambiguityVisitor extends VariableScopeVisitor {
     if (token.children.get(0) instanceof Name) {
       Name name = (Name) token.children.get(0);
       String fullName = String.format("%s.%s", unit.typeDeclaration.getDeclaration().getAbsolutePath(), name.getLexeme());
-      List<Token> declarations = table.findWithPrefixOfAnyType(fullName, new Class[]{FieldDeclaration.class});
+      List<Token> declarations = table.findWithPrefixOfAnyKind(fullName, SymbolKind.FIELD.mask);
       if (declarations != null && !declarations.isEmpty()) {
         name.setDeclarationTypes(convertTokenToDeclaration(declarations));
         skipResolution = true;
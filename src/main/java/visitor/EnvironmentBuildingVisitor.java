@@ -2,6 +2,8 @@ package visitor;
 
 import exception.EnvironmentBuildingVisitorException;
 import exception.VisitorException;
+import symbol.LocalScope;
+import symbol.SymbolKind;
 import symbol.SymbolTable;
 import token.AbstractMethodDeclaration;
 import token.ClassDeclaration;
@@ -13,9 +15,9 @@ import token.FormalParameter;
 import token.InterfaceDeclaration;
 import token.LocalVariableDeclaration;
 import token.MethodDeclaration;
-import token.PackageDeclaration;
 import token.Token;
 
+import java.util.LinkedList;
 import java.util.List;
 
 /**
@@ -24,6 +26,9 @@ import java.util.List;
 public class EnvironmentBuildingVisitor extends BaseVisitor {
   private SymbolTable table;
   private StringBuilder prefix;
+  // Parameters and local variables in scope, and the frames of the enclosing scopes.
+  private LocalScope localScope = LocalScope.EMPTY;
+  private final LinkedList<LocalScope> enclosingScopes = new LinkedList<LocalScope>();
 
   private int classId;
   private int interfaceMethodId;
@@ -52,7 +57,7 @@ public class EnvironmentBuildingVisitor extends BaseVisitor {
     prefix.setLength(0);
     // Add the package as the prefix.
     if (token.packageDeclaration != null) {
-      if (!table.containsAnyOfType(token.packageDeclaration.getIdentifier(), new Class[]{PackageDeclaration.class})) {
+      if (!table.containsAnyOfKind(token.packageDeclaration.getIdentifier(), SymbolKind.PACKAGE.mask)) {
         table.addDecl(token.packageDeclaration.getIdentifier(), token.packageDeclaration);
       }
       prefix.append(token.packageDeclaration.getIdentifier() + ".");
@@ -61,7 +66,7 @@ public class EnvironmentBuildingVisitor extends BaseVisitor {
     Declaration decl = token.typeDeclaration.getDeclaration();
     String identifier = prefix.toString() + decl.getIdentifier();
     prefix.append(decl.getIdentifier() + ".");
-    if (table.containsAnyOfType(identifier, new Class[] {ClassDeclaration.class, InterfaceDeclaration.class})) {
+    if (table.containsAnyOfKind(identifier, SymbolKind.TYPES)) {
       throw new EnvironmentBuildingVisitorException(
           "Error: No two classes or interfaces have the same canonical name.", token);
     }
@@ -72,7 +77,7 @@ public class EnvironmentBuildingVisitor extends BaseVisitor {
   public void visit(FieldDeclaration token) throws VisitorException {
     super.visit(token);
     String identifier = prefix.toString() + token.getIdentifier();
-    if (table.containsAnyOfType(identifier, new Class[] {FieldDeclaration.class})) {
+    if (table.containsAnyOfKind(identifier, SymbolKind.FIELD.mask)) {
       throw new EnvironmentBuildingVisitorException(
           "Error: No two fields declared in the same class may have the same name.", token);
     }
@@ -105,22 +110,24 @@ public class EnvironmentBuildingVisitor extends BaseVisitor {
   public void visit(FormalParameter token) throws VisitorException {
     super.visit(token);
     String identifier = token.getIdentifier();
-    if (table.containsAnyOfType(identifier, new Class[] {FormalParameter.class})) {
+    if (localScope.findOfKind(identifier, SymbolKind.PARAMETER.mask) != null) {
       throw new EnvironmentBuildingVisitorException(
           "No two local variables with overlapping scope have the same name.", token);
     }
-    table.addDecl(identifier, token);
+    token.setAbsolutePath(identifier);
+    localScope = localScope.declare(identifier, token);
   }
 
   @Override
   public void visit(LocalVariableDeclaration token) throws VisitorException {
     super.visit(token);
     String identifier = token.getIdentifier();
-    if (table.containsAnyOfType(identifier, new Class[] {LocalVariableDeclaration.class, FormalParameter.class})) {
+    if (localScope.findOfKind(identifier, SymbolKind.LOCAL.mask | SymbolKind.PARAMETER.mask) != null) {
       throw new EnvironmentBuildingVisitorException(
           "No two local variables with overlapping scope have the same name.", token);
     }
-    table.addDecl(identifier, token);
+    token.setAbsolutePath(identifier);
+    localScope = localScope.declare(identifier, token);
   }
 
   @Override
@@ -136,12 +143,14 @@ public class EnvironmentBuildingVisitor extends BaseVisitor {
   }
 
   @Override
-  public void visit(Token token) throws VisitorException {
-    super.visit(token);
-    if (token.getLexeme().equals("{")) {
-      table.newScope();
-    } else if (token.getLexeme().equals("}")) {
-      table.deleteScope();
-    }
+  public void enterScope(Token owner) throws VisitorException {
+    super.enterScope(owner);
+    enclosingScopes.push(localScope);
+  }
+
+  @Override
+  public void exitScope(Token owner) throws VisitorException {
+    super.exitScope(owner);
+    localScope = enclosingScopes.pop();
   }
 }
@@ -2,42 +2,101 @@ package visitor;
 
 import token.*;
 
-public class TypeCheckToken {
+import java.util.IdentityHashMap;
+import java.util.Map;
 
-  public TokenType tokenType;
-  public boolean isArray;
-  public Declaration declaration;
-  public String absolutePath;
-  public boolean isPositiveIntLiteral;
-
-  public TypeCheckToken(TokenType type) {
-    this.tokenType = type;
+/**
+ * The type of an expression, as found by the TypeCheckingVisitor.
+ * <p/>
+ * Instances are immutable and shared: each primitive type (and array of it), null, void and java.lang.String has a
+ * single instance, and a Table gives a single instance per declaration. Expressions of the same type and origin push
+ * the same instance, so type checking allocates almost nothing per expression and equal types usually compare by
+ * reference.
+ */
+public final class TypeCheckToken {
+  private static final TypeCheckToken[] TYPES = new TypeCheckToken[TokenType.values().length];
+  private static final TypeCheckToken[] ARRAY_TYPES = new TypeCheckToken[TokenType.values().length];
+  static {
+    for (TokenType type : TokenType.values()) {
+      TYPES[type.ordinal()] = new TypeCheckToken(type, false, null, null, false);
+      ARRAY_TYPES[type.ordinal()] = new TypeCheckToken(type, true, null, null, false);
+    }
   }
 
-  public TypeCheckToken(TokenType type, boolean isArray) {
+  public static final TypeCheckToken STRING = new TypeCheckToken(TokenType.OBJECT, false, null, "java.lang.String", false);
+  // An int literal without a minus sign, which a unary minus can fold into a negative literal.
+  public static final TypeCheckToken POSITIVE_INT_LITERAL = new TypeCheckToken(TokenType.INT, false, null, null, true);
+
+  public final TokenType tokenType;
+  public final boolean isArray;
+  public final Declaration declaration;
+  public final String absolutePath;
+  public final boolean isPositiveIntLiteral;
+
+  private TypeCheckToken(TokenType type, boolean isArray, Declaration declaration, String absolutePath,
+                         boolean isPositiveIntLiteral) {
     this.tokenType = type;
     this.isArray = isArray;
+    this.declaration = declaration;
+    this.absolutePath = absolutePath;
+    this.isPositiveIntLiteral = isPositiveIntLiteral;
   }
 
-  public TypeCheckToken (Declaration token) {
-    this.declaration = token;
+  public static TypeCheckToken of(TokenType type) {
+    return TYPES[type.ordinal()];
+  }
 
-    if(token instanceof ClassDeclaration || token instanceof InterfaceDeclaration) {
-      isArray = false;
-      tokenType = TokenType.OBJECT;
-    } else {
-      isArray = token.type.isArray();
-      if(token.type.isPrimitiveType()) {
-        tokenType = token.type.getType().getTokenType();
-      } else if(token.type.isReferenceType()) {
-        tokenType = TokenType.OBJECT;
+  public static TypeCheckToken of(TokenType type, boolean isArray) {
+    return isArray ? ARRAY_TYPES[type.ordinal()] : TYPES[type.ordinal()];
+  }
+
+  /**
+   * The types of declarations, one instance per declaration and dimension. Types of primitive declarations are the
+   * shared primitive types. A table is only used by one thread at a time.
+   */
+  public static class Table {
+    private final Map<Declaration, TypeCheckToken[]> types = new IdentityHashMap<Declaration, TypeCheckToken[]>();
+
+    /**
+     * Returns the type of declaration: the class/interface itself, or the type a variable or method is declared with.
+     */
+    public TypeCheckToken get(Declaration declaration) {
+      boolean isArray = !(declaration instanceof ClassDeclaration || declaration instanceof InterfaceDeclaration) &&
+        declaration.type.isArray();
+      return get(declaration, isArray);
+    }
+
+    /**
+     * Returns the type of declaration, or of an array of it if isArray is set.
+     */
+    public TypeCheckToken get(Declaration declaration, boolean isArray) {
+      TokenType type = null;
+      if (declaration instanceof ClassDeclaration || declaration instanceof InterfaceDeclaration) {
+        type = TokenType.OBJECT;
+      } else if (declaration.type.isPrimitiveType()) {
+        return of(declaration.type.getType().getTokenType(), isArray);
+      } else if (declaration.type.isReferenceType()) {
+        type = TokenType.OBJECT;
+      }
+
+      TypeCheckToken[] declarationTypes = types.get(declaration);
+      if (declarationTypes == null) {
+        declarationTypes = new TypeCheckToken[2];
+        types.put(declaration, declarationTypes);
       }
+      int dimension = isArray ? 1 : 0;
+      if (declarationTypes[dimension] == null) {
+        declarationTypes[dimension] = new TypeCheckToken(type, isArray, declaration, null, false);
+      }
+      return declarationTypes[dimension];
     }
-  }
 
-  public TypeCheckToken (Declaration token, boolean isArray) {
-    this(token);
-    this.isArray = isArray;
+    /**
+     * Returns the type of the elements of arrayType, an array of a declaration or of a primitive type.
+     */
+    public TypeCheckToken getElementType(TypeCheckToken arrayType) {
+      return arrayType.declaration != null ? get(arrayType.declaration, false) : of(arrayType.tokenType);
+    }
   }
 
   public String getAbsolutePath() {
@@ -3,6 +3,7 @@ package visitor;
 import exception.TypeCheckingVisitorException;
 import exception.TypeHierarchyException;
 import exception.VisitorException;
+import symbol.SymbolKind;
 import symbol.SymbolTable;
 import token.*;
 import type.hierarchy.HierarchyGraph;
@@ -10,7 +11,17 @@ import type.hierarchy.HierarchyGraphNode;
 import type.hierarchy.Method;
 
 import java.util.*;
-
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Type checks the classes of the program.
+ * <p/>
+ * Once the SymbolTable and the HierarchyGraph are built they are only read here, so units are checked concurrently on
+ * a fork/join pool, by one visitor per worker thread. When several units fail, the error of the first one in the
+ * order of the units is reported, as with a sequential run.
+ */
 public class TypeCheckingVisitor extends BaseVisitor {
   private enum OperandSide {LEFT, RIGHT};
   private final String STRING_CLASS_PATH = "java.lang.String";
@@ -21,6 +32,15 @@ public class TypeCheckingVisitor extends BaseVisitor {
   private final SymbolTable symbolTable;
   private final Map<CompilationUnit, HierarchyGraphNode> compilationUnitToNode;
   private final HierarchyGraph hierarchyGraph;
+  private final int parallelism;
+  private final ThreadLocal<TypeCheckingVisitor> workers = new ThreadLocal<TypeCheckingVisitor>() {
+    @Override
+    protected TypeCheckingVisitor initialValue() {
+      return new TypeCheckingVisitor(symbolTable, hierarchyGraph, compilationUnitToNode, 1);
+    }
+  };
+  // Types of the declarations met by this visitor, a worker has its own.
+  private final TypeCheckToken.Table types = new TypeCheckToken.Table();
   public Stack<TypeCheckToken> tokenStack;
   public Stack<TypeCheckToken> returnCallStack;
   private HierarchyGraphNode node;
@@ -29,28 +49,81 @@ public class TypeCheckingVisitor extends BaseVisitor {
   private boolean explicitThisUsedInContext;
 
   public TypeCheckingVisitor(SymbolTable symbolTable, HierarchyGraph hierarchyGraph, Map<CompilationUnit, HierarchyGraphNode> compilationUnitToNode) {
+    this(symbolTable, hierarchyGraph, compilationUnitToNode, Runtime.getRuntime().availableProcessors());
+  }
+
+  public TypeCheckingVisitor(SymbolTable symbolTable, HierarchyGraph hierarchyGraph, Map<CompilationUnit, HierarchyGraphNode> compilationUnitToNode, int parallelism) {
     this.symbolTable = symbolTable;
     this.compilationUnitToNode = compilationUnitToNode;
     this.hierarchyGraph = hierarchyGraph;
+    this.parallelism = parallelism;
     explicitThisUsedInContext = false;
   }
 
   public void typeCheckUnits(List<CompilationUnit> units) throws VisitorException {
-    for(CompilationUnit unit : units) {
-      explicitThisUsedInContext = false;
-      // we don't need to type check interfaces
-      if (unit.typeDeclaration.classDeclaration == null) {
-        continue;
+    if (parallelism <= 1 || units.size() <= 1) {
+      for (CompilationUnit unit : units) {
+        typeCheckUnit(unit);
       }
+      return;
+    }
+
+    final Exception[] failures = new Exception[units.size()];
+    // Units after the first failure are skipped, their result would not be reported anyway.
+    final AtomicInteger firstFailure = new AtomicInteger(Integer.MAX_VALUE);
+    final List<RecursiveAction> tasks = new ArrayList<RecursiveAction>(units.size());
+    for (int i = 0; i < units.size(); ++i) {
+      final int index = i;
+      final CompilationUnit unit = units.get(i);
+      tasks.add(new RecursiveAction() {
+        @Override
+        protected void compute() {
+          if (index > firstFailure.get()) return;
+          try {
+            workers.get().typeCheckUnit(unit);
+          } catch (Exception e) {
+            failures[index] = e;
+            for (int failure = firstFailure.get(); index < failure; failure = firstFailure.get()) {
+              if (firstFailure.compareAndSet(failure, index)) break;
+            }
+          }
+        }
+      });
+    }
+
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      pool.invoke(new RecursiveAction() {
+        @Override
+        protected void compute() {
+          invokeAll(tasks);
+        }
+      });
+    } finally {
+      pool.shutdown();
+    }
 
-      tokenStack = new Stack<TypeCheckToken>();
-      returnCallStack = new Stack<TypeCheckToken>();
-      this.unit = unit;
-      this.node = compilationUnitToNode.get(unit);
-      unit.accept(this);
+    if (firstFailure.get() != Integer.MAX_VALUE) {
+      Exception failure = failures[firstFailure.get()];
+      if (failure instanceof VisitorException) throw (VisitorException) failure;
+      throw (RuntimeException) failure;
     }
   }
 
+  private void typeCheckUnit(CompilationUnit unit) throws VisitorException {
+    explicitThisUsedInContext = false;
+    // we don't need to type check interfaces
+    if (unit.typeDeclaration.classDeclaration == null) {
+      return;
+    }
+
+    tokenStack = new Stack<TypeCheckToken>();
+    returnCallStack = new Stack<TypeCheckToken>();
+    this.unit = unit;
+    this.node = compilationUnitToNode.get(unit);
+    unit.accept(this);
+  }
+
   @Override
   public void visit(Literal token) throws VisitorException {
     super.visit(token);
@@ -59,21 +132,22 @@ public class TypeCheckingVisitor extends BaseVisitor {
     TypeCheckToken literalToken = null;
     switch (literal.getTokenType()) {
       case STR_LITERAL:
-        literalToken = createStringToken();
+        literalToken = TypeCheckToken.STRING;
         break;
       case INT_LITERAL:
-        literalToken = new TypeCheckToken(TokenType.INT);
         if(!literal.getLexeme().startsWith("-"))
-          literalToken.isPositiveIntLiteral = true;
+          literalToken = TypeCheckToken.POSITIVE_INT_LITERAL;
+        else
+          literalToken = TypeCheckToken.of(TokenType.INT);
         break;
       case BooleanLiteral:
-        literalToken = new TypeCheckToken(TokenType.BOOLEAN);
+        literalToken = TypeCheckToken.of(TokenType.BOOLEAN);
         break;
       case CHAR_LITERAL:
-        literalToken = new TypeCheckToken(TokenType.CHAR);
+        literalToken = TypeCheckToken.of(TokenType.CHAR);
         break;
       case NULL:
-        literalToken = new TypeCheckToken(TokenType.NULL);
+        literalToken = TypeCheckToken.of(TokenType.NULL);
         break;
       default:
         throw new TypeCheckingVisitorException("Unexpected literal: " + token.getLexeme() + " of type " + token.getTokenType(), token);
@@ -89,7 +163,7 @@ public class TypeCheckingVisitor extends BaseVisitor {
     TypeCheckToken type1 = tokenStack.pop();
     TypeCheckToken type2 = tokenStack.pop();
     if(type1.tokenType == TokenType.BOOLEAN && type2.tokenType == TokenType.BOOLEAN && !type1.isArray && !type2.isArray) {
-      tokenStack.push(new TypeCheckToken(TokenType.BOOLEAN));
+      tokenStack.push(TypeCheckToken.of(TokenType.BOOLEAN));
     } else {
       throw new TypeCheckingVisitorException("Boolean OR expression expected boolean || boolean but found " + type1.tokenType.toString() + " || " + type2.tokenType.toString(), token);
     }
@@ -103,7 +177,7 @@ public class TypeCheckingVisitor extends BaseVisitor {
     TypeCheckToken type1 = tokenStack.pop();
     TypeCheckToken type2 = tokenStack.pop();
     if(type1.tokenType == TokenType.BOOLEAN && type2.tokenType == TokenType.BOOLEAN && !type1.isArray && !type2.isArray) {
-      tokenStack.push(new TypeCheckToken(TokenType.BOOLEAN));
+      tokenStack.push(TypeCheckToken.of(TokenType.BOOLEAN));
     } else {
       throw new TypeCheckingVisitorException("Boolean AND expression expected boolean && boolean but found " + type1.tokenType.toString() + " && " + type2.tokenType.toString(), token);
     }
@@ -117,7 +191,7 @@ public class TypeCheckingVisitor extends BaseVisitor {
     TypeCheckToken type1 = tokenStack.pop();
     TypeCheckToken type2 = tokenStack.pop();
     if(type1.tokenType == TokenType.BOOLEAN && type2.tokenType == TokenType.BOOLEAN && !type1.isArray && !type2.isArray) {
-      tokenStack.push(new TypeCheckToken(TokenType.BOOLEAN));
+      tokenStack.push(TypeCheckToken.of(TokenType.BOOLEAN));
     } else {
       throw new TypeCheckingVisitorException("Boolean OR expression expected boolean | boolean but found " + type1.tokenType.toString() + " | " + type2.tokenType.toString(), token);
     }
@@ -131,7 +205,7 @@ public class TypeCheckingVisitor extends BaseVisitor {
     TokenType type1 = tokenStack.pop().tokenType;
     TokenType type2 = tokenStack.pop().tokenType;
     if(type1 == TokenType.BOOLEAN && type2 == TokenType.BOOLEAN) {
-      tokenStack.push(new TypeCheckToken(TokenType.BOOLEAN));
+      tokenStack.push(TypeCheckToken.of(TokenType.BOOLEAN));
     } else {
       throw new TypeCheckingVisitorException("Boolean OR expression expected boolean & boolean but found " + type1.toString() + " & " + type2.toString(), token);
     }
@@ -150,14 +224,14 @@ public class TypeCheckingVisitor extends BaseVisitor {
 
     try {
       if(rightSide.isArray == leftSide.isArray && validType(rightSide.tokenType, validTypes) && rightSide.tokenType == leftSide.tokenType) {
-        tokenStack.push(new TypeCheckToken(TokenType.BOOLEAN));
+        tokenStack.push(TypeCheckToken.of(TokenType.BOOLEAN));
       } else if(validTypes(leftSide.tokenType, rightSide.tokenType, validUnaryExpressionTypes)) {
-        tokenStack.push(new TypeCheckToken(TokenType.BOOLEAN));
+        tokenStack.push(TypeCheckToken.of(TokenType.BOOLEAN));
       } else if(rightSide.isArray == leftSide.isArray && rightSide.tokenType == TokenType.OBJECT && leftSide.tokenType == TokenType.OBJECT &&
               (leftSide.getAbsolutePath().equals(rightSide.getAbsolutePath()) || hierarchyGraph.areNodesConnected(rightSide.getAbsolutePath(), leftSide.getAbsolutePath()))) {
-        tokenStack.push(new TypeCheckToken(TokenType.BOOLEAN));
+        tokenStack.push(TypeCheckToken.of(TokenType.BOOLEAN));
       } else if (leftSide.tokenType == TokenType.OBJECT && rightSide.tokenType == TokenType.NULL) {
-        tokenStack.push(new TypeCheckToken(TokenType.BOOLEAN));
+        tokenStack.push(TypeCheckToken.of(TokenType.BOOLEAN));
       } else {
         throw new TypeCheckingVisitorException("Boolean Equality expression expected both of same inherited type but found " + rightSide.toString() + " & " + leftSide.toString(), token);
       }
@@ -188,13 +262,13 @@ public class TypeCheckingVisitor extends BaseVisitor {
 
       try {
         if (typeLeftSide.isArray && referenceIsArray && validType(typeLeftSide.tokenType, validTypes) && typeLeftSide.tokenType == referenceType) {
-          tokenStack.push(new TypeCheckToken(TokenType.BOOLEAN));
+          tokenStack.push(TypeCheckToken.of(TokenType.BOOLEAN));
         } else if(isWideningReferenceConversion(referenceType, referenceAbsolutePath, referenceIsArray,
                 typeLeftSide.tokenType, typeLeftSide.getAbsolutePath(), typeLeftSide.isArray)) {
-          tokenStack.push(new TypeCheckToken(TokenType.BOOLEAN));
+          tokenStack.push(TypeCheckToken.of(TokenType.BOOLEAN));
         } else if(isWideningReferenceConversion(typeLeftSide.tokenType, typeLeftSide.getAbsolutePath(), typeLeftSide.isArray,
                 referenceType, referenceAbsolutePath, referenceIsArray)) {
-          tokenStack.push(new TypeCheckToken(TokenType.BOOLEAN));
+          tokenStack.push(TypeCheckToken.of(TokenType.BOOLEAN));
         } else {
           throw new TypeCheckingVisitorException("InstanceOf expression expected Array|Object instanceOf Array|Object of subtypes but found of " +
                   typeLeftSide + " instanceOf " + referenceType + " " + referenceAbsolutePath + " " + referenceIsArray , token);
@@ -204,8 +278,7 @@ public class TypeCheckingVisitor extends BaseVisitor {
       }
 
       if(reference.isReferenceType()) {
-        Declaration determinedNameDecl = determineDeclaration(token.referenceType.getReferenceName(), new Class[]{ClassDeclaration.class,
-                                                                                                                  InterfaceDeclaration.class});
+        Declaration determinedNameDecl = determineDeclaration(token.referenceType.getReferenceName(), SymbolKind.TYPES);
         reference.getReferenceName().setDeterminedDeclaration(determinedNameDecl);
       }
     } else {
@@ -218,7 +291,7 @@ public class TypeCheckingVisitor extends BaseVisitor {
       }
       assertNotArray(token, rightType, OperandSide.RIGHT, token.children.get(1).getLexeme());
       assertNotArray(token, leftType, OperandSide.LEFT, token.children.get(1).getLexeme());
-      tokenStack.push(new TypeCheckToken(TokenType.BOOLEAN));
+      tokenStack.push(TypeCheckToken.of(TokenType.BOOLEAN));
     }
   }
 
@@ -241,7 +314,7 @@ public class TypeCheckingVisitor extends BaseVisitor {
       assertNotArray(token, leftSide, OperandSide.LEFT, token.children.get(1).getLexeme());
 
       if (validTypes(leftSide.tokenType, rightSide.tokenType, validMinusPlusTypes)) {
-        tokenStack.push(new TypeCheckToken(TokenType.INT));
+        tokenStack.push(TypeCheckToken.of(TokenType.INT));
       } else {
         throw new TypeCheckingVisitorException("AdditiveExpression expected 'short|int|byte|char - short|int|byte|char but found " + leftSide + " - " + rightSide, token);
       }
@@ -249,12 +322,12 @@ public class TypeCheckingVisitor extends BaseVisitor {
       TokenType[] validStringConcatTypes = {TokenType.SHORT, TokenType.INT, TokenType.BYTE, TokenType.CHAR, TokenType.NULL, TokenType.BOOLEAN, TokenType.OBJECT};
       if (!leftSide.isArray && leftSide.tokenType == TokenType.OBJECT && leftSide.getAbsolutePath().equals(STRING_CLASS_PATH) && validType(rightSide.tokenType, validStringConcatTypes) ||
         !rightSide.isArray && rightSide.tokenType == TokenType.OBJECT && rightSide.getAbsolutePath().equals(STRING_CLASS_PATH) && validType(leftSide.tokenType, validStringConcatTypes)) {
-        tokenStack.push(createStringToken());
+        tokenStack.push(TypeCheckToken.STRING);
       } else if (validTypes(leftSide.tokenType, rightSide.tokenType, validMinusPlusTypes)) {
         assertNotArray(token, rightSide, OperandSide.RIGHT, token.children.get(1).getLexeme());
         assertNotArray(token, leftSide, OperandSide.LEFT, token.children.get(1).getLexeme());
 
-        tokenStack.push(new TypeCheckToken(TokenType.INT));
+        tokenStack.push(TypeCheckToken.of(TokenType.INT));
       } else {
         throw new TypeCheckingVisitorException("String concatenation found invalid types " + leftSide + " + " + rightSide, token);
       }
@@ -274,7 +347,7 @@ public class TypeCheckingVisitor extends BaseVisitor {
 
     TokenType[]  validUnaryExpressionTypes = {TokenType.SHORT, TokenType.INT, TokenType.BYTE, TokenType.CHAR};
     if (validTypes(leftSide.tokenType, rightSide.tokenType, validUnaryExpressionTypes)) {
-      tokenStack.push(new TypeCheckToken(TokenType.INT));
+      tokenStack.push(TypeCheckToken.of(TokenType.INT));
     } else {
       throw new TypeCheckingVisitorException("Expected short|int|byte|char " + token.children.get(1).getLexeme() +
         " short|int|byte|char' but found " + leftSide + " " + token.children.get(1).getLexeme() +
@@ -305,7 +378,8 @@ public class TypeCheckingVisitor extends BaseVisitor {
           String value = literal.getLiteral().getLexeme();
           literal.getLiteral().setLexeme("-" + value);
           literal.setLexeme("-" + value);
-          typeCheck.isPositiveIntLiteral = false;
+          tokenStack.pop();
+          tokenStack.push(TypeCheckToken.of(TokenType.INT));
         }
       }
     }
@@ -326,8 +400,7 @@ public class TypeCheckingVisitor extends BaseVisitor {
               typeLeftSide.isPrimitiveType() && typeRightSide.isPrimitiveType() &&
               isWideningPrimitiveConversion(typeRightSide.tokenType, typeLeftSide.tokenType)) {
         tokenStack.push(typeLeftSide);
-      } else if(isWideningReferenceConversion(typeRightSide.tokenType, typeRightSide.getAbsolutePath(), typeRightSide.isArray,
-                                              typeLeftSide.tokenType, typeLeftSide.getAbsolutePath(), typeLeftSide.isArray)) {
+      } else if(isWideningReferenceConversion(typeRightSide, typeLeftSide)) {
         tokenStack.push(typeLeftSide);
       } else {
         throw new TypeCheckingVisitorException("Assignment should be of same type or from parent to subclass.  Found: " + typeRightSide.toString() + " being assigned to "  + typeLeftSide.toString(), token);
@@ -352,9 +425,7 @@ public class TypeCheckingVisitor extends BaseVisitor {
 
       // Only determine declarations on fields and not Classes which only occur in casts
       // The latter scenario will be handled in the cast
-      Declaration determinedDecl = determineDeclaration(name, new Class[] {FormalParameter.class,
-                                                                           FieldDeclaration.class,
-                                                                           LocalVariableDeclaration.class});
+      Declaration determinedDecl = determineDeclaration(name, SymbolKind.VARIABLES);
 
 
 
@@ -420,7 +491,7 @@ public class TypeCheckingVisitor extends BaseVisitor {
 
         if(determinedDecl.type.isArray() && originalPathArr[originalPathArr.length - 1].equals("length") &&
                 originalPathArr[originalPathArr.length - 2].equals(determinedAbsolutePathArr[determinedAbsolutePathArr.length - 1])) {
-          tokenStack.push(new TypeCheckToken(TokenType.INT));
+          tokenStack.push(TypeCheckToken.of(TokenType.INT));
           //TODO: test this out
           name.setDeterminedDeclaration(null);
 
@@ -428,7 +499,7 @@ public class TypeCheckingVisitor extends BaseVisitor {
           throw new TypeCheckingVisitorException("Accessing undefined variable found: " + determinedAbsolutePath + " but had " + originalPath, token);
         }
       } else {
-        tokenStack.push(new TypeCheckToken(determinedDecl));
+        tokenStack.push(types.get(determinedDecl));
         name.setDeterminedDeclaration(determinedDecl);
       }
     } else if(token.children.size() == 2) {
@@ -537,11 +608,11 @@ public class TypeCheckingVisitor extends BaseVisitor {
 
     String [] nameParts = name.getLexeme().split("\\.");
     String constructor = name.getAbsolutePath() + "." + nameParts[nameParts.length - 1];
-    List<Token> matchingDeclarations = symbolTable.findWithPrefixOfAnyType(constructor, new Class [] {ConstructorDeclaration.class});
+    List<Token> matchingDeclarations = symbolTable.findWithPrefixOfAnyKind(constructor, SymbolKind.CONSTRUCTOR.mask);
     Declaration constructorDeclaration = matchCall(matchingDeclarations, false, arguments, name);
     name.setDeterminedDeclaration(constructorDeclaration);
 
-    Declaration classDecl = determineDeclaration(name, new Class[]{ClassDeclaration.class});
+    Declaration classDecl = determineDeclaration(name, SymbolKind.CLASS.mask);
 
     HierarchyGraphNode parent = hierarchyGraph.get(classDecl.getAbsolutePath());
     if (!parent.getFullname().equals(node.getFullname()) &&
@@ -554,7 +625,7 @@ public class TypeCheckingVisitor extends BaseVisitor {
         node.getFullname(), token);
     }
 
-    tokenStack.push(new TypeCheckToken(classDecl));
+    tokenStack.push(types.get(classDecl));
   }
 
   @Override
@@ -630,14 +701,12 @@ public class TypeCheckingVisitor extends BaseVisitor {
     if (token.name != null) {
       Name name = token.name;
 
-      Declaration determinedDecalaration = determineDeclaration(name, new Class[] {FormalParameter.class,
-                                                                                   FieldDeclaration.class,
-                                                                                   LocalVariableDeclaration.class});
+      Declaration determinedDecalaration = determineDeclaration(name, SymbolKind.VARIABLES);
       if(!determinedDecalaration.type.isArray()) {
         throw new TypeCheckingVisitorException("Trying to dereference an array with an index: name=" + name.getLexeme(), token);
       }
 
-      tokenStack.push(new TypeCheckToken(determinedDecalaration, false));
+      tokenStack.push(types.get(determinedDecalaration, false));
       name.setDeterminedDeclaration(determinedDecalaration);
     } else {
       TypeCheckToken primaryAccess = tokenStack.pop();
@@ -647,8 +716,7 @@ public class TypeCheckingVisitor extends BaseVisitor {
         throw new TypeCheckingVisitorException("Trying to dereference an array with an index: name=" + primaryAccess.tokenType, token);
       }
 
-      primaryAccess.isArray = false;
-      tokenStack.push(primaryAccess);
+      tokenStack.push(types.getElementType(primaryAccess));
     }
   }
 
@@ -662,10 +730,10 @@ public class TypeCheckingVisitor extends BaseVisitor {
     }
 
     if(token.isPrimitiveType()) {
-      tokenStack.push(new TypeCheckToken(token.primitiveType.getType().getTokenType(), true));
+      tokenStack.push(TypeCheckToken.of(token.primitiveType.getType().getTokenType(), true));
     } else {
-      Declaration determined = determineDeclaration(token.name, new Class[] {ClassDeclaration.class});
-      tokenStack.push(new TypeCheckToken(determined, true));
+      Declaration determined = determineDeclaration(token.name, SymbolKind.CLASS.mask);
+      tokenStack.push(types.get(determined, true));
       token.name.setDeterminedDeclaration(determined);
     }
   }
@@ -678,7 +746,7 @@ public class TypeCheckingVisitor extends BaseVisitor {
 
     if (firstIdentifier.isArray) {
       if (token.identifier.getLexeme().equals("length")) {
-        tokenStack.push(new TypeCheckToken(TokenType.INT));
+        tokenStack.push(TypeCheckToken.of(TokenType.INT));
         return;
       } else {
         throw new TypeCheckingVisitorException("Invalid array field access for field: " + token.identifier.getLexeme(), token);
@@ -689,20 +757,12 @@ public class TypeCheckingVisitor extends BaseVisitor {
       throw new TypeCheckingVisitorException("Expected object when calling field " + token.identifier.getLexeme() + " but found " + firstIdentifier.tokenType, token);
     }
 
-    List<Token> potentialFields = new ArrayList<Token>();
-    List<FieldDeclaration> allFields = hierarchyGraph.get(firstIdentifier.getAbsolutePath()).getAllFields();
-    for (Iterator<FieldDeclaration> it = allFields.listIterator(); it.hasNext(); ) {
-      FieldDeclaration field = it.next();
-      if(field.identifier.getLexeme().equals(token.identifier.getLexeme())) {
-        potentialFields.add(field);
-      }
-    }
-
-    if (potentialFields.isEmpty()) {
+    FieldDeclaration field = hierarchyGraph.get(firstIdentifier.getAbsolutePath()).getField(token.identifier.getLexeme());
+    if (field == null) {
       throw new TypeCheckingVisitorException("No field could be resolved for field: " + token.identifier.getLexeme(), token);
     }
-    tokenStack.push(new TypeCheckToken((Declaration)potentialFields.get(0)));
-    token.setDeterminedDeclaration((Declaration)potentialFields.get(0));
+    tokenStack.push(types.get(field));
+    token.setDeterminedDeclaration(field);
   }
 
   @Override
@@ -711,9 +771,7 @@ public class TypeCheckingVisitor extends BaseVisitor {
     if(token.children.get(0).getTokenType() == TokenType.Name) {
       Name name = (Name) token.children.get(0);
 
-      Declaration determinedDecl = determineDeclaration(name, new Class[] {LocalVariableDeclaration.class,
-                                                                           FieldDeclaration.class,
-                                                                           FormalParameter.class});
+      Declaration determinedDecl = determineDeclaration(name, SymbolKind.VARIABLES);
 
       if (determinedDecl instanceof FieldDeclaration) {
         Declaration clazz = symbolTable.getClass(determinedDecl);
@@ -748,7 +806,7 @@ public class TypeCheckingVisitor extends BaseVisitor {
           }
         }
       }
-      tokenStack.push(new TypeCheckToken(determinedDecl));
+      tokenStack.push(types.get(determinedDecl));
       name.setDeterminedDeclaration(determinedDecl);
     }
   }
@@ -761,26 +819,23 @@ public class TypeCheckingVisitor extends BaseVisitor {
 
     TypeCheckToken cast = null;
     if(token.isName()) {
-      Declaration determinedNameDecl = determineDeclaration(token.name, new Class[]{ClassDeclaration.class,
-                                                                                    InterfaceDeclaration.class});
-      cast = new TypeCheckToken(determinedNameDecl, token.isArrayCast());
+      Declaration determinedNameDecl = determineDeclaration(token.name, SymbolKind.TYPES);
+      cast = types.get(determinedNameDecl, token.isArrayCast());
       token.name.setDeterminedDeclaration(determinedNameDecl);
     } else if(token.isArrayCast()) {
-      cast = new TypeCheckToken(token.primitiveType.getType().getTokenType(), token.isArrayCast());
+      cast = TypeCheckToken.of(token.primitiveType.getType().getTokenType(), token.isArrayCast());
     }
 
     try {
       if (tokenToCast.isArray == token.isArrayCast() && tokenToCast.isPrimitiveType() && token.isPrimitiveType() && tokenToCast.tokenType == token.primitiveType.getType().getTokenType()) {
-        tokenStack.push(new TypeCheckToken(token.primitiveType.getType().getTokenType(), token.isArrayCast()));
+        tokenStack.push(TypeCheckToken.of(token.primitiveType.getType().getTokenType(), token.isArrayCast()));
       } else if (!tokenToCast.isArray && !token.isArrayCast() && tokenToCast.isPrimitiveType() && token.isPrimitiveType() &&
               (isWideningPrimitiveConversion(tokenToCast.tokenType, token.primitiveType.getType().getTokenType()) ||
                       isNarrowingPrimitiveConversion(tokenToCast.tokenType, token.primitiveType.getType().getTokenType()))) {
-        tokenStack.push(new TypeCheckToken(token.primitiveType.getType().getTokenType(), token.isArrayCast()));
-      } else if(cast != null && isWideningReferenceConversion(cast.tokenType, cast.getAbsolutePath(), cast.isArray,
-              tokenToCast.tokenType, tokenToCast.getAbsolutePath(), tokenToCast.isArray)) {
+        tokenStack.push(TypeCheckToken.of(token.primitiveType.getType().getTokenType(), token.isArrayCast()));
+      } else if(cast != null && isWideningReferenceConversion(cast, tokenToCast)) {
         tokenStack.push(cast);
-      } else if(cast != null && isWideningReferenceConversion(tokenToCast.tokenType, tokenToCast.getAbsolutePath(), tokenToCast.isArray,
-              cast.tokenType, cast.getAbsolutePath(), cast.isArray)) {
+      } else if(cast != null && isWideningReferenceConversion(tokenToCast, cast)) {
         tokenStack.push(cast);
       } else {
         throw new TypeCheckingVisitorException("Not castable types: "  + token.toString() + " and " + tokenToCast.toString(), token);
@@ -796,7 +851,7 @@ public class TypeCheckingVisitor extends BaseVisitor {
 
     if (token.children.get(0).getTokenType() == TokenType.THIS) {
       explicitThisUsedInContext = true;
-      tokenStack.push(new TypeCheckToken((unit.typeDeclaration.getDeclaration())));
+      tokenStack.push(types.get(unit.typeDeclaration.getDeclaration()));
     }
   }
 
@@ -821,18 +876,15 @@ public class TypeCheckingVisitor extends BaseVisitor {
       }
 
       matchingDeclarations = new ArrayList<Token>();
-      List<BaseMethodDeclaration> allMethods = hierarchyGraph.get(primary.getAbsolutePath()).getAllMethods();
-
-      for (Iterator<BaseMethodDeclaration> it = allMethods.listIterator(); it.hasNext(); ) {
-        BaseMethodDeclaration method = it.next();
-        if(method instanceof MethodDeclaration && ((MethodDeclaration) method).methodHeader.identifier.getLexeme().equals(token.identifier.getLexeme())
-                || method instanceof AbstractMethodDeclaration && ((AbstractMethodDeclaration) method).methodHeader.identifier.getLexeme().equals(token.identifier.getLexeme())) {
+      List<BaseMethodDeclaration> methods = hierarchyGraph.get(primary.getAbsolutePath()).getMethods(token.identifier.getLexeme());
+      for (BaseMethodDeclaration method : methods) {
+        if (method instanceof MethodDeclaration || method instanceof AbstractMethodDeclaration) {
           matchingDeclarations.add(method);
         }
       }
     } else {
       Name name = (Name) token.name;
-      matchingDeclarations = getAllMatchinDeclarations(name, new Class [] {MethodDeclaration.class, AbstractMethodDeclaration.class});
+      matchingDeclarations = getAllMatchinDeclarations(name, SymbolKind.METHODS);
     }
 
     Declaration methodDeclaration = matchCall(matchingDeclarations, true, arguments, token.name == null ? token.identifier : token.name);
@@ -894,13 +946,12 @@ public class TypeCheckingVisitor extends BaseVisitor {
     }
 
     if(methodDeclaration.type == null) {
-      tokenStack.push(new TypeCheckToken(TokenType.VOID, false));
+      tokenStack.push(TypeCheckToken.of(TokenType.VOID, false));
     } else if(methodDeclaration.type.isPrimitiveType()) {
-      tokenStack.push(new TypeCheckToken(methodDeclaration.type.getType().getTokenType(), methodDeclaration.type.isArray()));
+      tokenStack.push(TypeCheckToken.of(methodDeclaration.type.getType().getTokenType(), methodDeclaration.type.isArray()));
     } else {
-      Declaration determinedDecl = determineDeclaration(methodDeclaration.type.getReferenceName(), new Class[] {ClassDeclaration.class,
-                                                                                                                InterfaceDeclaration.class});
-      tokenStack.push(new TypeCheckToken(determinedDecl, methodDeclaration.type.isArray()));
+      Declaration determinedDecl = determineDeclaration(methodDeclaration.type.getReferenceName(), SymbolKind.TYPES);
+      tokenStack.push(types.get(determinedDecl, methodDeclaration.type.isArray()));
     }
   }
 
@@ -931,7 +982,7 @@ public class TypeCheckingVisitor extends BaseVisitor {
       returnCallStack.push(expression);
     } else {
       // Push to indicate void return
-      returnCallStack.push(new TypeCheckToken(TokenType.VOID));
+      returnCallStack.push(TypeCheckToken.of(TokenType.VOID));
     }
   }
 
@@ -988,13 +1039,6 @@ public class TypeCheckingVisitor extends BaseVisitor {
     }
   }
 
-  private TypeCheckToken createStringToken() {
-    TypeCheckToken stringType = new TypeCheckToken(TokenType.OBJECT);
-    stringType.isArray = false;
-    stringType.absolutePath = "java.lang.String";
-    return stringType;
-  }
-
   private boolean isWideningPrimitiveConversion(TokenType from, TokenType to) {
     if(from == TokenType.BYTE) {
       return to == TokenType.INT | to == TokenType.SHORT;
@@ -1023,6 +1067,13 @@ public class TypeCheckingVisitor extends BaseVisitor {
     }
   }
 
+  private boolean isWideningReferenceConversion(TypeCheckToken from, TypeCheckToken to) throws TypeHierarchyException {
+    // Types of the same declaration are the same instance.
+    if (from == to && from.tokenType == TokenType.OBJECT) return true;
+    return isWideningReferenceConversion(from.tokenType, from.getAbsolutePath(), from.isArray,
+                                         to.tokenType, to.getAbsolutePath(), to.isArray);
+  }
+
   private boolean isWideningReferenceConversion(TokenType fromType, String fromAbsolutePath, boolean fromIsArray,
                                                 TokenType toType, String toAbsolutePath, boolean toIsArray) throws TypeHierarchyException {
     if (toIsArray == fromIsArray && toType == TokenType.OBJECT && fromType == TokenType.OBJECT &&
@@ -1068,14 +1119,13 @@ public class TypeCheckingVisitor extends BaseVisitor {
     return node.extendsList.get(0).isDefaultConstructorVisibleToChildren();
   }
 
-  private Declaration determineDeclaration(Name name, Class [] classes) throws VisitorException {
-    Set<Class> classSet = new HashSet<Class>(Arrays.asList(classes));
+  private Declaration determineDeclaration(Name name, int kinds) throws VisitorException {
     if(name.getDeclarationTypes() == null) {
       throw new TypeCheckingVisitorException("Found no declarations for " + name.getLexeme(), name);
     }
 
     for(Declaration declaration : name.getDeclarationTypes()) {
-      if(classSet.contains(declaration.getClass())) {
+      if(SymbolKind.isOfKind(declaration, kinds)) {
         return declaration;
       }
     }
@@ -1083,12 +1133,11 @@ public class TypeCheckingVisitor extends BaseVisitor {
     throw new TypeCheckingVisitorException("Can not determine declaration " + name.getLexeme(), name);
   }
 
-  private List<Token> getAllMatchinDeclarations(Name name, Class [] classes) throws VisitorException {
-    Set<Class> classSet = new HashSet<Class>(Arrays.asList(classes));
+  private List<Token> getAllMatchinDeclarations(Name name, int kinds) throws VisitorException {
 
     ArrayList<Token> declarations = new ArrayList<Token>();
     for(Declaration declaration : name.getDeclarationTypes()) {
-      if(classSet.contains(declaration.getClass())) {
+      if(SymbolKind.isOfKind(declaration, kinds)) {
         declarations.add(declaration);
       }
     }
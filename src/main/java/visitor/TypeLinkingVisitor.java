@@ -1,9 +1,12 @@
 package visitor;
 
+import algorithm.name.resolution.ImportEnvironment;
 import algorithm.name.resolution.NameResolutionAlgorithm;
+import algorithm.name.resolution.TypeResolutionCache;
 import exception.NameResolutionException;
 import exception.TypeLinkingVisitorException;
 import exception.VisitorException;
+import symbol.SymbolKind;
 import symbol.SymbolTable;
 import token.*;
 
@@ -18,16 +21,21 @@ public class TypeLinkingVisitor extends BaseVisitor {
   private NameResolutionAlgorithm algm;
 
   // Ongoing data structures per CompilationUnit
-  private ImportDeclarations importDeclarations;
+  private CompilationUnit unit;
   private TypeDeclaration typeDeclaration;
   private PackageDeclaration packageDeclaration;
 
   public TypeLinkingVisitor(SymbolTable table) {
+    this(table, new TypeResolutionCache());
+  }
+
+  public TypeLinkingVisitor(SymbolTable table, TypeResolutionCache typeResolutionCache) {
     this.table = table;
-    this.algm = new NameResolutionAlgorithm(table);
+    this.algm = new NameResolutionAlgorithm(table, typeResolutionCache);
   }
 
   public void typeLink(List<CompilationUnit> units) throws VisitorException {
+    ImportEnvironment.build(units);
     for (CompilationUnit unit : units) {
       unit.acceptReverse(this);
     }
@@ -39,14 +47,14 @@ public class TypeLinkingVisitor extends BaseVisitor {
     typeDeclaration = token.typeDeclaration;
 
     packageDeclaration = token.packageDeclaration;
-    importDeclarations = token.importDeclarations;
+    unit = token;
 
     if (packageDeclaration != null) {
       String[] packagePrefixes = token.packageDeclaration.getLexeme().split("\\.");
       StringBuilder sb = new StringBuilder();
       for (int i = 0; i < packagePrefixes.length; i++) {
         sb.append(packagePrefixes[i]);
-        if (i > 0 && table.containsAnyOfType(sb.toString(), NameResolutionAlgorithm.CLASS_TYPES)) {
+        if (i > 0 && table.containsAnyOfKind(sb.toString(), NameResolutionAlgorithm.CLASS_TYPES)) {
           throw new TypeLinkingVisitorException("Package name prefixes resolved to type", token);
         }
         sb.append('.');
@@ -67,7 +75,7 @@ public class TypeLinkingVisitor extends BaseVisitor {
           }
         }
         // Check to make sure on-demand package exists, or that it is a prefix of some package.
-        if (decl.isOnDemand() && !table.containsAnyPrefixOfType(decl.getLexeme(), new Class[]{PackageDeclaration.class})) {
+        if (decl.isOnDemand() && !table.containsAnyPrefixOfKind(decl.getLexeme(), SymbolKind.PACKAGE.mask)) {
           throw new TypeLinkingVisitorException("No on-demand package found for: " + decl.getLexeme(), token);
         }
         // Check for clashes between imports.
@@ -112,7 +120,7 @@ public class TypeLinkingVisitor extends BaseVisitor {
   private boolean resolveName(Name name) throws VisitorException {
     // Check if the type exists in the SymbolTable w.r.t to the package.
     try {
-      boolean result = algm.resolveType(name, packageDeclaration, typeDeclaration, importDeclarations);
+      boolean result = algm.resolveType(name, unit);
       return result;
     } catch (NameResolutionException e) {
       return false;
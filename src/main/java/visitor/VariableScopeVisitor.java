@@ -1,25 +1,37 @@
 package visitor;
 
 import exception.VisitorException;
-import symbol.SymbolTable;
+import symbol.LocalScope;
 import token.FieldDeclaration;
 import token.FormalParameter;
 import token.LocalVariableDeclaration;
 import token.Token;
+import token.TokenType;
+
+import java.util.LinkedList;
 
 /**
  * Keeps track of the { variableName -> Type } mapping w.r.t to scopes
  */
 public class VariableScopeVisitor extends BaseVisitor {
-  private SymbolTable variableTable;
+  private LocalScope localScope = LocalScope.EMPTY;
+  // Frames to go back to when leaving the scopes being visited.
+  private final LinkedList<LocalScope> enclosingScopes = new LinkedList<LocalScope>();
   protected FieldDeclaration fieldDeclaration = null;
 
-  public VariableScopeVisitor() {
-    variableTable = new SymbolTable();
+  /**
+   * Returns the variables in scope, the frame stays valid after the visitor moves on.
+   */
+  protected LocalScope getLocalScope() {
+    return localScope;
   }
 
-  protected SymbolTable getVariableTable() {
-    return variableTable;
+  /**
+   * Forgets the variables of the previous CompilationUnit.
+   */
+  protected void resetLocalScope() {
+    localScope = LocalScope.EMPTY;
+    enclosingScopes.clear();
   }
 
   @Override
@@ -31,28 +43,34 @@ public class VariableScopeVisitor extends BaseVisitor {
   @Override
   public void visit(FormalParameter token) throws VisitorException {
     super.visit(token);
-    variableTable.addDecl(token.getIdentifier(), token);
+    localScope = localScope.declare(token.getIdentifier(), token);
   }
 
   @Override
   public void visit(LocalVariableDeclaration token) throws VisitorException {
     super.visit(token);
-    variableTable.addDecl(token.getIdentifier(), token);
+    localScope = localScope.declare(token.getIdentifier(), token);
+  }
+
+  @Override
+  public void enterScope(Token owner) throws VisitorException {
+    super.enterScope(owner);
+    enclosingScopes.push(localScope);
+  }
+
+  @Override
+  public void exitScope(Token owner) throws VisitorException {
+    super.exitScope(owner);
+    localScope = enclosingScopes.pop();
   }
 
   @Override
   public void visit(Token token) throws VisitorException {
     super.visit(token);
-    if (token.getLexeme().equals("{")) {
-      variableTable.newScope();
-    } else if (token.getLexeme().equals("}")) {
-      variableTable.deleteScope();
-    } else if (token.getLexeme().equals(";") && fieldDeclaration != null) {
-      if (!variableTable.contains(fieldDeclaration.getAbsolutePath())) {
-        variableTable.addDecl(fieldDeclaration.getIdentifier(), fieldDeclaration);
-      }
+    // A field is in scope of the initializers of the fields that follow it.
+    if (fieldDeclaration != null && token.getTokenType() == TokenType.SEMI_COLON) {
+      localScope = localScope.declare(fieldDeclaration.getIdentifier(), fieldDeclaration);
       fieldDeclaration = null;
     }
   }
 }
-
@@ -286,4 +286,15 @@ public interface Visitor {
 
   public void visit(Token token) throws VisitorException;
 
+  /**
+   * Called before the children of a token that opens a variable scope: a Block, a ConstructorBody, a method or
+   * constructor (for its parameters), and a for or while statement.
+   */
+  public void enterScope(Token owner) throws VisitorException;
+
+  /**
+   * Called after the children of the token that opened the scope.
+   */
+  public void exitScope(Token owner) throws VisitorException;
+
 }
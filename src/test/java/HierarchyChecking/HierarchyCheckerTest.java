@@ -20,6 +20,8 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
 
+import static org.junit.Assert.assertEquals;
+
 public class HierarchyCheckerTest {
   private Lexer lexer;
   private ShiftReduceAlgorithm algm;
@@ -85,6 +87,10 @@ public class HierarchyCheckerTest {
   }
 
   private void testHierarchyChecking(String inputFile) throws IOException, CompilerException {
+    testHierarchyChecking(readClassNames(inputFile));
+  }
+
+  private List<String> readClassNames(String inputFile) throws IOException {
     BufferedReader br = new BufferedReader(new FileReader(inputFile));
     String line;
     List<String> classNames = new ArrayList<String>();
@@ -92,10 +98,37 @@ public class HierarchyCheckerTest {
       classNames.add(line);
     }
     br.close();
-    testHierarchyChecking(classNames);
+    return classNames;
+  }
+
+  @Test
+  public void testParallelMatchesSequential() throws CompilerException, IOException {
+    for (String testsFolder : new String[]{"src/test/resources/HierarchyChecking/ValidTests",
+      "src/test/resources/HierarchyChecking/InvalidTests"}) {
+      for (File file : new File(testsFolder).listFiles()) {
+        List<String> classNames = readClassNames(file.getAbsolutePath());
+        assertEquals(file.getName(), verify(classNames, 1), verify(classNames, 4));
+      }
+    }
+  }
+
+  /**
+   * Returns the error found, or null.
+   */
+  private String verify(List<String> classNames, int parallelism) throws IOException {
+    try {
+      new HierarchyChecker(buildGraph(classNames), parallelism).verifyHierarchyGraph();
+      return null;
+    } catch (CompilerException e) {
+      return e.getClass().getSimpleName() + ": " + e.getMessage();
+    }
   }
 
   private void testHierarchyChecking(List<String> classNames) throws IOException, CompilerException {
+    new HierarchyChecker(buildGraph(classNames)).verifyHierarchyGraph();
+  }
+
+  private HierarchyGraph buildGraph(List<String> classNames) throws IOException, CompilerException {
     List<CompilationUnit> compilationUnits = new ArrayList<CompilationUnit>(classNames.size());
     // 1. Phase 1: Construct the AST per CompilationUnit (per class), and do basic static checks.
     for (String className : classNames) {
@@ -110,7 +143,6 @@ public class HierarchyCheckerTest {
     }
 
     CompilationUnitsToHierarchyGraphConverter converter = new CompilationUnitsToHierarchyGraphConverter();
-    HierarchyGraph graph = converter.convert(compilationUnits);
-    HierarchyChecker.verifyHierarchyGraph(graph);
+    return converter.convert(compilationUnits);
   }
 }
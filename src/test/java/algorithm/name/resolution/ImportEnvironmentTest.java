@@ -0,0 +1,67 @@
+package algorithm.name.resolution;
+
+import exception.CompilerException;
+import org.junit.Test;
+import token.CompilationUnit;
+import util.CompilationUnitGenerator;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the names visible from a CompilationUnit through its package and imports.
+ */
+public class ImportEnvironmentTest {
+
+  @Test
+  public void testRepeatedOnDemandImportsAreNotAmbiguous() throws IOException, CompilerException {
+    ImportEnvironment environment = buildLast("src/test/resources/type_linking/J1_importName9.java");
+    assertFalse(environment.isAmbiguous("PrintStream"));
+    assertEquals("java.io.PrintStream", environment.getOnDemandType("PrintStream").getAbsolutePath());
+    assertFalse(environment.isAmbiguous("String"));
+    assertEquals("java.lang.String", environment.getOnDemandType("String").getAbsolutePath());
+    assertNull(environment.getOnDemandType("Arrays"));
+    assertEquals("J1_importName9", environment.getPackageType("J1_importName9").getAbsolutePath());
+    assertNull(environment.getPackageType("String"));
+  }
+
+  @Test
+  public void testClashWithImplicitImportIsAmbiguous() throws IOException, CompilerException {
+    String directory = "src/test/resources/type_linking/Je_3_ImportOnDemand_ClashWithImplicitImport/";
+    ImportEnvironment environment = buildLast(directory + "Integer.java", directory + "Main.java");
+    assertTrue(environment.isAmbiguous("Integer"));
+    assertNull(environment.getOnDemandType("Integer"));
+    assertFalse(environment.isAmbiguous("Object"));
+  }
+
+  @Test
+  public void testSingleTypeImports() throws IOException, CompilerException {
+    String directory = "src/test/resources/type_linking/J1_3_SingleTypeImport_ClashWithOnDemand/";
+    ImportEnvironment environment = buildLast(directory + "foo/List/Bar.java", directory + "java/util/Collection.java",
+        directory + "java/util/List.java", directory + "Main.java");
+    assertEquals("java.util.List", environment.getSingleTypeImport("List").getAbsolutePath());
+    assertNull(environment.getSingleTypeImport("Collection"));
+  }
+
+  @Test
+  public void testImportOfPackageIsNotASingleTypeImport() throws IOException, CompilerException {
+    String directory = "src/test/resources/type_linking/J1_4_PackageNameIsClassName_DefaultPackage/";
+    ImportEnvironment environment = buildLast(directory + "bar/bar.java", directory + "foo/baz.java",
+        directory + "foo.java", directory + "Main.java");
+    assertNull(environment.getSingleTypeImport("bar"));
+    assertEquals("bar.bar", environment.getOnDemandType("bar").getAbsolutePath());
+  }
+
+  private static ImportEnvironment buildLast(String... files) throws IOException, CompilerException {
+    List<String> paths = CompilationUnitGenerator.getStdlibFiles();
+    paths.addAll(Arrays.asList(files));
+    List<CompilationUnit> units = CompilationUnitGenerator.makeUpToImports(paths);
+    return units.get(units.size() - 1).importEnvironment;
+  }
+}
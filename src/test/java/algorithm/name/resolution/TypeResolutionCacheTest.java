@@ -0,0 +1,59 @@
+package algorithm.name.resolution;
+
+import exception.CompilerException;
+import org.junit.Test;
+import token.CompilationUnit;
+import util.CompilationUnitGenerator;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that simple type names are resolved once per CompilationUnit.
+ */
+public class TypeResolutionCacheTest {
+
+  @Test
+  public void testResolvesOncePerUnit() throws IOException, CompilerException {
+    String directory = "src/test/resources/type_linking/J1_4_PackageNameIsClassName_DefaultPackage/";
+    List<String> files = CompilationUnitGenerator.getStdlibFiles();
+    files.addAll(Arrays.asList(directory + "Main.java", directory + "foo.java", directory + "bar/bar.java",
+        directory + "foo/baz.java"));
+    List<CompilationUnit> units = CompilationUnitGenerator.makeUpToImports(files);
+    CompilationUnit main = units.get(units.size() - 4);
+    CompilationUnit bar = units.get(units.size() - 2);
+    TypeResolutionCache cache = new TypeResolutionCache();
+
+    TypeResolutionCache.Resolution resolution = cache.resolve(main, "bar");
+    // The on-demand import bar.* does not name a type called bar.
+    assertEquals("bar.bar", resolution.type.getAbsolutePath());
+    assertSame(resolution, cache.resolve(main, "bar"));
+    assertEquals("Main", cache.resolve(main, "Main").type.getAbsolutePath());
+    assertEquals("java.lang.String", cache.resolve(main, "String").type.getAbsolutePath());
+    assertNull(cache.resolve(main, "baz").type);
+    assertEquals("foo.baz", cache.resolve(bar, "baz").type.getAbsolutePath());
+    assertEquals(1, cache.getHits());
+    assertEquals(5, cache.getMisses());
+  }
+
+  @Test
+  public void testCachesAmbiguity() throws IOException, CompilerException {
+    String directory = "src/test/resources/type_linking/Je_3_ImportOnDemand_ClashWithImplicitImport/";
+    List<String> files = CompilationUnitGenerator.getStdlibFiles();
+    files.addAll(Arrays.asList(directory + "Integer.java", directory + "Main.java"));
+    List<CompilationUnit> units = CompilationUnitGenerator.makeUpToImports(files);
+    TypeResolutionCache cache = new TypeResolutionCache();
+    CompilationUnit main = units.get(units.size() - 1);
+    assertTrue(cache.resolve(main, "Integer").ambiguous);
+    assertTrue(cache.resolve(main, "Integer").ambiguous);
+    assertFalse(cache.resolve(main, "Object").ambiguous);
+    assertEquals(1, cache.getHits());
+  }
+}
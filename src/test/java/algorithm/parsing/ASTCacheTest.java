@@ -0,0 +1,137 @@
+package algorithm.parsing;
+
+import algorithm.parsing.lr.ParseTable;
+import algorithm.parsing.lr.ShiftReduceAlgorithm;
+import exception.CompilerException;
+import lexer.Lexer;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import symbol.SymbolPool;
+import token.CompilationUnit;
+import token.Token;
+import util.CompilationUnitGenerator;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests that cached units are the same trees as the parsed ones, and that stale entries are misses.
+ */
+public class ASTCacheTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private ParseTable parseTable;
+  private ShiftReduceAlgorithm parser;
+  private Lexer lexer;
+  private SymbolPool pool;
+
+  @Before
+  public void setUp() throws IOException, CompilerException {
+    parseTable = ParseTable.readBinary(new File(ShiftReduceAlgorithm.DEFAULT_LR1_BINARY_FILE));
+    parser = new ShiftReduceAlgorithm(parseTable);
+    pool = new SymbolPool();
+    lexer = new Lexer(Lexer.Mode.TABLE, pool);
+  }
+
+  @Test
+  public void testLoadsSameTreeAsParse() throws IOException, CompilerException {
+    ASTCache cache = new ASTCache(folder.getRoot(), parseTable.getChecksum(), pool);
+    List<String> files = CompilationUnitGenerator.getStdlibFiles();
+    files.add("src/test/resources/ast_input1");
+    for (String file : files) {
+      ByteBuffer source = Lexer.readSource(new File(file));
+      assertNull(cache.load(source));
+      CompilationUnit parsed = parse(source);
+      cache.store(source, parsed);
+
+      CompilationUnit loaded = cache.load(source);
+      assertNotNull(file, loaded);
+      assertEquals(file, describe(parse(source)), describe(loaded));
+    }
+    assertEquals(files.size(), cache.getHits());
+    assertEquals(files.size(), cache.getMisses());
+  }
+
+  @Test
+  public void testInternsIdentifiers() throws IOException, CompilerException {
+    ASTCache cache = new ASTCache(folder.getRoot(), parseTable.getChecksum(), pool);
+    ByteBuffer source = Lexer.readSource(new File("src/test/resources/ast_input1"));
+    cache.store(source, parse(source));
+    CompilationUnit loaded = cache.load(source);
+    String className = loaded.typeDeclaration.getDeclaration().getLexeme();
+    assertSame(pool.intern(className), className);
+  }
+
+  @Test
+  public void testOtherParseTableMisses() throws IOException, CompilerException {
+    ByteBuffer source = Lexer.readSource(new File("src/test/resources/ast_input1"));
+    new ASTCache(folder.getRoot(), parseTable.getChecksum(), pool).store(source, parse(source));
+    ASTCache cache = new ASTCache(folder.getRoot(), parseTable.getChecksum() + 1, pool);
+    assertNull(cache.load(source));
+    assertEquals(1, cache.getMisses());
+  }
+
+  @Test
+  public void testCorruptEntryMisses() throws IOException, CompilerException {
+    ASTCache cache = new ASTCache(folder.getRoot(), parseTable.getChecksum(), pool);
+    ByteBuffer source = Lexer.readSource(new File("src/test/resources/ast_input1"));
+    cache.store(source, parse(source));
+    for (File entry : folder.getRoot().listFiles()) {
+      byte[] bytes = Files.readAllBytes(entry.toPath());
+      FileOutputStream output = new FileOutputStream(entry);
+      output.write(bytes, 0, bytes.length / 2);
+      output.close();
+    }
+    assertNull(cache.load(source));
+  }
+
+  @Test
+  public void testFrontEndUsesCache() throws IOException, CompilerException {
+    List<String> files = CompilationUnitGenerator.getStdlibFiles();
+    FrontEnd frontEnd = new FrontEnd(parser, pool, 4);
+    ASTCache cache = new ASTCache(folder.getRoot(), parseTable.getChecksum(), pool);
+    frontEnd.setASTCache(cache);
+    List<CompilationUnit> parsed = frontEnd.process(files);
+    List<CompilationUnit> loaded = frontEnd.process(files);
+    assertEquals(files.size(), cache.getMisses());
+    assertEquals(files.size(), cache.getHits());
+    for (int i = 0; i < files.size(); ++i) {
+      assertEquals(describe(parsed.get(i)), describe(loaded.get(i)));
+    }
+  }
+
+  private CompilationUnit parse(ByteBuffer source) throws CompilerException {
+    parser.reset();
+    return parser.constructAST(lexer.tokenize(source));
+  }
+
+  private static String describe(Token token) {
+    StringBuilder builder = new StringBuilder();
+    describe(token, builder);
+    return builder.toString();
+  }
+
+  private static void describe(Token token, StringBuilder builder) {
+    builder.append('(').append(token.getClass().getSimpleName()).append(' ').append(token.getTokenType())
+        .append(' ').append(token.getLexeme()).append(' ').append(token.getLineNumber()).append(':')
+        .append(token.getTokenStartPosition());
+    if (token.children != null) {
+      for (Token child : token.children) {
+        describe(child, builder);
+      }
+    }
+    builder.append(')');
+  }
+}
@@ -0,0 +1,77 @@
+package algorithm.parsing;
+
+import algorithm.parsing.lr.ParseTable;
+import algorithm.parsing.lr.ShiftReduceAlgorithm;
+import exception.CompilerException;
+import org.junit.Before;
+import org.junit.Test;
+import symbol.SymbolPool;
+import token.CompilationUnit;
+import util.CompilationUnitGenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests that the parallel front end behaves like a sequential run.
+ */
+public class FrontEndTest {
+  private ShiftReduceAlgorithm parser;
+
+  @Before
+  public void setUp() throws IOException, CompilerException {
+    parser = new ShiftReduceAlgorithm(ParseTable.readBinary(new File(ShiftReduceAlgorithm.DEFAULT_LR1_BINARY_FILE)));
+  }
+
+  @Test
+  public void testKeepsFileOrder() throws IOException, CompilerException {
+    List<String> files = CompilationUnitGenerator.getStdlibFiles();
+    List<CompilationUnit> sequential = new FrontEnd(parser, new SymbolPool(), 1).process(files);
+    List<CompilationUnit> parallel = new FrontEnd(parser, new SymbolPool(), 4).process(files);
+    assertEquals(files.size(), parallel.size());
+    for (int i = 0; i < files.size(); ++i) {
+      String className = new File(files.get(i)).getName().replace(".java", "");
+      assertEquals(className, parallel.get(i).typeDeclaration.getDeclaration().getLexeme());
+      assertEquals(sequential.get(i).typeDeclaration.getDeclaration().getLexeme(), parallel.get(i).typeDeclaration.getDeclaration().getLexeme());
+    }
+  }
+
+  @Test
+  public void testSharesSymbolPool() throws IOException, CompilerException {
+    SymbolPool pool = new SymbolPool();
+    List<CompilationUnit> units = new FrontEnd(parser, pool, 4).process(CompilationUnitGenerator.getStdlibFiles());
+    for (CompilationUnit unit : units) {
+      assertSame(pool.intern(unit.typeDeclaration.getDeclaration().getLexeme()), unit.typeDeclaration.getDeclaration().getLexeme());
+    }
+  }
+
+  @Test
+  public void testReportsFirstFailureInFileOrder() throws IOException, CompilerException {
+    List<String> files = new ArrayList<String>(CompilationUnitGenerator.getStdlibFiles());
+    String invalid = "src/test/resources/JoosSpecificationTests/invalid/";
+    files.add(3, invalid + "NestedType.txt");
+    files.add(invalid + "MultipleType.txt");
+
+    String expected = null;
+    try {
+      new FrontEnd(parser, new SymbolPool(), 1).process(files);
+      fail("Expected " + files.get(3) + " to fail");
+    } catch (CompilerException e) {
+      expected = e.getMessage();
+    }
+    for (int i = 0; i < 5; ++i) {
+      try {
+        new FrontEnd(parser, new SymbolPool(), 4).process(files);
+        fail("Expected " + files.get(3) + " to fail");
+      } catch (CompilerException e) {
+        assertEquals(expected, e.getMessage());
+      }
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package algorithm.parsing.lr;
+
+import exception.MachineException;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+/**
+ * Start-up benchmark comparing the .LR1 text loader with the binary table, both up to a ready ShiftReduceAlgorithm.
+ * Not run as part of the test suite, run the main method from the repository root.
+ */
+public class ParseTableBenchmark {
+  private static final int ITERATIONS = 50;
+
+  public static void main(String[] args) throws IOException, MachineException {
+    // The first load is what a single compiler invocation pays for, it also pays for class loading so pass "binary"
+    // to measure the binary loader first.
+    boolean binaryFirst = args.length > 0 && args[0].equals("binary");
+    long coldBinary = binaryFirst ? loadBinary() : 0;
+    long coldText = loadText();
+    if (!binaryFirst) {
+      coldBinary = loadBinary();
+    }
+
+    long text = 0, binary = 0;
+    for (int i = 0; i < ITERATIONS; ++i) {
+      text += loadText();
+      binary += loadBinary();
+    }
+    System.out.printf("cold:  text %.2f ms, binary %.2f ms%n", coldText / 1e6, coldBinary / 1e6);
+    System.out.printf("warm:  text %.2f ms, binary %.2f ms (average of %d)%n",
+        text / 1e6 / ITERATIONS, binary / 1e6 / ITERATIONS, ITERATIONS);
+  }
+
+  private static long loadText() throws IOException, MachineException {
+    long start = System.nanoTime();
+    InputStreamReader reader =
+        new InputStreamReader(new FileInputStream(ShiftReduceAlgorithm.DEFAULT_LR1_FILE), "US-ASCII");
+    new ShiftReduceAlgorithm(reader);
+    reader.close();
+    return System.nanoTime() - start;
+  }
+
+  private static long loadBinary() throws IOException, MachineException {
+    long start = System.nanoTime();
+    new ShiftReduceAlgorithm(ParseTable.readBinary(new File(ShiftReduceAlgorithm.DEFAULT_LR1_BINARY_FILE)));
+    return System.nanoTime() - start;
+  }
+}
@@ -0,0 +1,63 @@
+package algorithm.parsing.lr;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that the binary LR(1) table is equivalent to the .LR1 text file.
+ */
+public class ParseTableTest {
+  private ParseTable textTable;
+
+  @Before
+  public void setUp() throws IOException {
+    textTable = ParseTable.readText(
+        new InputStreamReader(new FileInputStream(ShiftReduceAlgorithm.DEFAULT_LR1_FILE), "US-ASCII"));
+  }
+
+  @Test
+  public void testBinaryFileMatchesText() throws IOException {
+    ParseTable binaryTable = ParseTable.readBinary(new File(ShiftReduceAlgorithm.DEFAULT_LR1_BINARY_FILE));
+    assertEquals(textTable, binaryTable);
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    File file = File.createTempFile("output", ".lr1.bin");
+    file.deleteOnExit();
+    FileOutputStream outputStream = new FileOutputStream(file);
+    textTable.writeBinary(outputStream);
+    outputStream.close();
+    assertEquals(textTable, ParseTable.readBinary(file));
+  }
+
+  @Test
+  public void testBinaryIsSmallerThanText() throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    textTable.writeBinary(outputStream);
+    assertTrue(outputStream.size() < new File(ShiftReduceAlgorithm.DEFAULT_LR1_FILE).length());
+  }
+
+  @Test
+  public void testTransitions() {
+    assertEquals(1040, textTable.getNumStates());
+    assertEquals(15065, textTable.getNumTransitions());
+    assertEquals(218, textTable.getProductionRules().size());
+    // First transition in output.lr1: "224 || reduce 15"
+    assertEquals(224, textTable.getTransitionState(0));
+    assertEquals("||", textTable.getTransitionSymbol(0));
+    assertFalse(textTable.isShift(0));
+    assertEquals(15, textTable.getTransitionTarget(0));
+  }
+}
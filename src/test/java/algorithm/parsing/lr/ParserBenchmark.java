@@ -0,0 +1,72 @@
+package algorithm.parsing.lr;
+
+import exception.CompilerException;
+import lexer.Lexer;
+import token.Token;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Parser throughput benchmark, reports tokens per second for ShiftReduceAlgorithm.constructAST over the valid Joos
+ * specification tests and the stdlib. Lexing is done once up-front so that only the LR machine is measured.
+ * Not run as part of the test suite, run the main method from the repository root.
+ */
+public class ParserBenchmark {
+  private static final int WARMUP_ROUNDS = 20;
+  private static final int ROUNDS = 50;
+
+  public static void main(String[] args) throws IOException, CompilerException {
+    Lexer lexer = new Lexer(Lexer.Mode.TABLE);
+    List<ArrayList<Token>> files = new ArrayList<ArrayList<Token>>();
+    long numTokens = 0;
+    for (File file : getFiles("src/test/resources/JoosSpecificationTests/valid", "src/test/resources/stdlib")) {
+      ArrayList<Token> tokens = lexer.parse(file);
+      files.add(tokens);
+      numTokens += tokens.size();
+    }
+
+    ShiftReduceAlgorithm algorithm =
+        new ShiftReduceAlgorithm(ParseTable.readBinary(new File(ShiftReduceAlgorithm.DEFAULT_LR1_BINARY_FILE)));
+    for (int i = 0; i < WARMUP_ROUNDS; ++i) {
+      parseAll(algorithm, files);
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < ROUNDS; ++i) {
+      parseAll(algorithm, files);
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.printf("%d files, %d tokens per round: %.0f tokens/s%n", files.size(), numTokens,
+        numTokens * ROUNDS / seconds);
+  }
+
+  private static void parseAll(ShiftReduceAlgorithm algorithm, List<ArrayList<Token>> files)
+      throws CompilerException {
+    for (ArrayList<Token> tokens : files) {
+      algorithm.reset();
+      algorithm.constructAST(tokens);
+    }
+  }
+
+  private static List<File> getFiles(String... roots) {
+    List<File> files = new ArrayList<File>();
+    Queue<File> folders = new LinkedList<File>();
+    for (String root : roots) {
+      folders.add(new File(root));
+    }
+    while (!folders.isEmpty()) {
+      for (File file : folders.poll().listFiles()) {
+        if (file.isDirectory()) {
+          folders.add(file);
+        } else {
+          files.add(file);
+        }
+      }
+    }
+    return files;
+  }
+}
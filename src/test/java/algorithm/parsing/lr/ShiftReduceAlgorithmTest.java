@@ -15,6 +15,7 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.Queue;
@@ -96,6 +97,22 @@ public class ShiftReduceAlgorithmTest {
     }
   }
 
+  @Test
+  public void testStreamedTokensMatchTokenList() throws IOException, LexerException, MachineException,
+      VisitorException {
+    Lexer tableLexer = new Lexer(Lexer.Mode.TABLE);
+    CompilationUnit unit = algm.constructAST(tableLexer.tokenize(new File("src/test/resources/ast_input1")));
+    assertFalse(unit == null);
+    unit.accept(new GenericCheckVisitor("PositiveTest"));
+  }
+
+  @Test(expected = MachineException.class)
+  public void testStreamStopsAtFirstParseError() throws IOException, LexerException, MachineException {
+    // The parse error comes before the non-ASCII character, which is never lexed.
+    byte[] source = "public class A { int int } \u00e9".getBytes("UTF-8");
+    algm.constructAST(new Lexer(Lexer.Mode.TABLE).tokenize(ByteBuffer.wrap(source)));
+  }
+
   private void testASTConstruction(String inputFile) throws IOException, LexerException, MachineException, VisitorException {
     testASTConstruction(inputFile, new File(inputFile).getName().replaceFirst("[.][^.]+$", ""));
 
@@ -0,0 +1,108 @@
+package algorithm.trie;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests prefix queries over qualified names.
+ */
+public class SegmentTrieTest {
+  private SegmentTrie<String, String> trie;
+
+  @Before
+  public void setUp() {
+    trie = new SegmentTrie<String, String>(null);
+    for (String key : new String[]{"java.lang.Object", "java.lang.String", "java.lang.String.concat", "java.io",
+        "java.language.Foo", "Main"}) {
+      trie.insert(key, key);
+    }
+  }
+
+  @Test
+  public void testPrefixMatchesWholeSegments() {
+    assertEquals(Arrays.asList("java.lang.Object", "java.lang.String", "java.lang.String.concat"),
+        find("java.lang"));
+    assertEquals(find("java.lang"), find("java.lang."));
+    assertEquals(Arrays.asList("java.language.Foo"), find("java.language"));
+    assertEquals(Collections.<String>emptyList(), find("java.lan"));
+    assertEquals(6, find(".").size());
+  }
+
+  @Test
+  public void testContainsPrefix() {
+    assertTrue(trie.containsPrefix("java"));
+    assertTrue(trie.containsPrefix("java.io"));
+    assertTrue(trie.containsPrefix("Main"));
+    assertFalse(trie.containsPrefix("java.io.File"));
+    assertFalse(trie.containsPrefix("jav"));
+  }
+
+  @Test
+  public void testRemove() {
+    trie.remove("java.lang.String");
+    assertEquals(Arrays.asList("java.lang.Object", "java.lang.String.concat"), find("java.lang"));
+    assertTrue(trie.containsPrefix("java.lang.String"));
+    trie.remove("java.lang.String.concat");
+    assertFalse(trie.containsPrefix("java.lang.String"));
+    trie.remove("java.io");
+    trie.remove("java.io");
+    assertFalse(trie.containsPrefix("java.io"));
+    assertTrue(trie.containsPrefix("java"));
+  }
+
+  @Test
+  public void testSplitMatchesRegex() {
+    for (String name : new String[]{"", ".", "a", "a.b", "a..b", ".a", "a.", "a.b..", "..."}) {
+      assertArrayEquals(name, name.split("\\."), SegmentTrie.split(name));
+    }
+  }
+
+  @Test
+  public void testOrdersByKey() {
+    trie.insert("java.lang.String$1", "java.lang.String$1");
+    trie.insert("java.lang.Integer", "java.lang.Integer");
+    assertEquals(Arrays.asList("java.lang.Integer", "java.lang.Object", "java.lang.String", "java.lang.String$1",
+        "java.lang.String.concat"), find("java.lang"));
+    SegmentTrie<String, String> reversed = new SegmentTrie<String, String>(Collections.reverseOrder());
+    reversed.insert("a.x", "x");
+    reversed.insert("a.y", "y");
+    assertEquals(Arrays.asList("y", "x"), reversed.findWithPrefix("a"));
+  }
+
+  @Test
+  public void testKinds() {
+    SegmentTrie<String, String> kinds = new SegmentTrie<String, String>(null);
+    kinds.insert("a.A", "type", 1);
+    kinds.insert("a.A.f", "field", 2);
+    kinds.insert("a.b.B", "type", 1);
+    assertEquals(Arrays.asList("type", "type"), kinds.findWithPrefix("a", 1));
+    assertEquals(Arrays.asList("field"), kinds.findWithPrefix("a", 2));
+    assertEquals(Arrays.asList("type", "field", "type"), kinds.findWithPrefix("a", 3));
+    assertFalse(kinds.containsPrefix("a.b", 2));
+
+    kinds.setKinds("a.b.B", 3);
+    assertTrue(kinds.containsPrefix("a.b", 2));
+    assertEquals(Arrays.asList("field", "type"), kinds.findWithPrefix("a", 2));
+    kinds.setKinds("a.b.B", 1);
+    assertFalse(kinds.containsPrefix("a.b", 2));
+    assertEquals(Arrays.asList("field"), kinds.findWithPrefix("a", 2));
+
+    kinds.remove("a.A.f");
+    assertFalse(kinds.containsPrefix("a", 2));
+    assertTrue(kinds.containsPrefix("a.A", 1));
+    assertEquals(Collections.<String>emptyList(), kinds.findWithPrefix("a.A", 2));
+  }
+
+  private List<String> find(String prefix) {
+    return trie.findWithPrefix(prefix);
+  }
+}
@@ -0,0 +1,72 @@
+package dfa;
+
+import org.junit.Before;
+import org.junit.Test;
+import token.TokenType;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Basic tests for the CombinedDFA transition table.
+ */
+public class CombinedDFATest {
+  private CombinedDFA dfa;
+
+  @Before
+  public void setUp() {
+    dfa = CombinedDFA.getInstance();
+  }
+
+  @Test
+  public void testDeadStateIsAbsorbing() {
+    for (int c = 0; c < CombinedDFA.ASCII_SIZE; ++c) {
+      assertEquals(CombinedDFA.DEAD_STATE, dfa.getTransitions()[CombinedDFA.DEAD_STATE][c]);
+    }
+    assertNull(dfa.getAcceptTypes()[CombinedDFA.DEAD_STATE]);
+    assertNull(dfa.getAcceptTypes()[CombinedDFA.START_STATE]);
+  }
+
+  @Test
+  public void testReservedWordsTakePrecedence() {
+    for (int i = 0; i < TokenType.RESERVED_LENGTH.ordinal(); ++i) {
+      TokenType type = TokenType.values()[i];
+      if (type == TokenType.COMMENT_STAR) continue;
+      assertEquals(type, run(type.toString()));
+    }
+  }
+
+  @Test
+  public void testAcceptTypes() {
+    assertEquals(TokenType.IDENTIFIER, run("publix"));
+    assertEquals(TokenType.IDENTIFIER, run("$a_1"));
+    assertEquals(TokenType.INT_LITERAL, run("0"));
+    assertEquals(TokenType.INT_LITERAL, run("1234"));
+    assertEquals(TokenType.STR_LITERAL, run("\"a\\377\\n\""));
+    assertEquals(TokenType.CHAR_LITERAL, run("'\\''"));
+    assertEquals(TokenType.COMMENT_STAR, run("/* */"));
+    assertEquals(TokenType.COMMENT_SLASH, run("// abc\r\n"));
+    assertNull(run("'ab"));
+    assertNull(run("\"abc"));
+  }
+
+  @Test
+  public void testRejectsInvalidPrefixes() {
+    assertEquals(CombinedDFA.DEAD_STATE, walk("01"));
+    assertEquals(CombinedDFA.DEAD_STATE, walk("1a"));
+    assertEquals(CombinedDFA.DEAD_STATE, walk("'ab"));
+    assertEquals(CombinedDFA.DEAD_STATE, walk("\"\\q"));
+  }
+
+  private int walk(String input) {
+    int state = CombinedDFA.START_STATE;
+    for (int i = 0; i < input.length(); ++i) {
+      state = dfa.getTransitions()[state][input.charAt(i)];
+    }
+    return state;
+  }
+
+  private TokenType run(String input) {
+    return dfa.getAcceptTypes()[walk(input)];
+  }
+}
@@ -4,24 +4,36 @@ import exception.LexerException;
 import org.junit.Before;
 import org.junit.Test;
 import token.Token;
+import token.TokenType;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.Queue;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
 
 /**
  * Unit tests for the Lexer
  */
 public class LexerTest {
   private Lexer lexer;
+  private Lexer tableLexer;
 
   @Before
   public void setUp() {
     lexer = new Lexer();
+    tableLexer = new Lexer(Lexer.Mode.TABLE);
   }
 
   @Test
@@ -46,4 +58,161 @@ public class LexerTest {
     }
 
   }
+
+  @Test
+  public void testTableMatchesDFAsOnInputs() throws IOException {
+    for (String file : new String[]{"src/test/resources/input1", "src/test/resources/input2",
+        "src/test/resources/ast_input1", "src/test/resources/ast_input2"}) {
+      assertSameTokens(file);
+    }
+  }
+
+  @Test
+  public void testTableMatchesDFAsOnJoosSpecification() throws IOException {
+    Queue<File> folders = new LinkedList<File>();
+    folders.add(new File("src/test/resources/JoosSpecificationTests"));
+    while (!folders.isEmpty()) {
+      for (File file : folders.poll().listFiles()) {
+        if (file.isDirectory()) {
+          folders.add(file);
+        } else {
+          assertSameTokens(file.getPath());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testTableMatchesDFAsOnEdgeCases() throws IOException {
+    String[] inputs = new String[]{
+        "'\\08' x", "\"\\377\\400\\8\"", "'\\'' '' 'ab'", "\"abc\\q\" y", "2147483648 2147483649", "0123",
+        "instanceof instanceo int interface", "/* a */ /* */ // x\r\ny", "a/**/b //", "!= != == = <= <", "\"unterminated",
+        "x = 'a", "array arrays \"\"", "$_a1 _ 9x"
+    };
+    for (String input : inputs) {
+      assertSameTokens(input, new ByteArrayInputStream(input.getBytes("US-ASCII")),
+          new ByteArrayInputStream(input.getBytes("US-ASCII")));
+    }
+  }
+
+  @Test
+  public void testTableInternsIdentifiers() throws IOException, LexerException {
+    String input = "int foo = foo + bar; bar = foo;";
+    ArrayList<Token> tokens = tableLexer.parse(input.getBytes("US-ASCII"));
+    assertSame(tokens.get(1).getLexeme(), tokens.get(3).getLexeme());
+    assertSame(tokens.get(5).getLexeme(), tokens.get(7).getLexeme());
+    assertSame(tokens.get(1).getLexeme(), tableLexer.getSymbolPool().intern("foo"));
+  }
+
+  @Test
+  public void testFileInputMatchesReaderInput() throws IOException, LexerException {
+    for (String file : new String[]{"src/test/resources/input2", "src/test/resources/ast_input1"}) {
+      ArrayList<Token> expected = tableLexer.parse(new InputStreamReader(new FileInputStream(file), "US-ASCII"));
+      ArrayList<Token> actual = tableLexer.parse(new File(file));
+      assertEquals(expected.size(), actual.size());
+      for (int i = 0; i < expected.size(); ++i) {
+        assertEquals(expected.get(i).getTokenType(), actual.get(i).getTokenType());
+        assertEquals(expected.get(i).getLexeme(), actual.get(i).getLexeme());
+        assertEquals(expected.get(i).getLineNumber(), actual.get(i).getLineNumber());
+        assertEquals(expected.get(i).getTokenStartPosition(), actual.get(i).getTokenStartPosition());
+      }
+    }
+  }
+
+  @Test
+  public void testByteInputRejectsNonAscii() throws IOException {
+    byte[] source = "int x;\n  int y\u00e9;".getBytes("UTF-8");
+    try {
+      tableLexer.parse(ByteBuffer.wrap(source));
+      fail("Expected non-ASCII input to be rejected");
+    } catch (LexerException e) {
+      assertEquals("Error: Out of ASCII range. Occurred at Line#: 2character: 8", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testTokenStreamLexesOnDemand() throws IOException, LexerException {
+    byte[] source = "int x;\n  int y\u00e9;".getBytes("UTF-8");
+    TokenStream stream = tableLexer.tokenize(ByteBuffer.wrap(source));
+    assertEquals(TokenType.INT, stream.nextToken().getTokenType());
+    assertEquals("x", stream.nextToken().getLexeme());
+    assertEquals(TokenType.SEMI_COLON, stream.nextToken().getTokenType());
+    assertEquals(TokenType.INT, stream.nextToken().getTokenType());
+    try {
+      stream.nextToken();
+      fail("Expected non-ASCII input to be rejected");
+    } catch (LexerException e) {
+      assertEquals("Error: Out of ASCII range. Occurred at Line#: 2character: 8", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testTokenStreamRepeatsEOF() throws IOException, LexerException {
+    TokenStream stream = tableLexer.tokenize(ByteBuffer.wrap("x".getBytes("US-ASCII")));
+    assertEquals(TokenType.IDENTIFIER, stream.nextToken().getTokenType());
+    Token eof = stream.nextToken();
+    assertEquals(TokenType.EOF, eof.getTokenType());
+    assertSame(eof, stream.nextToken());
+  }
+
+  @Test
+  public void testDfasModeParsesEverySource() throws IOException, LexerException {
+    String file = "src/test/resources/input2";
+    ArrayList<Token> expected = lexer.parse(new InputStreamReader(new FileInputStream(file), "US-ASCII"));
+    assertSameTokens(file, expected, lexer.parse(new File(file)));
+    assertSameTokens(file, expected, lexer.parse(Lexer.readSource(new File(file))));
+    try {
+      lexer.parse("int x;\n  int y\u00e9;".getBytes("UTF-8"));
+      fail("Expected non-ASCII input to be rejected");
+    } catch (LexerException e) {
+      assertEquals("Error: Out of ASCII range. Occurred at Line#: 2character: 8", e.getMessage());
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testDfasModeCannotStream() throws IOException {
+    lexer.tokenize(ByteBuffer.wrap("x".getBytes("US-ASCII")));
+  }
+
+  private void assertSameTokens(String file) throws IOException {
+    assertSameTokens(file, new FileInputStream(file), new FileInputStream(file));
+  }
+
+  private void assertSameTokens(String name, InputStream dfaInput, InputStream tableInput)
+      throws IOException {
+    ArrayList<Token> expected = null;
+    ArrayList<Token> actual = null;
+    LexerException expectedException = null;
+    LexerException actualException = null;
+    lexer.resetDFAs();
+    try {
+      expected = lexer.parse(new InputStreamReader(dfaInput, "US-ASCII"));
+    } catch (LexerException e) {
+      expectedException = e;
+    }
+    try {
+      actual = tableLexer.parse(new InputStreamReader(tableInput, "US-ASCII"));
+    } catch (LexerException e) {
+      actualException = e;
+    }
+
+    if (expectedException != null) {
+      assertNull(name, actual);
+      assertEquals(name, expectedException.getMessage(), actualException.getMessage());
+      return;
+    }
+    assertNull(name, actualException);
+    assertSameTokens(name, expected, actual);
+  }
+
+  private static void assertSameTokens(String name, ArrayList<Token> expected, ArrayList<Token> actual) {
+    assertEquals(name, expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); ++i) {
+      Token e = expected.get(i), a = actual.get(i);
+      assertEquals(name, e.getTokenType(), a.getTokenType());
+      assertEquals(name, e.getLexeme(), a.getLexeme());
+      assertEquals(name, e.getLineNumber(), a.getLineNumber());
+      assertEquals(name, e.getTokenStartPosition(), a.getTokenStartPosition());
+    }
+  }
 }
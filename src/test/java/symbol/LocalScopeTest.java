@@ -0,0 +1,47 @@
+package symbol;
+
+import org.junit.Test;
+import token.Declaration;
+import token.Token;
+import token.TokenType;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests that LocalScope frames are not changed by declaring variables on top of them.
+ */
+public class LocalScopeTest {
+
+  @Test
+  public void testDeclare() {
+    Declaration outerX = newDeclaration("x");
+    Declaration innerX = newDeclaration("x");
+    Declaration y = newDeclaration("y");
+
+    LocalScope outer = LocalScope.EMPTY.declare("x", outerX);
+    LocalScope inner = outer.declare("y", y).declare("x", innerX);
+    assertSame(innerX, inner.find("x"));
+    assertSame(y, inner.find("y"));
+    assertNull(inner.find("z"));
+
+    // The frame captured before the inner declarations still sees what it saw.
+    assertSame(outerX, outer.find("x"));
+    assertNull(outer.find("y"));
+    assertNull(LocalScope.EMPTY.find("x"));
+  }
+
+  @Test
+  public void testFindOfKind() {
+    Declaration x = newDeclaration("x");
+    LocalScope scope = LocalScope.EMPTY.declare("x", x);
+    assertSame(x, scope.findOfKind("x", SymbolKind.OTHER.mask));
+    assertNull(scope.findOfKind("x", SymbolKind.LOCAL.mask | SymbolKind.PARAMETER.mask));
+  }
+
+  private static Declaration newDeclaration(String name) {
+    return new Declaration(name, TokenType.ClassType, new ArrayList<Token>());
+  }
+}
@@ -0,0 +1,115 @@
+package symbol;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests the basic functionality of the SymbolPool.
+ */
+public class SymbolPoolTest {
+  private SymbolPool pool;
+
+  @Before
+  public void setUp() {
+    pool = new SymbolPool();
+  }
+
+  @Test
+  public void testInternFromSource() {
+    byte[] source = "foo bar foo".getBytes(StandardCharsets.US_ASCII);
+    String foo = pool.intern(source, 0, 3);
+    assertEquals("foo", foo);
+    assertSame(foo, pool.intern(source, 8, 3));
+    assertSame(foo, pool.intern(new String("foo")));
+    assertEquals("bar", pool.intern(source, 4, 3));
+    assertEquals(2, pool.size());
+  }
+
+  @Test
+  public void testInternString() {
+    String name = new String("java.lang.Object");
+    assertSame(name, pool.intern(name));
+    assertSame(name, pool.intern(new String("java.lang.Object")));
+    assertNotSame(name, pool.intern("java.lang.String"));
+  }
+
+  @Test
+  public void testGrow() {
+    String[] names = new String[5000];
+    for (int i = 0; i < names.length; ++i) {
+      names[i] = pool.intern("name" + i);
+    }
+    for (int i = 0; i < names.length; ++i) {
+      byte[] source = ("name" + i).getBytes(StandardCharsets.US_ASCII);
+      assertSame(names[i], pool.intern(source, 0, source.length));
+    }
+    assertEquals(names.length, pool.size());
+  }
+
+  @Test
+  public void testIds() {
+    assertEquals(-1, pool.lookup("foo"));
+    int foo = pool.id("foo");
+    int bar = pool.id("bar");
+    assertEquals(0, foo);
+    assertEquals(1, bar);
+    assertEquals(foo, pool.id(new String("foo")));
+    assertEquals(bar, pool.lookup("bar"));
+    assertSame(pool.intern("foo"), pool.getSymbol(foo));
+  }
+
+  @Test
+  public void testConcurrentInternAndLookup() throws InterruptedException {
+    final int names = 5000;
+    final String[][] interned = new String[4][names];
+    final CountDownLatch start = new CountDownLatch(1);
+    final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+    Thread[] threads = new Thread[interned.length];
+    for (int t = 0; t < threads.length; ++t) {
+      final int thread = t;
+      threads[t] = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            start.await();
+            // Each thread interns every name, from a different start, and looks up the ones it added.
+            for (int n = 0; n < names; ++n) {
+              int i = (n + thread * names / interned.length) % names;
+              byte[] source = ("name" + i).getBytes(StandardCharsets.US_ASCII);
+              interned[thread][i] = pool.intern(source, 0, source.length);
+              int id = pool.lookup("name" + i);
+              if (id < 0 || pool.getSymbol(id) != interned[thread][i]) {
+                throw new AssertionError("name" + i + " was not found after interning it");
+              }
+            }
+          } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+          }
+        }
+      });
+      threads[t].start();
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    if (failure.get() != null) {
+      throw new AssertionError(failure.get());
+    }
+    assertEquals(names, pool.size());
+    for (int i = 0; i < names; ++i) {
+      for (String[] threadInterned : interned) {
+        assertSame(interned[0][i], threadInterned[i]);
+      }
+      assertSame(interned[0][i], pool.getSymbol(pool.lookup("name" + i)));
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package symbol;
+
+import token.ClassDeclaration;
+import token.FieldDeclaration;
+import token.Token;
+import token.TokenType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resolves simple type names through on-demand imports against a synthetic classpath of 10k types, each with a few
+ * members, the way NameResolutionAlgorithm does, and compares with a scan over every key.
+ * Not run as part of the test suite, run the main method from the repository root.
+ */
+public class SymbolTableBenchmark {
+  private static final int PACKAGES = 100;
+  private static final int TYPES_PER_PACKAGE = 100;
+  private static final int MEMBERS_PER_TYPE = 6;
+  private static final int IMPORTS = 10;
+  private static final int LOOKUPS = 2000;
+  // Scanning is too slow to run for every lookup.
+  private static final int SCAN_LOOKUPS = 20;
+
+  public static void main(String[] args) {
+    SymbolTable table = new SymbolTable();
+    List<String> keys = new ArrayList<String>();
+    table.newScope();
+    for (int p = 0; p < PACKAGES; ++p) {
+      String pkg = "org.example.pkg" + p;
+      for (int t = 0; t < TYPES_PER_PACKAGE; ++t) {
+        String type = "Type" + t;
+        table.addDecl(pkg + "." + type, newClass(type));
+        keys.add(pkg + "." + type);
+        for (int m = 0; m < MEMBERS_PER_TYPE; ++m) {
+          table.addDecl(pkg + "." + type + ".member" + m, newField());
+          keys.add(pkg + "." + type + ".member" + m);
+        }
+      }
+    }
+    System.out.printf("%d types, %d symbols%n", PACKAGES * TYPES_PER_PACKAGE, keys.size());
+
+    // Warm up both paths.
+    resolve(table, LOOKUPS);
+    scan(keys, SCAN_LOOKUPS);
+
+    long start = System.nanoTime();
+    int resolved = resolve(table, LOOKUPS);
+    long indexed = System.nanoTime() - start;
+    start = System.nanoTime();
+    int scanned = scan(keys, SCAN_LOOKUPS);
+    long linear = System.nanoTime() - start;
+    System.out.printf("indexed: %.2f us per name (%d matches in %d lookups)%n",
+        indexed / 1e3 / LOOKUPS, resolved, LOOKUPS);
+    System.out.printf("scan:    %.2f us per name (%d matches in %d lookups)%n",
+        linear / 1e3 / SCAN_LOOKUPS, scanned, SCAN_LOOKUPS);
+  }
+
+  private static ClassDeclaration newClass(String name) {
+    ArrayList<Token> children = new ArrayList<Token>();
+    children.add(new Token(name, TokenType.IDENTIFIER));
+    return new ClassDeclaration(children);
+  }
+
+  private static FieldDeclaration newField() {
+    ArrayList<Token> children = new ArrayList<Token>();
+    children.add(new Token(";", TokenType.SEMI_COLON));
+    return new FieldDeclaration(children);
+  }
+
+  /**
+   * Each name is looked up in IMPORTS on-demand packages.
+   */
+  private static int resolve(SymbolTable table, int lookups) {
+    int matches = 0;
+    for (int i = 0; i < lookups; ++i) {
+      String name = "Type" + (i % TYPES_PER_PACKAGE);
+      for (int p = 0; p < IMPORTS; ++p) {
+        for (Token type : table.findWithPrefixOfAnyKind("org.example.pkg" + (p * 7 + i) % PACKAGES, SymbolKind.TYPES)) {
+          if (type.getLexeme().equals(name)) matches++;
+        }
+      }
+    }
+    return matches;
+  }
+
+  /**
+   * The previous implementation: split and compare every key against the prefix.
+   */
+  private static int scan(List<String> keys, int lookups) {
+    int matches = 0;
+    for (int i = 0; i < lookups; ++i) {
+      String name = "Type" + (i % TYPES_PER_PACKAGE);
+      for (int p = 0; p < IMPORTS; ++p) {
+        String[] prefixNames = ("org.example.pkg" + (p * 7 + i) % PACKAGES).split("\\.");
+        for (String key : keys) {
+          String[] keyNames = key.split("\\.");
+          if (keyNames.length != prefixNames.length + 1 || !keyNames[keyNames.length - 1].equals(name)) continue;
+          boolean matched = true;
+          for (int j = 0; j < prefixNames.length && matched; ++j) {
+            matched = prefixNames[j].equals(keyNames[j]);
+          }
+          if (matched) matches++;
+        }
+      }
+    }
+    return matches;
+  }
+}
@@ -0,0 +1,88 @@
+package symbol;
+
+import algorithm.parsing.lr.ParseTable;
+import algorithm.parsing.lr.ShiftReduceAlgorithm;
+import exception.CompilerException;
+import lexer.Lexer;
+import token.CompilationUnit;
+import util.CompilationUnitGenerator;
+import visitor.EnvironmentBuildingVisitor;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Reports the heap retained by the global scopes of the valid Joos specification tests, each built with the stdlib
+ * as Main does, and the time taken to build them.
+ * Not run as part of the test suite, run the main method from the repository root.
+ */
+public class SymbolTableMemoryBenchmark {
+  public static void main(String[] args) throws IOException, CompilerException {
+    Lexer lexer = new Lexer(Lexer.Mode.TABLE);
+    ShiftReduceAlgorithm algorithm =
+        new ShiftReduceAlgorithm(ParseTable.readBinary(new File(ShiftReduceAlgorithm.DEFAULT_LR1_BINARY_FILE)));
+    List<List<CompilationUnit>> programs = new ArrayList<List<CompilationUnit>>();
+    for (File file : getFiles("src/test/resources/JoosSpecificationTests/valid")) {
+      List<String> paths = CompilationUnitGenerator.getStdlibFiles();
+      paths.add(file.getPath());
+      List<CompilationUnit> units = new ArrayList<CompilationUnit>();
+      for (String path : paths) {
+        lexer.resetDFAs();
+        algorithm.reset();
+        units.add(algorithm.constructAST(lexer.parse(new File(path))));
+      }
+      programs.add(units);
+    }
+
+    // Shared by the tables as Main shares the pool of the front end, the ids of new names are still measured.
+    SymbolPool symbolPool = new SymbolPool();
+    long before = usedMemory();
+    long start = System.nanoTime();
+    List<SymbolTable> tables = new ArrayList<SymbolTable>();
+    int programsBuilt = 0;
+    for (List<CompilationUnit> units : programs) {
+      SymbolTable table = new SymbolTable(symbolPool);
+      try {
+        new EnvironmentBuildingVisitor(table).buildGlobalScope(units);
+        programsBuilt++;
+      } catch (CompilerException e) {
+        // Keep the partial scope, it is still retained by the table.
+      }
+      tables.add(table);
+    }
+    long elapsed = System.nanoTime() - start;
+    long retained = usedMemory() - before;
+    System.out.printf("%d programs (%d built without errors): %.1f KB retained per global scope, %.2f ms to build%n",
+        programs.size(), programsBuilt, retained / 1024.0 / tables.size(), elapsed / 1e6);
+  }
+
+  private static long usedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 5; ++i) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  private static List<File> getFiles(String... roots) {
+    List<File> files = new ArrayList<File>();
+    Queue<File> folders = new LinkedList<File>();
+    for (String root : roots) {
+      folders.add(new File(root));
+    }
+    while (!folders.isEmpty()) {
+      for (File file : folders.poll().listFiles()) {
+        if (file.isDirectory()) {
+          folders.add(file);
+        } else {
+          files.add(file);
+        }
+      }
+    }
+    return files;
+  }
+}
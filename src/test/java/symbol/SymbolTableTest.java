@@ -2,12 +2,17 @@ package symbol;
 
 import org.junit.Before;
 import org.junit.Test;
+import token.ClassDeclaration;
 import token.Declaration;
+import token.FieldDeclaration;
+import token.PackageDeclaration;
 import token.Token;
 import token.TokenType;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -66,4 +71,165 @@ public class SymbolTableTest {
     assertFalse(matches.contains(decl4));
   }
 
+  @Test
+  public void testPrefixDeclsKeepNameOrder() {
+    table.newScope();
+    String[] names = new String[]{"a.b.c", "a.b", "a.b$c", "a.bc", "a.b.a", "b.a"};
+    List<Declaration> decls = new ArrayList<Declaration>();
+    for (String name : names) {
+      Declaration decl = new Declaration(name, TokenType.ClassType, new ArrayList<Token>());
+      table.addDecl(name, decl);
+      decls.add(decl);
+    }
+    // Same order as the sorted names: a.b, a.b.a, a.b.c
+    List<Token> matches = table.findWithPrefix("a.b");
+    assertEquals(3, matches.size());
+    assertTrue(matches.get(0) == decls.get(1));
+    assertTrue(matches.get(1) == decls.get(4));
+    assertTrue(matches.get(2) == decls.get(0));
+
+    table.removeDecl("a.b", decls.get(1));
+    assertEquals(2, table.findWithPrefix("a.b").size());
+    assertTrue(table.containsPrefix("a.bc"));
+    assertFalse(table.containsPrefix("a.b.d"));
+  }
+
+  @Test
+  public void testKindLookups() {
+    table.newScope();
+    ClassDeclaration type = newClass("A");
+    FieldDeclaration field = newField();
+    table.addDecl("p.A", type);
+    table.addDecl("p.A.f", field);
+    table.addDecl("p.A.A", newField());
+    table.newScope();
+    ClassDeclaration inner = newClass("A");
+    table.addDecl("p.A.A", inner);
+
+    assertTrue(table.containsAnyOfKind("p.A", SymbolKind.TYPES));
+    assertFalse(table.containsAnyOfKind("p.A", SymbolKind.FIELD.mask));
+    assertTrue(table.findOfKind("p.A.A", SymbolKind.CLASS.mask) == inner);
+    assertTrue(table.findOfKind("p.A.f", SymbolKind.FIELD.mask | SymbolKind.LOCAL.mask) == field);
+    assertTrue(table.findOfKind("p.A.f", SymbolKind.METHODS) == null);
+
+    List<Token> types = table.findWithPrefixOfAnyKind("p", SymbolKind.TYPES);
+    assertEquals(2, types.size());
+    assertTrue(types.get(0) == inner);
+    assertTrue(types.get(1) == type);
+    assertEquals(2, table.findWithPrefixOfAnyKind("p.A", SymbolKind.FIELD.mask).size());
+    assertTrue(table.containsAnyPrefixOfKind("p.A", SymbolKind.FIELD.mask));
+    assertFalse(table.containsAnyPrefixOfKind("p", SymbolKind.PACKAGE.mask));
+
+    table.removeDecl("p.A.A", inner);
+    assertFalse(table.containsAnyOfKind("p.A.A", SymbolKind.CLASS.mask));
+    assertEquals(1, table.findWithPrefixOfAnyKind("p", SymbolKind.TYPES).size());
+  }
+
+  @Test
+  public void testScopeGrowsAndShrinks() {
+    table.newScope();
+    List<Declaration> decls = new ArrayList<Declaration>();
+    for (int i = 0; i < 1000; ++i) {
+      Declaration decl = new Declaration("d" + i, TokenType.ClassType, new ArrayList<Token>());
+      table.addDecl("d" + i, decl);
+      decls.add(decl);
+    }
+    // Keep one declaration so that the scope is not popped.
+    for (int i = 1; i < decls.size(); i += 2) {
+      table.removeDecl("d" + i, decls.get(i));
+    }
+    for (int i = 0; i < decls.size(); ++i) {
+      assertEquals(i % 2 == 0, table.contains("d" + i));
+      if (i % 2 == 0) assertTrue(table.find("d" + i).get(0) == decls.get(i));
+    }
+    assertFalse(table.contains("unknown"));
+    assertTrue(table.find("unknown").isEmpty());
+  }
+
+  @Test
+  public void testGetClassSkipsPackageOfSameName() {
+    table.newScope();
+    ArrayList<Token> children = new ArrayList<Token>();
+    children.add(new Token("package", TokenType.PACKAGE));
+    children.add(new Token("p", TokenType.IDENTIFIER));
+    table.addDecl("p", new PackageDeclaration(children));
+    ClassDeclaration type = newClass("p");
+    table.addDecl("p", type);
+    FieldDeclaration field = newField();
+    field.setAbsolutePath("p.f");
+    assertTrue(table.getClass(field) == type);
+  }
+
+  @Test
+  public void testConcurrentPrefixQueries() throws InterruptedException {
+    final int[] kinds = {SymbolKind.TYPES, SymbolKind.FIELD.mask, SymbolKind.CLASS.mask | SymbolKind.FIELD.mask,
+        SymbolKind.TYPES | SymbolKind.VARIABLES};
+    for (int round = 0; round < 500; ++round) {
+      final SymbolTable shared = new SymbolTable();
+      SymbolTable expected = new SymbolTable();
+      shared.newScope();
+      expected.newScope();
+      final List<String> prefixes = new ArrayList<String>();
+      for (int i = 0; i < 20; ++i) {
+        String type = "p" + (i % 5) + ".A" + i;
+        Declaration[] decls = {newClass("A" + i), newField(), newField()};
+        String[] names = {type, type + ".f", type + ".g"};
+        for (int j = 0; j < decls.length; ++j) {
+          shared.addDecl(names[j], decls[j]);
+          expected.addDecl(names[j], decls[j]);
+        }
+        prefixes.add(type);
+        prefixes.add("p" + (i % 5));
+      }
+      final List<List<Token>> results = new ArrayList<List<Token>>();
+      for (String prefix : prefixes) {
+        for (int kind : kinds) {
+          results.add(expected.findWithPrefixOfAnyKind(prefix, kind));
+        }
+      }
+
+      // Every thread runs the same queries in the same order, all at once, so that they race to fill the same memos.
+      final CountDownLatch start = new CountDownLatch(1);
+      final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+      Thread[] threads = new Thread[8];
+      for (int t = 0; t < threads.length; ++t) {
+        threads[t] = new Thread(new Runnable() {
+          @Override
+          public void run() {
+            try {
+              start.await();
+              for (int i = 0; i < results.size(); ++i) {
+                List<Token> found = shared.findWithPrefixOfAnyKind(prefixes.get(i / kinds.length), kinds[i % kinds.length]);
+                if (!found.equals(results.get(i))) {
+                  throw new AssertionError("Wrong values for " + prefixes.get(i / kinds.length));
+                }
+              }
+            } catch (Throwable e) {
+              failure.compareAndSet(null, e);
+            }
+          }
+        });
+        threads[t].start();
+      }
+      start.countDown();
+      for (Thread thread : threads) {
+        thread.join();
+      }
+      if (failure.get() != null) {
+        throw new AssertionError(failure.get());
+      }
+    }
+  }
+
+  private static ClassDeclaration newClass(String name) {
+    ArrayList<Token> children = new ArrayList<Token>();
+    children.add(new Token(name, TokenType.IDENTIFIER));
+    return new ClassDeclaration(children);
+  }
+
+  private static FieldDeclaration newField() {
+    ArrayList<Token> children = new ArrayList<Token>();
+    children.add(new Token(";", TokenType.SEMI_COLON));
+    return new FieldDeclaration(children);
+  }
 }
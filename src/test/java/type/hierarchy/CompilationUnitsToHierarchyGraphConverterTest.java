@@ -0,0 +1,66 @@
+package type.hierarchy;
+
+import exception.CompilerException;
+import org.junit.Test;
+import token.BaseMethodDeclaration;
+import token.CompilationUnit;
+import token.FormalParameter;
+import token.MethodDeclaration;
+import util.CodeGenUtils;
+import util.CompilationUnitGenerator;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests the signature labels the converter stores in the method headers for code generation.
+ */
+public class CompilationUnitsToHierarchyGraphConverterTest {
+
+  @Test
+  public void testSignatureLabelsMatchGeneratedLabels() throws IOException, CompilerException {
+    HierarchyGraph graph = CompilationUnitGenerator.makeUpToTypeChecking(CompilationUnitGenerator.getStdlibFiles()).graph;
+    for (BaseMethodDeclaration method : graph.get("java.lang.String").baseMethodDeclarations) {
+      if (method instanceof MethodDeclaration) {
+        assertNotNull(((MethodDeclaration) method).methodHeader.signatureLabel);
+        assertLabelMatches((MethodDeclaration) method);
+      }
+    }
+  }
+
+  @Test
+  public void testNoSignatureLabelForUnlinkedTypes() throws IOException, CompilerException {
+    List<CompilationUnit> units = CompilationUnitGenerator.makeUpToTypeChecking(CompilationUnitGenerator.getStdlibFiles()).units;
+    HierarchyGraph graph = new CompilationUnitsToHierarchyGraphConverter().convert(units);
+    MethodDeclaration valueOfObject = null;
+    for (BaseMethodDeclaration method : graph.get("java.lang.String").baseMethodDeclarations) {
+      if (method instanceof MethodDeclaration && method.getIdentifier().equals("valueOf") &&
+        ((MethodDeclaration) method).getParameters().get(0).getType().getLexeme().equals("Object")) {
+        valueOfObject = (MethodDeclaration) method;
+      }
+    }
+    FormalParameter parameter = valueOfObject.getParameters().get(0);
+    assertEquals("valueOf#java.lang.Object", valueOfObject.methodHeader.signatureLabel);
+
+    // Without its link, the signature is made of the type as written, which code generation does not use.
+    parameter.type.getReferenceName().setAbsolutePath(null);
+    graph = new CompilationUnitsToHierarchyGraphConverter().convert(units);
+    assertNull(valueOfObject.methodHeader.signatureLabel);
+    for (BaseMethodDeclaration method : graph.get("java.lang.String").baseMethodDeclarations) {
+      if (method instanceof MethodDeclaration && method != valueOfObject) {
+        assertLabelMatches((MethodDeclaration) method);
+      }
+    }
+  }
+
+  private static void assertLabelMatches(MethodDeclaration methodDeclaration) {
+    String label = methodDeclaration.methodHeader.signatureLabel;
+    methodDeclaration.methodHeader.signatureLabel = null;
+    assertEquals(CodeGenUtils.genMethodLabel(methodDeclaration), label);
+    methodDeclaration.methodHeader.signatureLabel = label;
+  }
+}
@@ -0,0 +1,82 @@
+package type.hierarchy;
+
+import exception.TypeHierarchyException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Answers subtype queries on a synthetic hierarchy of 2000 types, a tree of classes implementing interfaces that
+ * extend each other in diamonds, with the subtype index and with the search through the children.
+ * Not run as part of the test suite, run the main method from the repository root.
+ */
+public class HierarchyGraphBenchmark {
+  private static final int CLASSES = 1000;
+  private static final int INTERFACE_LAYERS = 10;
+  private static final int INTERFACES_PER_LAYER = 100;
+  private static final int QUERIES = 100000;
+  // Searching is too slow to run for every query.
+  private static final int SEARCH_QUERIES = 1000;
+
+  public static void main(String[] args) throws TypeHierarchyException {
+    HierarchyGraph graph = new HierarchyGraph();
+    List<HierarchyGraphNode> nodes = new ArrayList<HierarchyGraphNode>();
+    for (int layer = 0; layer < INTERFACE_LAYERS; ++layer) {
+      for (int i = 0; i < INTERFACES_PER_LAYER; ++i) {
+        HierarchyGraphNode node = graph.createNode("Interface" + layer + "_" + i);
+        if (layer > 0) {
+          // Each interface extends two of the previous layer, and shares each of them with a neighbour.
+          addChild(nodes.get((layer - 1) * INTERFACES_PER_LAYER + i), node);
+          addChild(nodes.get((layer - 1) * INTERFACES_PER_LAYER + (i + 1) % INTERFACES_PER_LAYER), node);
+        }
+        nodes.add(node);
+      }
+    }
+    int interfaces = nodes.size();
+    for (int i = 0; i < CLASSES; ++i) {
+      HierarchyGraphNode node = graph.createNode("Class" + i);
+      if (i > 0) addChild(nodes.get(interfaces + (i - 1) / 2), node);
+      addChild(nodes.get((i * 37) % interfaces), node);
+      nodes.add(node);
+    }
+    System.out.printf("%d types%n", nodes.size());
+
+    // Warm up the search.
+    query(graph, nodes, SEARCH_QUERIES);
+    long start = System.nanoTime();
+    int searched = query(graph, nodes, SEARCH_QUERIES);
+    long search = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    graph.buildSubtypeIndex();
+    long build = System.nanoTime() - start;
+    query(graph, nodes, QUERIES);
+    start = System.nanoTime();
+    int indexed = query(graph, nodes, QUERIES);
+    long index = System.nanoTime() - start;
+
+    System.out.printf("index built in %.2f ms%n", build / 1e6);
+    System.out.printf("indexed: %.3f us per query (%d subtypes in %d queries)%n",
+        index / 1e3 / QUERIES, indexed, QUERIES);
+    System.out.printf("search:  %.3f us per query (%d subtypes in %d queries)%n",
+        search / 1e3 / SEARCH_QUERIES, searched, SEARCH_QUERIES);
+  }
+
+  private static void addChild(HierarchyGraphNode parent, HierarchyGraphNode child) {
+    parent.children.add(child);
+    child.implementsList.add(parent);
+  }
+
+  /**
+   * Asks whether a type is a strict supertype of another, for pseudo-random pairs.
+   */
+  private static int query(HierarchyGraph graph, List<HierarchyGraphNode> nodes, int queries) {
+    int subtypes = 0;
+    for (int i = 0; i < queries; ++i) {
+      HierarchyGraphNode a = nodes.get((int) ((i * 7919L) % nodes.size()));
+      HierarchyGraphNode b = nodes.get((int) ((i * 104729L + 13) % nodes.size()));
+      if (graph.nodeAIsParentOfNodeB(a, b)) subtypes++;
+    }
+    return subtypes;
+  }
+}
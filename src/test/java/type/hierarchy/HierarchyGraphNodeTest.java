@@ -0,0 +1,96 @@
+package type.hierarchy;
+
+import exception.CompilerException;
+import org.junit.Test;
+import token.BaseMethodDeclaration;
+import token.FieldDeclaration;
+import util.CompilationUnitGenerator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the member tables of a HierarchyGraphNode against the lists they index.
+ */
+public class HierarchyGraphNodeTest {
+
+  @Test
+  public void testMemberTables() throws IOException, CompilerException {
+    HierarchyGraph graph = CompilationUnitGenerator.makeUpToTypeChecking(CompilationUnitGenerator.getStdlibFiles()).graph;
+    HierarchyGraphNode integer = graph.get("java.lang.Integer");
+
+    List<BaseMethodDeclaration> intValues = integer.getMethods("intValue");
+    // Integer.intValue() and the abstract Number.intValue(), in the order of getAllMethods.
+    assertEquals(2, intValues.size());
+    assertEquals(getAllMethods(integer, "intValue"), intValues);
+    assertEquals(getAllMethods(integer, "toString"), integer.getMethods("toString"));
+    assertEquals(1, integer.getMethods("hashCode").size());
+    assertTrue(integer.getMethods("missing").isEmpty());
+    assertSame(integer.getMethodTable(), integer.getMethodTable());
+    try {
+      intValues.clear();
+      fail("Method lists should not be modifiable");
+    } catch (UnsupportedOperationException e) {
+    }
+
+    FieldDeclaration value = integer.getField("value");
+    assertEquals("value", value.getIdentifier());
+    assertSame(value, integer.getFieldTable().get("value"));
+    assertNull(integer.getField("missing"));
+    assertNull(integer.getBaseField("value"));
+  }
+
+  @Test
+  public void testMemberViewsAreKept() throws IOException, CompilerException {
+    HierarchyGraph graph = CompilationUnitGenerator.makeUpToTypeChecking(CompilationUnitGenerator.getStdlibFiles()).graph;
+    HierarchyGraphNode integer = graph.get("java.lang.Integer");
+    HierarchyGraphNode number = graph.get("java.lang.Number");
+
+    List<BaseMethodDeclaration> methods = integer.getAllMethods();
+    assertSame(methods, integer.getAllMethods());
+    assertEquals(integer.baseMethodDeclarations.size() + number.getAllMethods().size(), methods.size());
+    assertEquals(number.getAllMethods(), methods.subList(integer.baseMethodDeclarations.size(), methods.size()));
+    assertSame(integer.getAllFieldsReverse(), integer.getAllFieldsReverse());
+    assertEquals(graph.get("java.lang.Object").classOrInterface,
+        integer.getAllBaseClasses().get(0));
+    try {
+      methods.clear();
+      fail("Member views should not be modifiable");
+    } catch (UnsupportedOperationException e) {
+    }
+
+    // A member added to a parent shows once the views are dropped.
+    number.baseMethodDeclarations = new ArrayList<BaseMethodDeclaration>(number.baseMethodDeclarations);
+    number.baseMethodDeclarations.add(integer.baseMethodDeclarations.get(0));
+    assertEquals(methods.size(), integer.getAllMethods().size());
+    graph.invalidateMemberViews();
+    assertEquals(methods.size() + 1, integer.getAllMethods().size());
+    String identifier = integer.baseMethodDeclarations.get(0).getIdentifier();
+    assertEquals(getAllMethods(integer, identifier), integer.getMethods(identifier));
+
+    // Views built again from the roots down show the member too, and their tables cannot be changed.
+    graph.buildMemberViews();
+    assertEquals(methods.size() + 1, integer.getAllMethods().size());
+    assertEquals(getAllMethods(integer, identifier), integer.getMethods(identifier));
+    try {
+      integer.getMethodTable().clear();
+      fail("Member tables should not be modifiable");
+    } catch (UnsupportedOperationException e) {
+    }
+  }
+
+  private static List<BaseMethodDeclaration> getAllMethods(HierarchyGraphNode node, String identifier) {
+    List<BaseMethodDeclaration> methods = new ArrayList<BaseMethodDeclaration>();
+    for (BaseMethodDeclaration method : node.getAllMethods()) {
+      if (method.getIdentifier().equals(identifier)) methods.add(method);
+    }
+    return methods;
+  }
+}
@@ -0,0 +1,187 @@
+package type.hierarchy;
+
+import exception.TypeHierarchyException;
+import org.junit.Test;
+import token.Name;
+import token.Token;
+import token.TokenType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the node lookup, the cycle detection, the topological order and that the subtype index answers like the
+ * search through the children.
+ */
+public class HierarchyGraphTest {
+
+  @Test
+  public void testSubtypeIndexMatchesSearch() throws TypeHierarchyException {
+    HierarchyGraph graph = new HierarchyGraph();
+    HierarchyGraphNode object = graph.createNode("Object");
+    HierarchyGraphNode top = graph.createNode("Top");
+    HierarchyGraphNode left = graph.createNode("Left");
+    HierarchyGraphNode right = graph.createNode("Right");
+    HierarchyGraphNode bottom = graph.createNode("Bottom");
+    HierarchyGraphNode clazz = graph.createNode("Class");
+    HierarchyGraphNode subclass = graph.createNode("Subclass");
+    // A diamond of interfaces, implemented by a class and its subclass.
+    addChild(top, left);
+    addChild(top, right);
+    addChild(left, bottom);
+    addChild(right, bottom);
+    addChild(object, clazz);
+    addChild(bottom, clazz);
+    addChild(clazz, subclass);
+
+    List<HierarchyGraphNode> nodes = new ArrayList<HierarchyGraphNode>();
+    for (String name : new String[]{"Object", "Top", "Left", "Right", "Bottom", "Class", "Subclass"}) {
+      nodes.add(graph.get(name));
+    }
+    List<Boolean> searched = new ArrayList<Boolean>();
+    for (HierarchyGraphNode a : nodes) {
+      for (HierarchyGraphNode b : nodes) {
+        searched.add(graph.nodeAIsParentOfNodeB(a, b));
+      }
+    }
+
+    graph.buildSubtypeIndex();
+    List<Boolean> indexed = new ArrayList<Boolean>();
+    for (HierarchyGraphNode a : nodes) {
+      for (HierarchyGraphNode b : nodes) {
+        indexed.add(graph.nodeAIsParentOfNodeB(a, b));
+      }
+    }
+    assertEquals(searched, indexed);
+    assertTrue(graph.nodeAIsParentOfNodeB(top, subclass));
+    assertFalse(graph.nodeAIsParentOfNodeB(subclass, top));
+    assertFalse(graph.nodeAIsParentOfNodeB(left, right));
+    assertFalse(graph.nodeAIsParentOfNodeB(bottom, bottom));
+    assertTrue(graph.areNodesConnected("Subclass", "Left"));
+  }
+
+  @Test
+  public void testFindCyclesReportsEveryCycle() throws TypeHierarchyException {
+    HierarchyGraph graph = new HierarchyGraph();
+    HierarchyGraphNode a = graph.createNode("A");
+    HierarchyGraphNode b = graph.createNode("B");
+    HierarchyGraphNode c = graph.createNode("C");
+    HierarchyGraphNode d = graph.createNode("D");
+    HierarchyGraphNode e = graph.createNode("E");
+    HierarchyGraphNode f = graph.createNode("F");
+    HierarchyGraphNode g = graph.createNode("G");
+    addChild(a, b);
+    addChild(b, c);
+    addChild(c, a);
+    addChild(c, d);
+    addChild(e, f);
+    addChild(f, e);
+    addChild(g, g);
+
+    List<List<HierarchyGraphNode>> cycles = graph.findCycles();
+    assertEquals(3, cycles.size());
+    assertEquals(3, cycles.get(0).size());
+    assertTrue(cycles.get(0).containsAll(Arrays.asList(a, b, c)));
+    assertEquals(2, cycles.get(1).size());
+    assertTrue(cycles.get(1).containsAll(Arrays.asList(e, f)));
+    assertEquals(Arrays.asList(g), cycles.get(2));
+  }
+
+  @Test
+  public void testFindCyclesInOrderOfCreation() throws TypeHierarchyException {
+    HierarchyGraph graph = new HierarchyGraph();
+    HierarchyGraphNode x = graph.createNode("X");
+    HierarchyGraphNode b = graph.createNode("B");
+    HierarchyGraphNode c = graph.createNode("C");
+    HierarchyGraphNode y = graph.createNode("Y");
+    // The cycle of B and C is below X, so it is completed before the cycle of X and Y.
+    addChild(x, b);
+    addChild(x, y);
+    addChild(y, x);
+    addChild(b, c);
+    addChild(c, b);
+
+    List<List<HierarchyGraphNode>> cycles = graph.findCycles();
+    assertEquals(2, cycles.size());
+    assertEquals(Arrays.asList(x, y), cycles.get(0));
+    assertEquals(Arrays.asList(b, c), cycles.get(1));
+  }
+
+  @Test
+  public void testTopologicalOrderPutsParentsFirst() throws TypeHierarchyException {
+    HierarchyGraph graph = new HierarchyGraph();
+    HierarchyGraphNode subclass = graph.createNode("Subclass");
+    HierarchyGraphNode clazz = graph.createNode("Class");
+    HierarchyGraphNode iface = graph.createNode("Interface");
+    HierarchyGraphNode object = graph.createNode("Object");
+    addChild(object, clazz);
+    addChild(iface, clazz);
+    addChild(clazz, subclass);
+    addChild(iface, subclass);
+
+    assertTrue(graph.findCycles().isEmpty());
+    List<HierarchyGraphNode> order = graph.getTopologicalOrder();
+    assertEquals(4, order.size());
+    for (HierarchyGraphNode node : order) {
+      for (HierarchyGraphNode child : node.children) {
+        assertTrue(order.indexOf(node) < order.indexOf(child));
+      }
+    }
+  }
+
+  @Test
+  public void testDeepHierarchy() throws TypeHierarchyException {
+    HierarchyGraph graph = new HierarchyGraph();
+    HierarchyGraphNode previous = graph.createNode("C0");
+    for (int i = 1; i < 50000; ++i) {
+      HierarchyGraphNode node = graph.createNode("C" + i);
+      addChild(previous, node);
+      previous = node;
+    }
+    assertTrue(graph.findCycles().isEmpty());
+    assertEquals("C0", graph.getTopologicalOrder().get(0).identifier);
+
+    addChild(previous, graph.get("C0"));
+    List<List<HierarchyGraphNode>> cycles = graph.findCycles();
+    assertEquals(1, cycles.size());
+    assertEquals(50000, cycles.get(0).size());
+  }
+
+  @Test
+  public void testGetNodeByAbsolutePath() throws TypeHierarchyException {
+    HierarchyGraph graph = new HierarchyGraph();
+    HierarchyGraphNode collection = graph.createNode("java.util.Collection");
+    HierarchyGraphNode local = graph.createNode("Collection");
+
+    Name linked = makeName("Collection");
+    linked.setAbsolutePath("java.util.Collection");
+    assertSame(collection, graph.getNode(linked));
+    assertSame(local, graph.getNode(makeName("Collection")));
+  }
+
+  @Test(expected = TypeHierarchyException.class)
+  public void testGetNodeNotFound() throws TypeHierarchyException {
+    HierarchyGraph graph = new HierarchyGraph();
+    graph.createNode("Collection");
+    Name linked = makeName("Collection");
+    linked.setAbsolutePath("java.util.Collection");
+    graph.getNode(linked);
+  }
+
+  private static Name makeName(String lexeme) {
+    ArrayList<Token> children = new ArrayList<Token>();
+    children.add(new Token(lexeme, TokenType.IDENTIFIER));
+    return new Name(children);
+  }
+
+  private static void addChild(HierarchyGraphNode parent, HierarchyGraphNode child) {
+    parent.children.add(child);
+    child.extendsList.add(parent);
+  }
+}
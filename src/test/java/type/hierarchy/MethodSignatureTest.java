@@ -0,0 +1,46 @@
+package type.hierarchy;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class MethodSignatureTest {
+  private final MethodSignature.Pool signatures = new MethodSignature.Pool();
+
+  @Test
+  public void testEqualSignaturesAreInterned() {
+    MethodSignature a = signatures.of("foo", Arrays.asList("int", "java.lang.String"));
+    MethodSignature b = signatures.of("foo", new ArrayList<String>(Arrays.asList("int", "java.lang.String")));
+    assertSame(a, b);
+    assertEquals(a.hashCode(), b.hashCode());
+  }
+
+  @Test
+  public void testParameterTypesDistinguishSignatures() {
+    MethodSignature signature = signatures.of("foo", Arrays.asList("int"));
+    assertFalse(signature.equals(signatures.of("foo", Arrays.asList("int@"))));
+    assertFalse(signature.equals(signatures.of("foo", Arrays.asList("short"))));
+    assertFalse(signature.equals(signatures.of("bar", Arrays.asList("int"))));
+    assertFalse(signature.equals(signatures.of("foo", new ArrayList<String>())));
+  }
+
+  @Test
+  public void testPoolsAreIndependent() {
+    MethodSignature signature = signatures.of("foo", Arrays.asList("int"));
+    MethodSignature other = new MethodSignature.Pool().of("foo", Arrays.asList("int"));
+    assertNotSame(signature, other);
+    assertEquals(signature.getLabel(), other.getLabel());
+  }
+
+  @Test
+  public void testLabel() {
+    assertEquals("foo#int#java.lang.Object@", signatures.of("foo", Arrays.asList("int", "java.lang.Object@")).getLabel());
+    assertEquals("foo#void", signatures.of("foo", new ArrayList<String>()).getLabel());
+  }
+}
@@ -1,5 +1,6 @@
 package util;
 
+import algorithm.name.resolution.ImportEnvironment;
 import algorithm.parsing.lr.ShiftReduceAlgorithm;
 import exception.CompilerException;
 import lexer.Lexer;
@@ -14,6 +15,7 @@ import visitor.DisambiguityVisitor;
 import visitor.EnvironmentBuildingVisitor;
 import visitor.TypeLinkingVisitor;
 
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -36,20 +38,29 @@ public class CompilationUnitGenerator {
    * CompilationUnits, even though the LR(1) machine could be cached (so every test is fully independent).
    */
   public static List<CompilationUnit> make(List<String> filePaths) throws IOException, CompilerException {
-    Lexer lexer = new Lexer();
+    Lexer lexer = new Lexer(Lexer.Mode.TABLE);
     InputStreamReader lr1Reader = new InputStreamReader(new FileInputStream(ShiftReduceAlgorithm.DEFAULT_LR1_FILE));
     ShiftReduceAlgorithm shiftReduceAlgorithm = new ShiftReduceAlgorithm(lr1Reader);
     List<CompilationUnit> units = new ArrayList<CompilationUnit>(filePaths.size());
     for (String file : filePaths) {
       lexer.resetDFAs();
       shiftReduceAlgorithm.reset();
-      InputStreamReader reader = new InputStreamReader(new FileInputStream(file), "US-ASCII");
-      ArrayList<Token> tokens = lexer.parse(reader);
+      ArrayList<Token> tokens = lexer.parse(new File(file));
       units.add(shiftReduceAlgorithm.constructAST(tokens));
     }
     return units;
   }
 
+  /**
+   * Builds the global scope and the ImportEnvironment of every unit.
+   */
+  public static List<CompilationUnit> makeUpToImports(List<String> filePaths) throws IOException, CompilerException {
+    List<CompilationUnit> units = make(filePaths);
+    new EnvironmentBuildingVisitor(new SymbolTable()).buildGlobalScope(units);
+    ImportEnvironment.build(units);
+    return units;
+  }
+
   public static Bundle makeUpToTypeChecking(List<String> filePaths) throws IOException, CompilerException {
     Bundle bundle = new Bundle();
     bundle.units = make(filePaths);
@@ -63,7 +74,7 @@ public class CompilationUnitGenerator {
 
     CompilationUnitsToHierarchyGraphConverter converter = new CompilationUnitsToHierarchyGraphConverter();
     bundle.graph = converter.convert(bundle.units);
-    HierarchyChecker.verifyHierarchyGraph(bundle.graph);
+    new HierarchyChecker(bundle.graph).verifyHierarchyGraph();
 
     bundle.compilationUnitToNode = converter.compilationUnitToNode;
 
@@ -0,0 +1,50 @@
+package visitor;
+
+import org.junit.Test;
+import token.ClassDeclaration;
+import token.Token;
+import token.TokenType;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TypeCheckTokenTest {
+
+  @Test
+  public void testPrimitiveTypesAreShared() {
+    assertSame(TypeCheckToken.of(TokenType.INT), TypeCheckToken.of(TokenType.INT, false));
+    assertSame(TypeCheckToken.of(TokenType.INT, true), TypeCheckToken.of(TokenType.INT, true));
+    assertNotSame(TypeCheckToken.of(TokenType.INT), TypeCheckToken.of(TokenType.INT, true));
+    assertNotSame(TypeCheckToken.of(TokenType.INT), TypeCheckToken.POSITIVE_INT_LITERAL);
+    assertTrue(TypeCheckToken.POSITIVE_INT_LITERAL.isPositiveIntLiteral);
+    assertFalse(TypeCheckToken.of(TokenType.INT).isPositiveIntLiteral);
+  }
+
+  @Test
+  public void testTableSharesTypesPerDeclaration() {
+    ArrayList<Token> children = new ArrayList<Token>();
+    children.add(new Token("Foo", TokenType.IDENTIFIER));
+    ClassDeclaration declaration = new ClassDeclaration(children);
+
+    TypeCheckToken.Table types = new TypeCheckToken.Table();
+    TypeCheckToken type = types.get(declaration);
+    assertSame(type, types.get(declaration));
+    assertSame(type, types.get(declaration, false));
+    assertFalse(type.isArray);
+
+    TypeCheckToken arrayType = types.get(declaration, true);
+    assertTrue(arrayType.isArray);
+    assertSame(arrayType, types.get(declaration, true));
+    assertSame(type, types.getElementType(arrayType));
+  }
+
+  @Test
+  public void testElementTypes() {
+    TypeCheckToken.Table types = new TypeCheckToken.Table();
+    assertSame(TypeCheckToken.of(TokenType.CHAR), types.getElementType(TypeCheckToken.of(TokenType.CHAR, true)));
+  }
+}
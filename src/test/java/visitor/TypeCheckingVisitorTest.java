@@ -11,6 +11,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
 /**
  * Tests for basic type checking functionality
  */
@@ -273,4 +276,33 @@ public class TypeCheckingVisitorTest {
     visitor = new TypeCheckingVisitor(bundle.symbolTable, bundle.graph, bundle.compilationUnitToNode);
     visitor.typeCheckUnits(bundle.units);
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testParallelReportsFirstError() throws IOException, CompilerException {
+    List<String> files = CompilationUnitGenerator.getStdlibFiles();
+    files.addAll(Arrays.asList(
+            "src/test/resources/typechecking/J1_intstringadd.java",
+            "src/test/resources/typechecking/Je_6_For_NullInCondition.java",
+            "src/test/resources/typechecking/Je_6_Assignable_ReturnInElse.java"
+    ));
+    String sequential = typeCheckError(files, 1);
+    assertNotNull(sequential);
+    for (int i = 0; i < 10; ++i) {
+      assertEquals(sequential, typeCheckError(files, 4));
+    }
+  }
+
+  /**
+   * Returns the message of the type checking error found, or null.
+   */
+  private String typeCheckError(List<String> files, int parallelism) throws IOException, CompilerException {
+    bundle = CompilationUnitGenerator.makeUpToDisambiguity(files);
+    visitor = new TypeCheckingVisitor(bundle.symbolTable, bundle.graph, bundle.compilationUnitToNode, parallelism);
+    try {
+      visitor.typeCheckUnits(bundle.units);
+      return null;
+    } catch (TypeCheckingVisitorException e) {
+      return e.getMessage();
+    }
+  }
+}
@@ -2,6 +2,7 @@ import java.io.*;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.TreeSet;
 
 public class TokenFileGenerator {
 
@@ -83,6 +84,37 @@ public class TokenFileGenerator {
     writer.close();
   }
 
+  public static void writeFactory(String directoryPath, Set<String> nonTerminals) throws IOException {
+    PrintWriter writer = new PrintWriter(new FileWriter(new File(directoryPath + "/token/TokenFactory.java")));
+
+    writer.println("package token;");
+    writer.println();
+    writer.println("import java.util.ArrayList;");
+    writer.println();
+    writer.println("/**");
+    writer.println(" * Constructs the token for a reduced non-terminal without reflection.");
+    writer.println(" * Generated by src/tools/java/TokenFileGenerator from input.cfg.");
+    writer.println(" */");
+    writer.println("public class TokenFactory {");
+    writer.println();
+    writer.println("  /**");
+    writer.println("   * Returns the token for tokenType built from children, or null if tokenType is not a non-terminal.");
+    writer.println("   */");
+    writer.println("  public static Token create(TokenType tokenType, ArrayList<Token> children) {");
+    writer.println("    switch (tokenType) {");
+    for (String nonTerminal : new TreeSet<String>(nonTerminals)) {
+      writer.println("      case " + nonTerminal + ":");
+      writer.println("        return new " + nonTerminal + "(children);");
+    }
+    writer.println("      default:");
+    writer.println("        return null;");
+    writer.println("    }");
+    writer.println("  }");
+    writer.println("}");
+
+    writer.close();
+  }
+
   public static void main(String[] args) throws IOException {
     BufferedReader reader = new BufferedReader(new FileReader(new File(args[0])));
     Set<String> terminals = new HashSet<String>(), nonTerminals = new HashSet<String>();
@@ -97,6 +129,9 @@ public class TokenFileGenerator {
       nonTerminals.add(reader.readLine());
     }
 
+    // The start symbol is never reduced, so it has no token.
+    String startSymbol = reader.readLine();
+
     reader.close();
 
     String directoryPath = "./"; //new File(args[0]).getParent();
@@ -115,5 +150,9 @@ public class TokenFileGenerator {
     writeVisitor(directoryPath, toGenerate, "");
     writeVisitor(directoryPath, toGenerate, "Base");
     writeEnum(directoryPath, nonTerminals);
+
+    Set<String> reducible = new HashSet<String>(nonTerminals);
+    reducible.remove(startSymbol);
+    writeFactory(directoryPath, reducible);
   }
 }